@@ -1,5 +1,6 @@
 USE scholar;
 
+DROP TABLE IF EXISTS article_keywords;
 DROP TABLE IF EXISTS articles;
 
 CREATE TABLE articles (
@@ -9,11 +10,93 @@ CREATE TABLE articles (
   title            VARCHAR(512) NOT NULL,
   authors          VARCHAR(1024),
   publication_date VARCHAR(32),
+  pub_year         SMALLINT NULL,
   abstract         TEXT,
   link             VARCHAR(1024),
   keywords         VARCHAR(512),
   cited_by         INT,
+  prev_cited_by    INT NULL,
   created_at       TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  last_fetched_at  TIMESTAMP NULL DEFAULT CURRENT_TIMESTAMP,
+  prev_fetched_at  TIMESTAMP NULL,
   UNIQUE KEY uk_author_title (author_query, title(255)),
-  UNIQUE KEY uk_article_id (article_id)
-);
\ No newline at end of file
+  UNIQUE KEY uk_article_id (article_id),
+  FULLTEXT KEY ft_articles (title, abstract, authors, keywords),
+  FULLTEXT KEY ft_title (title),
+  KEY idx_refresh (author_query, last_fetched_at),
+  KEY idx_year_cited (pub_year, cited_by),
+  KEY idx_cited (cited_by),
+  KEY idx_author_year_cited (author_query, pub_year, cited_by)
+);
+
+-- Keywords normalizadas (minúsculas), una fila por (keyword, artículo)
+CREATE TABLE article_keywords (
+  article_pk INT NOT NULL,
+  keyword    VARCHAR(64) NOT NULL,
+  PRIMARY KEY (keyword, article_pk),
+  KEY idx_article (article_pk),
+  CONSTRAINT fk_keywords_article FOREIGN KEY (article_pk) REFERENCES articles (id) ON DELETE CASCADE
+);
+
+-- Migración para tablas existentes (búsqueda full-text):
+-- ALTER TABLE articles
+--   ADD FULLTEXT KEY ft_articles (title, abstract, authors, keywords),
+--   ADD FULLTEXT KEY ft_title (title);
+
+-- Migración para tablas existentes (refresco incremental de citas):
+-- ALTER TABLE articles
+--   ADD COLUMN prev_cited_by   INT NULL AFTER cited_by,
+--   ADD COLUMN last_fetched_at TIMESTAMP NULL DEFAULT CURRENT_TIMESTAMP,
+--   ADD COLUMN prev_fetched_at TIMESTAMP NULL,
+--   ADD KEY idx_refresh (author_query, last_fetched_at);
+-- UPDATE articles SET last_fetched_at = created_at WHERE last_fetched_at IS NULL;
+
+-- Artículos sin id: article_id queda NULL (UNIQUE admite varios NULL) en lugar del placeholder:
+-- UPDATE articles SET article_id = NULL WHERE article_id = 'No se encontró id';
+
+-- Grafo de coautores (se reescribe entero con: MainApp --coauthors "" --rebuild)
+CREATE TABLE IF NOT EXISTS coauthor_names (
+  id     INT PRIMARY KEY,
+  name   VARCHAR(255) NOT NULL,
+  papers INT NOT NULL,
+  KEY idx_name (name)
+);
+
+CREATE TABLE IF NOT EXISTS coauthor_edges (
+  author_a      INT NOT NULL,
+  author_b      INT NOT NULL,
+  shared_papers INT NOT NULL,
+  PRIMARY KEY (author_a, author_b),
+  KEY idx_author_b (author_b)
+);
+
+-- Migración para tablas existentes (año tipado, keywords normalizadas e índices de rango):
+-- ALTER TABLE articles
+--   ADD COLUMN pub_year SMALLINT NULL AFTER publication_date,
+--   ADD KEY idx_year_cited (pub_year, cited_by),
+--   ADD KEY idx_cited (cited_by),
+--   ADD KEY idx_author_year_cited (author_query, pub_year, cited_by);
+-- UPDATE articles SET pub_year = CAST(publication_date AS UNSIGNED)
+--   WHERE publication_date REGEXP '^[0-9]{4}$';
+-- (crear article_keywords como arriba y luego:)
+-- INSERT IGNORE INTO article_keywords (article_pk, keyword)
+--   SELECT a.id, LEFT(LOWER(TRIM(j.kw)), 64)
+--   FROM articles a,
+--        JSON_TABLE(CONCAT('["', REPLACE(a.keywords, ',', '","'), '"]'), '$[*]' COLUMNS (kw VARCHAR(255) PATH '$')) j
+--   WHERE a.keywords IS NOT NULL AND a.keywords <> 'No se encontraron keywords' AND TRIM(j.kw) <> '';
+
+-- Autores enriquecidos con su perfil (ENRICH_AUTHORS=on): una fila por (autor, artículo)
+CREATE TABLE IF NOT EXISTS authors (
+  id            INT AUTO_INCREMENT PRIMARY KEY,
+  author_name   VARCHAR(255) NOT NULL,
+  author_id     VARCHAR(64) NULL,
+  citations     INT NULL,
+  article_title VARCHAR(512),
+  profile_url   VARCHAR(255),
+  created_at    TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  UNIQUE KEY uk_author_article (author_name, article_title(255)),
+  KEY idx_author_id (author_id)
+);
+-- Migración si ya existía authors sin clave única:
+-- ALTER TABLE authors ADD UNIQUE KEY uk_author_article (author_name, article_title(255)),
+--   ADD KEY idx_author_id (author_id);
@@ -0,0 +1,111 @@
+package org.GoogleScholar.controller;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-page cost of the extraction path in ScholarController, over SerpAPI-shaped fixtures
+ * of 1, 10 and 20 organic results. Lives in the controller package to reach the
+ * package-private helpers. Run with -prof gc to get allocation rate per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExtractionBenchmark {
+
+    @Param({"small", "medium", "large"})
+    public String fixture;
+
+    private byte[] body;
+    private List<ScholarResult> results;
+    private String[] compactJson;
+    private KeywordExtractor frequency;
+    private KeywordExtractor tfidf;
+
+    @Setup
+    public void setup() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/fixtures/scholar-" + fixture + ".json")) {
+            if (in == null) throw new IllegalStateException("Missing fixture " + fixture);
+            body = in.readAllBytes();
+        }
+        results = OrganicResultReader.read(new ByteArrayInputStream(body));
+        compactJson = results.stream().map(ScholarResult::toCompactJson).toArray(String[]::new);
+
+        frequency = new KeywordExtractor(KeywordExtractor.Mode.FREQUENCY, 3);
+        tfidf = new KeywordExtractor(KeywordExtractor.Mode.TFIDF, 3);
+        for (ScholarResult r : results) tfidf.observe(r.getSnippet());
+    }
+
+    /** Lo que hace fetchTopArticlesByAuthorName con cada página: lectura en streaming. */
+    @Benchmark
+    public List<ScholarResult> streamingParse() throws IOException {
+        return OrganicResultReader.read(new ByteArrayInputStream(body));
+    }
+
+    /** Referencia: el parseo anterior (String + árbol Gson completo). */
+    @Benchmark
+    public void treeParse(Blackhole bh) {
+        JsonObject root = JsonParser.parseString(new String(body, StandardCharsets.UTF_8)).getAsJsonObject();
+        JsonArray arr = root.getAsJsonArray("organic_results");
+        bh.consume(arr.size());
+    }
+
+    @Benchmark
+    public void extractAuthorsCsv(Blackhole bh) {
+        for (ScholarResult r : results) bh.consume(ScholarController.extractAuthorsCsv(r));
+    }
+
+    @Benchmark
+    public void extractYear(Blackhole bh) {
+        for (ScholarResult r : results) bh.consume(ScholarController.extractYear(r));
+    }
+
+    @Benchmark
+    public void extractCitedBy(Blackhole bh) {
+        for (ScholarResult r : results) bh.consume(ScholarController.extractCitedBy(r));
+    }
+
+    @Benchmark
+    public void computeKeywords(Blackhole bh) {
+        for (ScholarResult r : results) {
+            bh.consume(frequency.extract(r.getSnippet(), ScholarController.extractAuthorsCsv(r)));
+        }
+    }
+
+    @Benchmark
+    public void computeKeywordsTfIdf(Blackhole bh) {
+        for (ScholarResult r : results) {
+            bh.consume(tfidf.extract(r.getSnippet(), ScholarController.extractAuthorsCsv(r)));
+        }
+    }
+
+    @Benchmark
+    public void trimJson(Blackhole bh) {
+        for (String j : compactJson) bh.consume(ScholarController.trimJson(j));
+    }
+
+    /** Extracción completa de una página: parseo + todos los campos + keywords. */
+    @Benchmark
+    public void fullPage(Blackhole bh) throws IOException {
+        for (ScholarResult r : OrganicResultReader.read(new ByteArrayInputStream(body))) {
+            String authors = ScholarController.extractAuthorsCsv(r);
+            bh.consume(authors);
+            bh.consume(ScholarController.extractYear(r));
+            bh.consume(ScholarController.extractCitedBy(r));
+            bh.consume(frequency.extract(r.getSnippet() != null ? r.getSnippet() : r.getTitle(), authors));
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package org.GoogleScholar.loadtest;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local stand-in for SerpAPI's google_scholar engine. Serves pages built from the recorded
+ * fixture results (ids/titles made unique per query and offset), paginated by start/num,
+ * with a configurable latency distribution and random 429 / 5xx injection.
+ * engine=google_scholar_author returns a small profile (name and total citations) for any author_id.
+ * Optionally enforces a per-api_key rate (429 "Too many requests") and quota (429 "run out of searches").
+ */
+public class FakeSerpApiServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final JsonArray templates;
+    private final LatencyModel latency;
+    private final double error429Rate;
+    private final double error5xxRate;
+    private final int resultsPerQuery;
+    private volatile int keyRatePerSec;      // 0 = sin límite
+    private volatile long keyQuota = -1;     // -1 = ilimitada
+    private final Map<String, long[]> keyWindows = new ConcurrentHashMap<>();   // {segundo, peticiones}
+    private final Map<String, AtomicLong> keyUsed = new ConcurrentHashMap<>();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder authorRequests = new LongAdder();
+    private final LongAdder injected429 = new LongAdder();
+    private final LongAdder injected5xx = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder quotaExceeded = new LongAdder();
+
+    public FakeSerpApiServer(int port, LatencyModel latency, double error429Rate, double error5xxRate,
+                             int resultsPerQuery, int threads) throws IOException {
+        this.latency = latency;
+        this.error429Rate = error429Rate;
+        this.error5xxRate = error5xxRate;
+        this.resultsPerQuery = resultsPerQuery;
+        this.templates = loadTemplates();
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        this.server.createContext("/search.json", this::handle);
+        this.server.setExecutor(executor);
+    }
+
+    /** Límites por api_key: peticiones por segundo (0 = sin límite) y búsquedas totales (-1 = sin límite). */
+    public FakeSerpApiServer withKeyLimits(int ratePerSec, long quota) {
+        this.keyRatePerSec = ratePerSec;
+        this.keyQuota = quota;
+        return this;
+    }
+
+    public FakeSerpApiServer start() {
+        server.start();
+        return this;
+    }
+
+    /** URL base para SERPAPI_BASE_URL / ScholarController. */
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/search.json";
+    }
+
+    private static JsonArray loadTemplates() throws IOException {
+        try (InputStream in = FakeSerpApiServer.class.getResourceAsStream("/fixtures/scholar-large.json")) {
+            if (in == null) throw new IOException("Missing fixture scholar-large.json");
+            JsonObject root = JsonParser.parseString(new String(in.readAllBytes(), StandardCharsets.UTF_8)).getAsJsonObject();
+            return root.getAsJsonArray("organic_results");
+        }
+    }
+
+    private void handle(HttpExchange ex) throws IOException {
+        requests.increment();
+        try {
+            sleepMillis(latency.sampleMillis());
+
+            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+            double roll = rnd.nextDouble();
+            if (roll < error429Rate) {
+                injected429.increment();
+                ex.getResponseHeaders().add("Retry-After", "1");
+                send(ex, 429, "{\"error\":\"Too many requests.\"}");
+                return;
+            }
+            if (roll < error429Rate + error5xxRate) {
+                injected5xx.increment();
+                send(ex, rnd.nextBoolean() ? 500 : 503, "{\"error\":\"Internal error\"}");
+                return;
+            }
+
+            Map<String, String> params = queryParams(ex.getRequestURI().getRawQuery());
+            if (!params.containsKey("api_key")) {
+                send(ex, 401, "{\"error\":\"Invalid API key.\"}");
+                return;
+            }
+            String key = params.get("api_key");
+            if (overRate(key)) {
+                rateLimited.increment();
+                ex.getResponseHeaders().add("Retry-After", "1");
+                send(ex, 429, "{\"error\":\"Too many requests.\"}");
+                return;
+            }
+            if (keyQuota >= 0 && keyUsed.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet() > keyQuota) {
+                quotaExceeded.increment();
+                send(ex, 429, "{\"error\":\"Your account has run out of searches.\"}");
+                return;
+            }
+            if ("google_scholar_author".equals(params.get("engine"))) {
+                authorRequests.increment();
+                send(ex, 200, authorProfile(params.getOrDefault("author_id", "")).toString());
+                return;
+            }
+            String q = params.getOrDefault("q", "");
+            int start = parseInt(params.get("start"), 0);
+            int num = Math.min(20, parseInt(params.get("num"), 10));
+            send(ex, 200, page(q, start, num).toString());
+        } finally {
+            ex.close();
+        }
+    }
+
+    /** Ventana fija de un segundo por clave. */
+    private boolean overRate(String key) {
+        int limit = keyRatePerSec;
+        if (limit <= 0) return false;
+        long second = System.nanoTime() / 1_000_000_000L;
+        long[] w = keyWindows.computeIfAbsent(key, k -> new long[2]);
+        synchronized (w) {
+            if (w[0] != second) { w[0] = second; w[1] = 0; }
+            return ++w[1] > limit;
+        }
+    }
+
+    private JsonObject page(String q, int start, int num) {
+        JsonArray results = new JsonArray();
+        int end = Math.min(resultsPerQuery, start + num);
+        for (int i = start; i < end; i++) {
+            JsonObject r = templates.get(i % templates.size()).deepCopy().getAsJsonObject();
+            String id = Integer.toHexString((q + "#" + i).hashCode()) + i;
+            r.addProperty("position", i - start);
+            r.addProperty("result_id", id);
+            r.addProperty("title", r.get("title").getAsString() + " (" + q + " #" + i + ")");
+            results.add(r);
+        }
+        JsonObject params = new JsonObject();
+        params.addProperty("engine", "google_scholar");
+        params.addProperty("q", q);
+        params.addProperty("start", start);
+        params.addProperty("num", num);
+
+        JsonObject metadata = new JsonObject();
+        metadata.addProperty("status", "Success");
+
+        JsonObject root = new JsonObject();
+        root.add("search_metadata", metadata);
+        root.add("search_parameters", params);
+        root.add("organic_results", results);
+        return root;
+    }
+
+    private static JsonObject authorProfile(String authorId) {
+        JsonObject author = new JsonObject();
+        author.addProperty("name", authorId.replace("AAAAJ", ""));
+        author.addProperty("affiliations", "Example University");
+
+        JsonObject citations = new JsonObject();
+        citations.addProperty("all", Math.abs(authorId.hashCode() % 100_000));
+        JsonObject row = new JsonObject();
+        row.add("citations", citations);
+        JsonArray table = new JsonArray();
+        table.add(row);
+        JsonObject citedBy = new JsonObject();
+        citedBy.add("table", table);
+
+        JsonObject root = new JsonObject();
+        root.add("author", author);
+        root.add("cited_by", citedBy);
+        return root;
+    }
+
+    private static void send(HttpExchange ex, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> queryParams(String raw) {
+        Map<String, String> out = new HashMap<>();
+        if (raw == null) return out;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            out.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return out;
+    }
+
+    private static int parseInt(String v, int def) {
+        try { return v == null ? def : Integer.parseInt(v); } catch (NumberFormatException e) { return def; }
+    }
+
+    private static void sleepMillis(long ms) {
+        if (ms <= 0) return;
+        try { Thread.sleep(ms); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+    }
+
+    public long getRequests()    { return requests.sum(); }
+    public long getAuthorRequests() { return authorRequests.sum(); }
+    public long getInjected429() { return injected429.sum(); }
+    public long getInjected5xx() { return injected5xx.sum(); }
+    public long getRateLimited() { return rateLimited.sum(); }
+    public long getQuotaExceeded() { return quotaExceeded.sum(); }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /** Standalone: FakeSerpApiServer [port] [latency] [429 rate] [5xx rate] [results per query]. */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8089;
+        LatencyModel lat = LatencyModel.parse(args.length > 1 ? args[1] : "lognormal:150:0.5");
+        double e429 = args.length > 2 ? Double.parseDouble(args[2]) : 0.0;
+        double e5xx = args.length > 3 ? Double.parseDouble(args[3]) : 0.0;
+        int results = args.length > 4 ? Integer.parseInt(args[4]) : 30;
+        FakeSerpApiServer s = new FakeSerpApiServer(port, lat, e429, e5xx, results, 64).start();
+        System.out.println("Fake SerpAPI on " + s.baseUrl() + " (latency " + lat + ")");
+    }
+
+    /** Latency distribution: fixed:ms | uniform:min:max | lognormal:medianMs:sigma. */
+    public static final class LatencyModel {
+        private final String kind;
+        private final double a;
+        private final double b;
+
+        private LatencyModel(String kind, double a, double b) {
+            this.kind = kind;
+            this.a = a;
+            this.b = b;
+        }
+
+        public static LatencyModel parse(String spec) {
+            String[] p = spec.split(":");
+            return switch (p[0]) {
+                case "fixed"     -> new LatencyModel("fixed", Double.parseDouble(p[1]), 0);
+                case "uniform"   -> new LatencyModel("uniform", Double.parseDouble(p[1]), Double.parseDouble(p[2]));
+                case "lognormal" -> new LatencyModel("lognormal", Double.parseDouble(p[1]), Double.parseDouble(p[2]));
+                default -> throw new IllegalArgumentException("Unknown latency model: " + spec);
+            };
+        }
+
+        long sampleMillis() {
+            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+            return switch (kind) {
+                case "fixed"   -> (long) a;
+                case "uniform" -> (long) (a + rnd.nextDouble() * (b - a));
+                default        -> (long) (a * Math.exp(b * rnd.nextGaussian())); // mediana a
+            };
+        }
+
+        @Override
+        public String toString() {
+            return kind + ":" + a + (kind.equals("fixed") ? "" : ":" + b);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.GoogleScholar.loadtest;
+
+import org.GoogleScholar.controller.ApiKeyPool;
+import org.GoogleScholar.controller.AuthorEnricher;
+import org.GoogleScholar.controller.ScholarController;
+import org.GoogleScholar.model.Author;
+import org.GoogleScholar.model.Issue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * End-to-end load driver: crawls N synthetic authors through ScholarController (fetch,
+ * retries, streaming parse, extraction) against FakeSerpApiServer, with C authors in
+ * flight, and reports authors/s plus p50/p90/p99 per-author latency.
+ *
+ * Options: --authors 200 --concurrency 8 --per-author 3 --latency lognormal:150:0.5
+ *          --error429 0.02 --error5xx 0.01 --results 30 [--url http://host/search.json]
+ *          [--enrich 1]  (also resolve every article author's profile through AuthorEnricher)
+ *          [--keys 1] [--key-rate 0] [--key-quota -1]  (key pool size; per-key server rate/quota limits)
+ */
+public class LoadDriver {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> o = options(args);
+        int authors     = Integer.parseInt(o.getOrDefault("authors", "200"));
+        int concurrency = Integer.parseInt(o.getOrDefault("concurrency", "8"));
+        int perAuthor   = Integer.parseInt(o.getOrDefault("per-author", "3"));
+
+        FakeSerpApiServer server = null;
+        String url = o.get("url");
+        if (url == null) {
+            server = new FakeSerpApiServer(0,
+                    FakeSerpApiServer.LatencyModel.parse(o.getOrDefault("latency", "lognormal:150:0.5")),
+                    Double.parseDouble(o.getOrDefault("error429", "0")),
+                    Double.parseDouble(o.getOrDefault("error5xx", "0")),
+                    Integer.parseInt(o.getOrDefault("results", "30")),
+                    Math.max(16, concurrency * 2))
+                    .withKeyLimits(Integer.parseInt(o.getOrDefault("key-rate", "0")),
+                            Long.parseLong(o.getOrDefault("key-quota", "-1")))
+                    .start();
+            url = server.baseUrl();
+        }
+
+        long[] latNanos = new long[authors];
+        LongAdder articles = new LongAdder();
+        LongAdder failures = new LongAdder();
+        LongAdder authorMentions = new LongAdder();
+        boolean enrich = "1".equals(o.get("enrich")) || "true".equalsIgnoreCase(o.get("enrich"));
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+
+        int keyCount = Integer.parseInt(o.getOrDefault("keys", "1"));
+        StringBuilder keys = new StringBuilder();
+        for (int k = 1; k <= keyCount; k++) keys.append(k > 1 ? "," : "").append("load-test-key-").append(k);
+
+        // Sin cache de respuestas: cada autor va a la red
+        try (ScholarController controller = new ScholarController(keys.toString(), url, null)) {
+            AuthorEnricher enricher = enrich
+                    ? new AuthorEnricher(controller::fetchAuthorProfile, 10_000, 3_600_000L) : null;
+            long t0 = System.nanoTime();
+            CountDownLatch done = new CountDownLatch(authors);
+            for (int i = 0; i < authors; i++) {
+                final int idx = i;
+                pool.execute(() -> {
+                    long s = System.nanoTime();
+                    try {
+                        String name = "Load Author " + idx;
+                        if (enricher == null) {
+                            articles.add(controller.fetchTopArticlesByAuthorName(name, perAuthor).size());
+                        } else {
+                            List<Author> refs = new ArrayList<>();
+                            articles.add(controller.fetchTopArticlesByAuthorName(name, perAuthor, refs).size());
+                            authorMentions.add(refs.size());
+                            List<Issue> ignored = new ArrayList<>();
+                            enricher.enrich(name, refs, ignored);
+                        }
+                    } catch (Exception e) {
+                        failures.increment();
+                    } finally {
+                        latNanos[idx] = System.nanoTime() - s;
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+            double secs = (System.nanoTime() - t0) / 1e9;
+
+            Arrays.sort(latNanos);
+            System.out.println("\n=== Load test ===");
+            System.out.printf("Authors   : %d in %.2fs → %.2f authors/s (concurrency %d)%n", authors, secs, authors / secs, concurrency);
+            System.out.printf("Articles  : %d | failed authors: %d | issues: %d%n",
+                    articles.sum(), failures.sum(), controller.drainIssues().size());
+            System.out.printf("Latency   : p50 %.1fms  p90 %.1fms  p99 %.1fms  max %.1fms%n",
+                    pct(latNanos, 50), pct(latNanos, 90), pct(latNanos, 99), latNanos[authors - 1] / 1e6);
+            System.out.printf("API calls : %d%n", controller.getApiCalls());
+            var sched = controller.getRequestScheduler();
+            System.out.printf("Scheduler : %d retries, %d x 429 throttled, breaker %s (opened %d, rejected %d)%n",
+                    sched.getRetries(), sched.getThrottled(), sched.getBreakerState(),
+                    sched.getBreakerOpens(), sched.getRejectedByBreaker());
+            if (enricher != null) {
+                System.out.printf("Profiles  : %d author mention(s) → %d profile request(s) | %d cache hit(s), %d coalesced, %d failed%n",
+                        authorMentions.sum(), enricher.getFetches(), enricher.getCacheHits(),
+                        enricher.getCoalesced(), enricher.getFailures());
+            }
+            for (ApiKeyPool.KeyStats k : controller.getApiKeyPool().snapshot()) {
+                System.out.printf("Key %s : %s, %d request(s), %d x 429, %.2f req/s%n",
+                        k.getKey(), k.getState(), k.getRequests(), k.getThrottled(), k.getRate());
+            }
+            if (server != null) {
+                System.out.printf("Server    : %d requests (%d author profiles), %d x 429, %d x 5xx injected | %d rate-limited, %d over quota%n",
+                        server.getRequests(), server.getAuthorRequests(), server.getInjected429(), server.getInjected5xx(),
+                        server.getRateLimited(), server.getQuotaExceeded());
+            }
+        } finally {
+            pool.shutdownNow();
+            if (server != null) server.close();
+        }
+    }
+
+    private static double pct(long[] sorted, int p) {
+        int i = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, i))] / 1e6;
+    }
+
+    private static Map<String, String> options(String[] args) {
+        Map<String, String> o = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (args[i].startsWith("--")) o.put(args[i].substring(2), args[i + 1]);
+        }
+        return o;
+    }
+}
@@ -0,0 +1,76 @@
+package org.GoogleScholar;
+
+import org.GoogleScholar.controller.ScholarController;
+import org.GoogleScholar.loadtest.FakeSerpApiServer;
+import org.GoogleScholar.model.LogArticleStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** The checkpoint only lists authors whose articles were fetched and committed. */
+class BatchRunnerTest {
+
+    private static final List<String> AUTHORS = List.of("Ada", "Grace", "Alan", "Edsger", "Barbara");
+
+    @TempDir
+    Path dir;
+
+    private static FakeSerpApiServer server(double rate429, double rate5xx) throws IOException {
+        return new FakeSerpApiServer(0, FakeSerpApiServer.LatencyModel.parse("fixed:0"), rate429, rate5xx, 10, 4).start();
+    }
+
+    /** Una ejecución de --batch contra el servidor falso; devuelve el checkpoint. */
+    private List<String> runBatch(FakeSerpApiServer server, List<String> authors, int concurrency, int chunk) throws Exception {
+        Path input = dir.resolve("authors.txt");
+        Files.write(input, authors, StandardCharsets.UTF_8);
+        Path checkpoint = dir.resolve("authors.checkpoint");
+        try (LogArticleStore store = LogArticleStore.open(dir.resolve("store"));
+             ScholarController controller = new ScholarController("test-key", server.baseUrl(), null)) {
+            new BatchRunner(input, checkpoint, concurrency, 3, chunk).run(store, controller);
+        }
+        return Files.isRegularFile(checkpoint) ? Files.readAllLines(checkpoint, StandardCharsets.UTF_8) : List.of();
+    }
+
+    @Test
+    void healthyUpstreamCheckpointsEveryAuthor() throws Exception {
+        try (FakeSerpApiServer server = server(0, 0)) {
+            assertEquals(AUTHORS, runBatch(server, AUTHORS, 1, 1));
+        }
+    }
+
+    @Test
+    void authorsThatRanOutOfRetriesOn429AreNotCheckpointed() throws Exception {
+        // Dos autores: cada 429 enfría la única clave y reduce su ritmo, así que cada intento cuesta más
+        try (FakeSerpApiServer server = server(1.0, 0)) {
+            assertEquals(List.of(), runBatch(server, AUTHORS.subList(0, 2), 2, 2));
+        }
+    }
+
+    @Test
+    void openBreakerOn503StopsTheBatchWithoutCheckpointing() throws Exception {
+        try (FakeSerpApiServer server = server(0, 1.0)) {
+            assertEquals(List.of(), runBatch(server, AUTHORS, 1, 1));
+            // El breaker se abre tras 5 fallos: no se sigue pidiendo autor tras autor
+            assertTrue(server.getRequests() < AUTHORS.size() * 4, "requests: " + server.getRequests());
+        }
+    }
+
+    @Test
+    void exhaustedKeysStopTheBatchAndAResumeFinishesIt() throws Exception {
+        try (FakeSerpApiServer server = server(0, 0).withKeyLimits(0, 3)) {
+            // Una página por autor: la cuarta búsqueda agota la única clave
+            assertEquals(AUTHORS.subList(0, 3), runBatch(server, AUTHORS, 1, 1));
+        }
+        try (FakeSerpApiServer server = server(0, 0)) {
+            assertEquals(AUTHORS, runBatch(server, AUTHORS, 1, 1));
+        }
+    }
+}
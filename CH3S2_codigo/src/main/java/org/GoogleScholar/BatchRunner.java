@@ -0,0 +1,179 @@
+package org.GoogleScholar;
+
+import org.GoogleScholar.controller.ApiKeyPool;
+import org.GoogleScholar.controller.AuthorEnricher;
+import org.GoogleScholar.controller.DedupFilter;
+import org.GoogleScholar.controller.IngestionEngine;
+import org.GoogleScholar.controller.IngestionResult;
+import org.GoogleScholar.controller.ResponseArchive;
+import org.GoogleScholar.controller.ScholarController;
+import org.GoogleScholar.metrics.Metrics;
+import org.GoogleScholar.model.ArticleStore;
+import org.GoogleScholar.model.WriteBehindWriter;
+import org.GoogleScholar.view.ConsoleView;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Headless bulk ingest: reads author queries (one per line, '#' comments allowed) from a file
+ * or stdin and runs them through fetch → validate → save in chunks, without any prompt.
+ * Every saved chunk is appended to a checkpoint file, so a crashed run resumes after the
+ * last completed chunk. Authors whose fetch failed are left out of the checkpoint (a resume
+ * retries them), and the run stops early when SerpAPI is unavailable (open circuit breaker
+ * or no usable API key) instead of failing every remaining author.
+ *
+ * Usage: --batch &lt;file|-&gt; [--checkpoint path] [--concurrency n] [--per-author n] [--chunk n]
+ */
+public class BatchRunner {
+
+    private final Path input;           // null → stdin
+    private final Path checkpoint;
+    private final int concurrency;
+    private final int perAuthor;
+    private final int chunkSize;
+
+    public BatchRunner(Path input, Path checkpoint, int concurrency, int perAuthor, int chunkSize) {
+        this.input = input;
+        this.checkpoint = checkpoint;
+        this.concurrency = concurrency;
+        this.perAuthor = perAuthor;
+        this.chunkSize = chunkSize;
+    }
+
+    public static BatchRunner fromArgs(String[] args) {
+        Map<String, String> opts = MainApp.parseOptions(args);
+        String src = opts.getOrDefault("batch", "-");
+        Path input = (src.isEmpty() || src.equals("-")) ? null : Paths.get(src);
+        String cp = opts.get("checkpoint");
+        Path checkpoint = (cp != null && !cp.isEmpty()) ? Paths.get(cp)
+                : Paths.get(input == null ? "batch.checkpoint" : input + ".checkpoint");
+        return new BatchRunner(input, checkpoint,
+                MainApp.intOpt(opts, "concurrency", 4),
+                MainApp.intOpt(opts, "per-author", 3),
+                MainApp.intOpt(opts, "chunk", 20));
+    }
+
+    public void run() throws Exception {
+        try (ArticleStore store = ArticleStore.fromEnv();
+             ScholarController controller = new ScholarController()) {
+            run(store, controller);
+        }
+    }
+
+    /** Igual que run() con un store y un controlador dados (los cierra quien los creó). */
+    public void run(ArticleStore store, ScholarController controller) throws Exception {
+        Set<String> done = loadCheckpoint();
+        if (!done.isEmpty()) System.out.println("Resuming: " + done.size() + " author(s) already done.");
+
+        ConsoleView view = new ConsoleView();
+
+        long authors = 0, articles = 0, issues = 0;
+        long t0 = System.nanoTime();
+
+        try (IngestionEngine engine = new IngestionEngine(controller, concurrency, perAuthor);
+             BufferedReader in = openInput();
+             Writer cp = Files.newBufferedWriter(checkpoint, StandardCharsets.UTF_8,
+                     StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+
+            System.out.println("Store: " + store.describe());
+            controller.warmKeywordCorpus(store);
+            DedupFilter dedup = DedupFilter.warmFrom(store);
+            controller.setDedupFilter(dedup);
+            AuthorEnricher enricher = AuthorEnricher.fromEnv(controller);
+            engine.setAuthorEnricher(enricher);
+
+            // Informe periódico de latencias (METRICS_REPORT_SEC, 0 = solo al final); null = sin hilo
+            AutoCloseable reporter = Metrics.startReporter(Metrics.reportPeriodFromEnv(30),
+                    () -> view.renderMetrics(Metrics.stages(), Metrics.counterValues()));
+            WriteBehindWriter writer = WriteBehindWriter.fromEnv(store);
+            // Se cierra primero el escritor (vacía la cola, antes que el checkpoint) y luego el informe
+            try (reporter; writer) {
+                List<String> chunk = new ArrayList<>(chunkSize);
+                String line;
+                while (true) {
+                    line = in.readLine();
+                    if (line != null) {
+                        String author = line.trim();
+                        if (author.isEmpty() || author.startsWith("#") || done.contains(author)) continue;
+                        done.add(author);
+                        chunk.add(author);
+                        if (chunk.size() < chunkSize) continue;
+                    }
+                    if (!chunk.isEmpty()) {
+                        IngestionResult res = engine.ingest(chunk);
+                        writer.submit(res.getArticles(), res.getIssues());
+                        writer.submitAuthors(res.getAuthors());
+                        // Solo tras confirmar en el store (hilo escritor) se marca el chunk como hecho
+                        List<String> doneChunk = new ArrayList<>(chunk);
+                        doneChunk.removeAll(res.getFailedAuthors());
+                        if (!doneChunk.isEmpty()) writer.afterCommitted(() -> appendCheckpoint(cp, doneChunk));
+
+                        authors += chunk.size();
+                        articles += res.getArticles().size();
+                        issues += res.getIssues().size();
+                        System.out.printf("… %d authors, %d articles%n", authors, articles);
+                        chunk.clear();
+                        if (!res.getFailedAuthors().isEmpty()) {
+                            System.err.println(res.getFailedAuthors().size()
+                                    + " author(s) failed and were not checkpointed; a resume retries them");
+                        }
+                        if (res.isUpstreamUnavailable()) {
+                            System.err.println("SerpAPI unavailable (circuit open or no usable API key): "
+                                    + "stopping; run again with the same checkpoint to resume");
+                            break;
+                        }
+                    }
+                    if (line == null) break;
+                }
+            } // cerrado aquí: la cola ya está vacía al medir
+
+            double secs = (System.nanoTime() - t0) / 1e9;
+            view.renderBatchSummary(authors, articles, issues, controller.getApiCalls(), secs);
+            view.renderWriterStats(writer);
+            view.renderDedupStats(dedup.getSkipped(), dedup.size(), dedup.bloomBytes());
+            if (enricher != null) {
+                view.renderEnrichmentStats(enricher.getLookups(), enricher.getFetches(), enricher.getCacheHits(),
+                        enricher.getCoalesced(), enricher.getFailures(), enricher.size());
+            }
+            for (ApiKeyPool.KeyStats k : controller.getApiKeyPool().snapshot()) {
+                view.renderApiKeyStats(k.getKey(), k.getState().name(), k.getRequests(), k.getThrottled(),
+                        k.getRemaining(), k.getRate());
+            }
+            ResponseArchive archive = controller.getResponseArchive();
+            if (archive != null) {
+                view.renderArchiveStats(archive.size(), archive.getSegments(),
+                        archive.getCompressedBytes(), archive.getRawBytes());
+            }
+            view.renderStoreStats(store);
+            view.renderMetrics(Metrics.stages(), Metrics.counterValues());
+        }
+    }
+
+    private static void appendCheckpoint(Writer cp, List<String> authors) {
+        try {
+            for (String a : authors) cp.write(a + System.lineSeparator());
+            cp.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private BufferedReader openInput() throws IOException {
+        return input == null
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(input, StandardCharsets.UTF_8);
+    }
+
+    private Set<String> loadCheckpoint() throws IOException {
+        Set<String> done = new HashSet<>();
+        if (Files.isRegularFile(checkpoint)) {
+            for (String l : Files.readAllLines(checkpoint, StandardCharsets.UTF_8)) {
+                if (!l.isBlank()) done.add(l.trim());
+            }
+        }
+        return done;
+    }
+}
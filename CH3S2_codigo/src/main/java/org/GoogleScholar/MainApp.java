@@ -1,24 +1,126 @@
 package org.GoogleScholar;
 
+import org.GoogleScholar.config.Env;
+import org.GoogleScholar.controller.AuthorEnricher;
+import org.GoogleScholar.controller.IngestionEngine;
+import org.GoogleScholar.controller.IngestionResult;
+import org.GoogleScholar.controller.QueryServer;
+import org.GoogleScholar.controller.ResponseCache;
 import org.GoogleScholar.controller.ScholarController;
+import org.GoogleScholar.metrics.Metrics;
 import org.GoogleScholar.model.*;
 import org.GoogleScholar.view.ConsoleView;
 import org.GoogleScholar.view.TableWindow;
 
-import java.util.ArrayList;
+import java.nio.file.Paths;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Locale;
 import java.util.Scanner;
+import java.util.concurrent.CountDownLatch;
 
 public class MainApp {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        // Modo sin interfaz: --batch <archivo|-> (ver BatchRunner)
+        Map<String, String> opts = parseOptions(args);
+        if (opts.containsKey("batch")) {
+            BatchRunner.fromArgs(args).run();
+            return;
+        }
+        // Refresco incremental de citas (solo MySQL): --refresh [máx. autores] (ver RefreshRunner)
+        if (opts.containsKey("refresh")) {
+            RefreshRunner.fromArgs(args).run();
+            return;
+        }
+        // Re-extracción sin red desde el archivo de respuestas: --replay [dir] (ver ReplayRunner)
+        if (opts.containsKey("replay")) {
+            ReplayRunner.fromArgs(args).run();
+            return;
+        }
+        // Servicio de consultas HTTP/JSON (solo lectura): --serve [puerto] (ver QueryServer)
+        if (opts.containsKey("serve")) {
+            runQueryServer(intOpt(opts, "serve", Env.intValue("QUERY_PORT", 8080)));
+            return;
+        }
+        // Grafo de coautores (solo MySQL): --coauthors "Nombre" [--top 10] [--path-to "Otro"] [--rebuild]
+        if (opts.containsKey("coauthors")) {
+            runCoauthors(opts);
+            return;
+        }
+        // Agregados sobre la tabla completa: --stats [--top 10] [--from 2015] [--to 2020] [--by-year]
+        if (opts.containsKey("stats")) {
+            runStats(opts);
+            return;
+        }
+        // Exportación completa: --export archivo.jsonl.gz [--format jsonl|csv]
+        if (opts.containsKey("export")) {
+            ArticleExporter.Format fmt = "csv".equalsIgnoreCase(opts.get("format"))
+                    ? ArticleExporter.Format.CSV : ArticleExporter.Format.JSONL;
+            long rows;
+            try (ArticleStore store = ArticleStore.fromEnv()) {
+                rows = new ArticleExporter(store).export(Paths.get(opts.get("export")), fmt);
+            }
+            System.out.println("✔ Exported " + rows + " article(s) to " + opts.get("export"));
+            return;
+        }
+        // Búsqueda full-text (solo MySQL): --search "texto" [--year 2020] [--author "X"] [--min-cited 10] [--page 0]
+        if (opts.containsKey("search")) {
+            Integer minCited = opts.containsKey("min-cited") ? intOpt(opts, "min-cited", 0) : null;
+            List<Article> hits = new ArticleRepository().search(opts.get("search"),
+                    opts.get("year"), opts.get("author"), minCited, intOpt(opts, "page", 0), 20);
+            new ConsoleView().renderArticles(hits);
+            return;
+        }
+
+        // Consultas por índice: --keyword "x" | --years 2015:2020 | --top-cited [--author "X"] [--from y] [--to y]
+        if (opts.containsKey("keyword") || opts.containsKey("years") || opts.containsKey("top-cited")) {
+            int limit = intOpt(opts, "limit", 20);
+            int[] years = opts.containsKey("years") ? yearRange(opts.get("years")) : null;
+            if (opts.containsKey("years") && years == null) {
+                System.err.println("Usage: --years <from>[:<to>], e.g. --years 2015:2020 (got \"" + opts.get("years") + "\")");
+                return;
+            }
+            List<Article> rows;
+            try (ArticleStore store = ArticleStore.fromEnv()) {
+                if (opts.containsKey("keyword")) {
+                    rows = store.findByKeyword(opts.get("keyword"), limit);
+                } else if (years != null) {
+                    rows = store.findByYearRange(years[0], years[1], limit);
+                } else {
+                    rows = store.findTopCited(opts.get("author"),
+                            opts.containsKey("from") ? intOpt(opts, "from", 0) : null,
+                            opts.containsKey("to") ? intOpt(opts, "to", 0) : null, limit);
+                }
+            }
+            new ConsoleView().renderArticles(rows);
+            return;
+        }
+
         System.setProperty("java.awt.headless", "false");
 
+        // Sin DedupFilter: quien busca un autor ya guardado quiere ver sus artículos
+        // (se vuelven a guardar como upsert, con las citas al día)
         ScholarController controller = new ScholarController();
-        ArticleRepository repo = new ArticleRepository();
-        IssueRepository issueRepo = new IssueRepository();
+        IngestionEngine engine = new IngestionEngine(controller, Env.intValue("INGEST_CONCURRENCY", 4), 3);
+        engine.setAuthorEnricher(AuthorEnricher.fromEnv(controller));
+        ArticleStore store = ArticleStore.fromEnv();
         ConsoleView view = new ConsoleView();
         Scanner sc = new Scanner(System.in);
+        System.out.println("Store: " + store.describe());
+        // Con QUERY_PORT las consultas HTTP se sirven mientras se ingesta; cada guardado invalida su cache
+        int queryPort = Env.intValue("QUERY_PORT", 0);
+        QueryServer queryServer = queryPort > 0 ? QueryServer.fromEnv(store, queryPort).start() : null;
+        if (queryServer != null) System.out.println("Query service on " + queryServer.getBaseUrl());
+        // Sin informe periódico por defecto: se mezclaría con el prompt (las métricas siguen en JMX)
+        AutoCloseable reporter = Metrics.startReporter(Metrics.reportPeriodFromEnv(0),
+                () -> view.renderMetrics(Metrics.stages(), Metrics.counterValues()));
+
+        try {
+            controller.warmKeywordCorpus(store);
+        } catch (Exception e) {
+            System.err.println("Keyword corpus not loaded: " + e.getMessage());
+        }
 
         while (true) {
             System.out.print("Enter Author 1 (or 'exit'): ");
@@ -32,18 +134,24 @@ public class MainApp {
             if (a2.isEmpty()) { System.out.println("→ Please type a name.\n"); continue; }
 
             try {
-                List<Article> toSave = new ArrayList<>();
-                toSave.addAll(controller.fetchTopArticlesByAuthorName(a1, 3));
-                toSave.addAll(controller.fetchTopArticlesByAuthorName(a2, 3));
+                IngestionResult result = engine.ingest(List.of(a1, a2));
+                List<Article> toSave = result.getArticles();
+                List<Issue> issues = result.getIssues();
 
-                repo.saveAll(toSave);
+                // Artículos e incidencias en un solo guardado atómico
+                store.save(toSave, issues);
+                store.saveAuthors(result.getAuthors());
                 view.savedToDbNotice(toSave.size());
                 view.renderArticles(toSave);
-
-                // Guardar y mostrar incidencias
-                List<Issue> issues = controller.drainIssues();
-                issueRepo.saveAll(issues);
                 view.renderIssuesSummary(issues);
+                view.renderStoreStats(store);
+                AuthorEnricher enricher = engine.getAuthorEnricher();
+                if (enricher != null) {
+                    view.renderEnrichmentStats(enricher.getLookups(), enricher.getFetches(), enricher.getCacheHits(),
+                            enricher.getCoalesced(), enricher.getFailures(), enricher.size());
+                }
+                ResponseCache cache = controller.getResponseCache();
+                if (cache != null) view.renderCacheStats(cache.getHits(), cache.getMisses(), cache.size(), cache.sizeBytes());
 
                 String ans;
                 while (true) {
@@ -52,7 +160,7 @@ public class MainApp {
                     if (ans.equals("y") || ans.equals("n")) break;
                 }
                 if (ans.equals("y")) {
-                    TableWindow.showArticlesModal(repo.findAll());
+                    TableWindow.showArticlesBrowser(store);
                 }
                 System.out.println();
 
@@ -63,6 +171,120 @@ public class MainApp {
         }
 
         sc.close();
+        if (reporter != null) reporter.close();
+        view.renderMetrics(Metrics.stages(), Metrics.counterValues());
+        if (queryServer != null) queryServer.close();
+        engine.close();
+        try { controller.close(); } catch (Exception ignored) {}
+        store.close();
         System.out.println("👋 Program finished.");
     }
+
+    /** Sirve la API de consulta hasta Ctrl+C; al salir cierra el servidor y el store y muestra sus contadores. */
+    private static void runQueryServer(int port) throws Exception {
+        ArticleStore store = ArticleStore.fromEnv();
+        QueryServer server = QueryServer.fromEnv(store, port).start();
+        System.out.println("Store: " + store.describe());
+        System.out.println("Query service on " + server.getBaseUrl() + " (Ctrl+C to stop)");
+
+        ConsoleView view = new ConsoleView();
+        AutoCloseable reporter = Metrics.startReporter(Metrics.reportPeriodFromEnv(0),
+                () -> view.renderMetrics(Metrics.stages(), Metrics.counterValues()));
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try { if (reporter != null) reporter.close(); } catch (Exception ignored) {}
+            server.close();
+            view.renderQueryServerStats(server.getRequests(), server.getCacheHits(),
+                    server.getCacheMisses(), server.getNotModified(), server.getCacheEntries(), server.getCacheBytes());
+            view.renderMetrics(Metrics.stages(), Metrics.counterValues());
+            try { store.close(); } catch (Exception ignored) {}
+            stopped.countDown();
+        }, "query-shutdown"));
+        stopped.await();
+    }
+
+    /** Carga los artículos del store en un ArticleSnapshot columnar y muestra los agregados del "dashboard". */
+    private static void runStats(Map<String, String> opts) throws Exception {
+        ConsoleView view = new ConsoleView();
+        int top = intOpt(opts, "top", 10), from = intOpt(opts, "from", 0), to = intOpt(opts, "to", 0);
+
+        long t0 = System.nanoTime();
+        ArticleSnapshot snap;
+        try (ArticleStore store = ArticleStore.fromEnv()) {
+            snap = ArticleSnapshot.load(store);
+        }
+        view.renderSnapshotSummary(snap, (System.nanoTime() - t0) / 1e6);
+
+        t0 = System.nanoTime();
+        List<AggregateRow> authors = snap.topAuthorQueries(top, from, to);
+        view.renderAggregates("Top author queries by citations", authors, (System.nanoTime() - t0) / 1e6);
+
+        t0 = System.nanoTime();
+        List<AggregateRow> keywords = snap.topKeywords(top, from, to);
+        view.renderAggregates("Top keywords by citations", keywords, (System.nanoTime() - t0) / 1e6);
+
+        t0 = System.nanoTime();
+        List<Article> cited = snap.topCited(top, opts.get("author"), from, to);
+        view.renderTopCited(cited, (System.nanoTime() - t0) / 1e6);
+
+        if (opts.containsKey("by-year")) {
+            t0 = System.nanoTime();
+            List<AggregateRow> byYear = snap.citationsByAuthorAndYear();
+            view.renderAggregates("Citations per author query and year", byYear, (System.nanoTime() - t0) / 1e6);
+        }
+    }
+
+    /** Carga el grafo guardado (o lo construye desde articles y lo guarda) y responde la consulta. */
+    private static void runCoauthors(Map<String, String> opts) throws Exception {
+        ConsoleView view = new ConsoleView();
+        CoauthorRepository graphRepo = new CoauthorRepository(new ArticleRepository());
+        long t0 = System.nanoTime();
+        CoauthorGraph graph = opts.containsKey("rebuild") ? null : graphRepo.load();
+        if (graph == null) {
+            graph = graphRepo.buildFromArticles();
+            graphRepo.save(graph);
+        }
+        view.renderGraphSummary(graph, (System.nanoTime() - t0) / 1e6);
+
+        String author = opts.get("coauthors");
+        if (author.isEmpty()) return;
+        view.renderCollaborators(author, graph.topCollaborators(author, intOpt(opts, "top", 10)),
+                graph.componentSize(author));
+        String other = opts.get("path-to");
+        if (other != null && !other.isEmpty()) {
+            view.renderCollaborationPath(author, other, graph.shortestPath(author, other));
+        }
+    }
+
+    /** --clave valor → mapa (un flag sin valor queda como ""). */
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].startsWith("--")) {
+                String key = args[i].substring(2);
+                String value = (i + 1 < args.length && !args[i + 1].startsWith("--")) ? args[++i] : "";
+                opts.put(key, value);
+            }
+        }
+        return opts;
+    }
+
+    static int intOpt(Map<String, String> opts, String name, int def) {
+        String v = opts.get(name);
+        if (v == null || v.isBlank()) return def;
+        try { return Integer.parseInt(v.trim()); } catch (NumberFormatException e) { return def; }
+    }
+
+    /** "2015:2020" o "2015" → {desde, hasta}; null si no son años o desde &gt; hasta. */
+    static int[] yearRange(String v) {
+        String[] range = v.split(":", -1);
+        if (range.length > 2) return null;
+        try {
+            int from = Integer.parseInt(range[0].trim());
+            int to = range.length > 1 ? Integer.parseInt(range[1].trim()) : from;
+            return from <= to ? new int[]{from, to} : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
 }
@@ -0,0 +1,28 @@
+package org.GoogleScholar.config;
+
+/**
+ * Numeric settings from environment variables. A missing, blank or unparsable value yields the
+ * default, so a typo in an optional setting never stops the program.
+ */
+public final class Env {
+
+    private Env() {}
+
+    public static int intValue(String name, int def) {
+        String v = System.getenv(name);
+        if (v == null || v.isBlank()) return def;
+        try { return Integer.parseInt(v.trim()); } catch (NumberFormatException e) { return def; }
+    }
+
+    public static long longValue(String name, long def) {
+        String v = System.getenv(name);
+        if (v == null || v.isBlank()) return def;
+        try { return Long.parseLong(v.trim()); } catch (NumberFormatException e) { return def; }
+    }
+
+    public static double doubleValue(String name, double def) {
+        String v = System.getenv(name);
+        if (v == null || v.isBlank()) return def;
+        try { return Double.parseDouble(v.trim()); } catch (NumberFormatException e) { return def; }
+    }
+}
@@ -0,0 +1,218 @@
+package org.GoogleScholar.controller;
+
+import org.GoogleScholar.config.Env;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Set of SerpAPI keys used together. Each key has its own adaptive token bucket, in-flight
+ * count, remaining quota and 429 cool-down; every request goes to the healthy key with the
+ * lowest load relative to its current rate, so throughput grows with the number of keys.
+ * A key whose quota falls to the reserve (or that SerpAPI reports as out of searches or
+ * invalid) takes no new requests, finishes the ones in flight and is then retired.
+ *
+ * Spec: "key1,key2:5000,…" (optional remaining searches per key; otherwise SERPAPI_KEY_QUOTA).
+ */
+public class ApiKeyPool {
+
+    public enum State { ACTIVE, COOLING, DRAINING, EXHAUSTED }
+
+    /** Una clave y su estado; los campos mutables se tocan con el lock del pool. */
+    static final class Key {
+        final String value;
+        final TokenBucket bucket;
+        long remaining;            // búsquedas restantes; -1 = desconocido
+        int inFlight;
+        long coolingUntil;         // System.nanoTime()
+        boolean retiring;          // agotada: no recibe más peticiones
+        final LongAdder requests = new LongAdder();
+        final LongAdder throttled = new LongAdder();
+
+        Key(String value, long remaining, double ratePerSecond, int burst) {
+            this.value = value;
+            this.remaining = remaining;
+            this.bucket = new TokenBucket(ratePerSecond, burst);
+        }
+    }
+
+    /** Vista de solo lectura de una clave para informes. */
+    public static final class KeyStats {
+        private final String key;
+        private final State state;
+        private final long requests;
+        private final long throttled;
+        private final long remaining;
+        private final double rate;
+
+        KeyStats(String key, State state, long requests, long throttled, long remaining, double rate) {
+            this.key = key;
+            this.state = state;
+            this.requests = requests;
+            this.throttled = throttled;
+            this.remaining = remaining;
+            this.rate = rate;
+        }
+
+        /** Clave enmascarada (nunca la completa). */
+        public String getKey()      { return key; }
+        public State getState()     { return state; }
+        public long getRequests()   { return requests; }
+        public long getThrottled()  { return throttled; }
+        /** -1 si no se conoce la cuota. */
+        public long getRemaining()  { return remaining; }
+        public double getRate()     { return rate; }
+    }
+
+    private final List<Key> keys;
+    private final long reserve;
+
+    public ApiKeyPool(String spec, double ratePerSecond, int burst, long defaultQuota, long reserve) {
+        this.keys = new ArrayList<>();
+        this.reserve = reserve;
+        if (spec != null) {
+            for (String part : spec.split(",")) {
+                String p = part.trim();
+                if (p.isEmpty()) continue;
+                long quota = defaultQuota;
+                int colon = p.lastIndexOf(':');
+                if (colon > 0) {
+                    try {
+                        quota = Long.parseLong(p.substring(colon + 1).trim());
+                        p = p.substring(0, colon).trim();
+                    } catch (NumberFormatException ignored) {
+                        // ':' forma parte de la clave
+                    }
+                }
+                keys.add(new Key(p, quota, ratePerSecond, burst));
+            }
+        }
+        if (keys.isEmpty()) {
+            throw new IllegalStateException("Missing SERPAPI_KEY (or SERPAPI_KEYS) environment variable.");
+        }
+    }
+
+    /** SERPAPI_RATE_PER_SEC / SERPAPI_BURST (por clave), SERPAPI_KEY_QUOTA, SERPAPI_KEY_RESERVE. */
+    public static ApiKeyPool fromEnv(String spec) {
+        return new ApiKeyPool(spec,
+                Env.doubleValue("SERPAPI_RATE_PER_SEC", 5.0),
+                (int) Env.doubleValue("SERPAPI_BURST", 5),
+                (long) Env.doubleValue("SERPAPI_KEY_QUOTA", -1),
+                (long) Env.doubleValue("SERPAPI_KEY_RESERVE", 0));
+    }
+
+    /**
+     * Clave menos cargada (en vuelo / tasa actual) entre las sanas, con su token ya tomado.
+     * Si todas están en enfriamiento espera a la primera que salga; si no queda ninguna, HttpError.
+     */
+    Key acquire() throws InterruptedException, HttpError {
+        Key best;
+        synchronized (this) {
+            while (true) {
+                long now = System.nanoTime();
+                long soonest = Long.MAX_VALUE;
+                boolean pending = false;
+                best = null;
+                double bestLoad = 0;
+                for (Key k : keys) {
+                    if (k.retiring) continue;
+                    // Las peticiones en vuelo ya cuentan contra la cuota: así no se pasa de la reserva
+                    if (k.remaining >= 0 && k.remaining - k.inFlight <= reserve) {
+                        pending |= k.inFlight > 0;
+                        continue;
+                    }
+                    if (k.coolingUntil > now) {
+                        soonest = Math.min(soonest, k.coolingUntil);
+                        continue;
+                    }
+                    double load = (k.inFlight + 1) / k.bucket.currentRate();
+                    if (best == null || load < bestLoad
+                            || (load == bestLoad && k.remaining > best.remaining)) {
+                        best = k;
+                        bestLoad = load;
+                    }
+                }
+                if (best != null) break;
+                if (soonest == Long.MAX_VALUE && !pending) {
+                    throw new HttpError(HttpError.KEYS_EXHAUSTED, "All SerpAPI keys are exhausted or invalid");
+                }
+                // finish() avisa con notifyAll; el tope es la primera clave que sale de enfriamiento
+                long waitMs = soonest == Long.MAX_VALUE ? 1_000 : Math.max(1, (soonest - now) / 1_000_000);
+                wait(waitMs);
+            }
+            best.inFlight++;
+        }
+        try {
+            best.bucket.acquire();
+        } catch (InterruptedException e) {
+            finish(best, HttpError.NETWORK, null, 0);
+            throw e;
+        }
+        return best;
+    }
+
+    /**
+     * Registra el resultado de una petición hecha con la clave y la libera.
+     * Devuelve true si la respuesta retiró la clave (sin búsquedas o inválida): vale la pena
+     * repetir la petición enseguida con otra.
+     */
+    boolean finish(Key k, int status, byte[] body, long coolDownMs) {
+        boolean retired = false;
+        synchronized (this) {
+            k.inFlight--;
+            if (status == 200) {
+                k.requests.increment();
+                if (k.remaining > 0) k.remaining--;
+                if (k.remaining >= 0 && k.remaining <= reserve && !k.retiring) {
+                    k.retiring = true;
+                    System.err.println("SerpAPI key " + mask(k.value) + " reached its reserve (" + k.remaining + " left): draining");
+                }
+            } else if (status == 429 || status == 401 || status == 403) {
+                String msg = body == null ? "" : new String(body, StandardCharsets.UTF_8).toLowerCase();
+                if (status != 429 || msg.contains("run out of searches") || msg.contains("searches for the month")) {
+                    if (!k.retiring) {
+                        System.err.println("SerpAPI key " + mask(k.value) + " retired (HTTP " + status + ")");
+                    }
+                    k.retiring = true;
+                    k.remaining = 0;
+                    retired = true;
+                } else {
+                    k.throttled.increment();
+                    k.bucket.onThrottled();
+                    k.coolingUntil = System.nanoTime() + coolDownMs * 1_000_000;
+                }
+            }
+            notifyAll();
+        }
+        if (status == 200) k.bucket.onSuccess();
+        return retired;
+    }
+
+    static String mask(String key) {
+        return key.length() <= 8 ? "****" : key.substring(0, 4) + "…" + key.substring(key.length() - 4);
+    }
+
+    public int size() { return keys.size(); }
+
+    /** Claves que aún aceptan peticiones (activas o en enfriamiento). */
+    public synchronized int usableKeys() {
+        int n = 0;
+        for (Key k : keys) if (!k.retiring) n++;
+        return n;
+    }
+
+    public synchronized List<KeyStats> snapshot() {
+        long now = System.nanoTime();
+        List<KeyStats> out = new ArrayList<>(keys.size());
+        for (Key k : keys) {
+            State s = k.retiring ? (k.inFlight > 0 ? State.DRAINING : State.EXHAUSTED)
+                    : (k.remaining >= 0 && k.remaining - k.inFlight <= reserve) ? State.DRAINING
+                    : k.coolingUntil > now ? State.COOLING : State.ACTIVE;
+            out.add(new KeyStats(mask(k.value), s, k.requests.sum(), k.throttled.sum(),
+                    k.remaining, k.bucket.currentRate()));
+        }
+        return out;
+    }
+}
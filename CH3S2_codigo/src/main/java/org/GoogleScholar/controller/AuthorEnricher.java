@@ -0,0 +1,156 @@
+package org.GoogleScholar.controller;
+
+import org.GoogleScholar.config.Env;
+import org.GoogleScholar.model.Author;
+import org.GoogleScholar.model.Issue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resolves author profiles (name, total citations, profile URL) by Scholar author id.
+ * Concurrent lookups of the same id share one in-flight request (single-flight), and
+ * results, including "no profile", are kept in a bounded LRU cache with a TTL, so the
+ * number of profile requests grows with distinct authors, not with article × author pairs.
+ * Failures are not cached: every caller waiting on the failed request gets the error and
+ * the next lookup tries again.
+ */
+public class AuthorEnricher {
+
+    /** Obtiene un perfil; null si el autor no tiene perfil. */
+    @FunctionalInterface
+    public interface Lookup {
+        Author fetch(String authorId) throws Exception;
+    }
+
+    private static final class Entry {
+        final Optional<Author> profile;
+        final long storedAt;
+        Entry(Optional<Author> profile, long storedAt) { this.profile = profile; this.storedAt = storedAt; }
+    }
+
+    private final Lookup lookup;
+    private final long ttlMillis;
+    private final Map<String, Entry> cache;
+    private final ConcurrentHashMap<String, CompletableFuture<Optional<Author>>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder fetches = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public AuthorEnricher(Lookup lookup, int maxEntries, long ttlMillis) {
+        this.lookup = lookup;
+        this.ttlMillis = ttlMillis;
+        this.cache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<String, Entry> e) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /** Null salvo ENRICH_AUTHORS=on (cada autor distinto cuesta una búsqueda de SerpAPI). */
+    public static AuthorEnricher fromEnv(ScholarController controller) {
+        if (!"on".equalsIgnoreCase(System.getenv("ENRICH_AUTHORS"))) return null;
+        return new AuthorEnricher(controller::fetchAuthorProfile,
+                Env.intValue("ENRICH_CACHE_SIZE", 10_000),
+                Env.intValue("ENRICH_CACHE_TTL_HOURS", 24) * 3_600_000L);
+    }
+
+    /** Perfil del autor (vacío si no tiene); bloquea hasta que la petición compartida termine. */
+    public Optional<Author> resolve(String authorId) throws Exception {
+        lookups.increment();
+        Optional<Author> cached = cached(authorId);
+        if (cached != null) { cacheHits.increment(); return cached; }
+
+        CompletableFuture<Optional<Author>> mine = new CompletableFuture<>();
+        CompletableFuture<Optional<Author>> leader = inFlight.putIfAbsent(authorId, mine);
+        if (leader != null) {
+            coalesced.increment();
+            return await(leader);
+        }
+        try {
+            // El líder anterior pudo terminar entre cached() y putIfAbsent
+            Optional<Author> result = cached(authorId);
+            if (result == null) {
+                fetches.increment();
+                result = Optional.ofNullable(lookup.fetch(authorId));
+                synchronized (cache) {
+                    cache.put(authorId, new Entry(result, System.currentTimeMillis()));
+                }
+            }
+            mine.complete(result);
+            return result;
+        } catch (Exception e) {
+            failures.increment();
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(authorId, mine);
+        }
+    }
+
+    private Optional<Author> cached(String authorId) {
+        synchronized (cache) {
+            Entry e = cache.get(authorId);
+            if (e == null) return null;
+            if (System.currentTimeMillis() - e.storedAt > ttlMillis) {
+                cache.remove(authorId);
+                return null;
+            }
+            return e.profile;
+        }
+    }
+
+    private static Optional<Author> await(CompletableFuture<Optional<Author>> f) throws Exception {
+        try {
+            return f.get();
+        } catch (ExecutionException e) {
+            Throwable c = e.getCause();
+            if (c instanceof Exception ex) throw ex;
+            throw e;
+        }
+    }
+
+    /**
+     * Completa los autores de un artículo (name, authorId y articleTitle vienen del resultado):
+     * citations y profileUrl salen del perfil. Un fallo deja al autor sin completar y añade un Issue.
+     */
+    public List<Author> enrich(String authorQuery, List<Author> refs, List<Issue> issues) {
+        List<Author> out = new ArrayList<>(refs.size());
+        for (Author a : refs) {
+            if (a.getAuthorId() == null) { out.add(a); continue; }
+            try {
+                Optional<Author> p = resolve(a.getAuthorId());
+                out.add(p.map(profile -> new Author(a.getName(), a.getAuthorId(), profile.getCitations(),
+                        a.getArticleTitle(), profile.getProfileUrl())).orElse(a));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                out.add(a);
+            } catch (Exception e) {
+                issues.add(new Issue(authorQuery, a.getArticleTitle(),
+                        "Perfil de autor no resuelto (" + a.getAuthorId() + "): " + e.getMessage(), null, null));
+                out.add(a);
+            }
+        }
+        return out;
+    }
+
+    public long getLookups()   { return lookups.sum(); }
+    public long getCacheHits() { return cacheHits.sum(); }
+    public long getCoalesced() { return coalesced.sum(); }
+    public long getFetches()   { return fetches.sum(); }
+    public long getFailures()  { return failures.sum(); }
+
+    public int size() {
+        synchronized (cache) { return cache.size(); }
+    }
+}
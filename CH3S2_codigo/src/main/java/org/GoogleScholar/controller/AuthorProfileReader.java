@@ -0,0 +1,90 @@
+package org.GoogleScholar.controller;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.GoogleScholar.model.Author;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streaming extractor for SerpAPI google_scholar_author pages: reads author.name and
+ * cited_by.table[].citations.all and skips the rest (articles, graph, co-authors…).
+ */
+public final class AuthorProfileReader {
+
+    static final String PROFILE_URL = "https://scholar.google.com/citations?user=";
+
+    private AuthorProfileReader() {}
+
+    /** Perfil del autor, o null si la respuesta no trae el objeto "author". */
+    public static Author read(InputStream in, String authorId) throws IOException {
+        String name = null;
+        Integer citations = null;
+        boolean found = false;
+        try (JsonReader r = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            if (r.peek() != JsonToken.BEGIN_OBJECT) return null;
+            r.beginObject();
+            while (r.hasNext()) {
+                switch (r.nextName()) {
+                    case "author" -> {
+                        if (r.peek() != JsonToken.BEGIN_OBJECT) { r.skipValue(); continue; }
+                        found = true;
+                        name = readName(r);
+                    }
+                    case "cited_by" -> citations = readTotalCitations(r);
+                    default -> r.skipValue();
+                }
+            }
+            r.endObject();
+        }
+        return found ? new Author(name, authorId, citations, null, PROFILE_URL + authorId) : null;
+    }
+
+    private static String readName(JsonReader r) throws IOException {
+        String name = null;
+        r.beginObject();
+        while (r.hasNext()) {
+            if (r.nextName().equals("name") && r.peek() == JsonToken.STRING) name = r.nextString();
+            else r.skipValue();
+        }
+        r.endObject();
+        return name;
+    }
+
+    /** cited_by.table es [{citations:{all,since_…}}, {h_index:…}, {i10_index:…}]. */
+    private static Integer readTotalCitations(JsonReader r) throws IOException {
+        if (r.peek() != JsonToken.BEGIN_OBJECT) { r.skipValue(); return null; }
+        Integer total = null;
+        r.beginObject();
+        while (r.hasNext()) {
+            if (!r.nextName().equals("table") || r.peek() != JsonToken.BEGIN_ARRAY) { r.skipValue(); continue; }
+            r.beginArray();
+            while (r.hasNext()) {
+                if (r.peek() != JsonToken.BEGIN_OBJECT) { r.skipValue(); continue; }
+                r.beginObject();
+                while (r.hasNext()) {
+                    if (r.nextName().equals("citations") && r.peek() == JsonToken.BEGIN_OBJECT) {
+                        r.beginObject();
+                        while (r.hasNext()) {
+                            if (r.nextName().equals("all") && (r.peek() == JsonToken.NUMBER || r.peek() == JsonToken.STRING)) {
+                                try { total = (int) Double.parseDouble(r.nextString()); } catch (NumberFormatException ignored) {}
+                            } else {
+                                r.skipValue();
+                            }
+                        }
+                        r.endObject();
+                    } else {
+                        r.skipValue();
+                    }
+                }
+                r.endObject();
+            }
+            r.endArray();
+        }
+        r.endObject();
+        return total;
+    }
+}
@@ -0,0 +1,42 @@
+package org.GoogleScholar.controller;
+
+/**
+ * Fixed-size Bloom filter over 64-bit key hashes (double hashing: h1 + i·h2).
+ * Sized for an expected number of keys and a target false-positive rate.
+ */
+class BloomFilter {
+
+    private final long[] bits;
+    private final long numBits;
+    private final int numHashes;
+    private final long capacity;
+
+    BloomFilter(long expectedKeys, double falsePositiveRate) {
+        long n = Math.max(1, expectedKeys);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.numBits = Math.max(64, (m + 63) / 64 * 64);
+        this.bits = new long[(int) (numBits / 64)];
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / n * Math.log(2)));
+        this.capacity = n;
+    }
+
+    void add(long hash) {
+        long h1 = hash, h2 = (hash >>> 32) | 1; // h2 impar: recorre todas las posiciones
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numBits);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(long hash) {
+        long h1 = hash, h2 = (hash >>> 32) | 1;
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numBits);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    long capacity()  { return capacity; }
+    long sizeBytes() { return bits.length * 8L; }
+}
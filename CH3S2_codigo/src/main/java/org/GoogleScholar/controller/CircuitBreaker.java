@@ -0,0 +1,62 @@
+package org.GoogleScholar.controller;
+
+/**
+ * Consecutive-failure circuit breaker. After threshold upstream failures (5xx, timeouts,
+ * network errors) it opens and rejects calls for openMillis; then one trial call is let
+ * through (half-open) and its outcome closes or re-opens the circuit. Every call admitted by
+ * allowRequest() must end in onSuccess(), onFailure() or release(), or the trial slot leaks.
+ */
+class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int threshold;
+    private final long openMillis;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+    private long opens;
+
+    CircuitBreaker(int threshold, long openMillis) {
+        this.threshold = threshold;
+        this.openMillis = openMillis;
+    }
+
+    synchronized boolean allowRequest() {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMillis) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (state == State.CLOSED) return true;
+        if (state == State.HALF_OPEN && !trialInFlight) {
+            trialInFlight = true;
+            return true;
+        }
+        return false;
+    }
+
+    synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        state = State.CLOSED;
+        trialInFlight = false;
+    }
+
+    synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= threshold) {
+            if (state != State.OPEN) opens++;
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            trialInFlight = false;
+        }
+    }
+
+    /** La llamada admitida terminó sin respuesta que juzgar (interrupción, sin claves…): libera el ensayo. */
+    synchronized void release() {
+        if (state == State.HALF_OPEN) trialInFlight = false;
+    }
+
+    synchronized State getState() { return state; }
+    synchronized long getOpens()   { return opens; }
+}
@@ -0,0 +1,122 @@
+package org.GoogleScholar.controller;
+
+import org.GoogleScholar.model.ArticleStore;
+
+import java.io.IOException;
+import java.text.Normalizer;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory mirror of the articles unique keys (uk_article_id and uk_author_title), so the
+ * pipeline can drop already-stored articles before keyword extraction or any DB work.
+ * A Bloom filter answers the common "never seen" case; hits are confirmed against exact
+ * sets (article ids, and 64-bit hashes of the normalized author_query + title).
+ * Articles without an id are matched by author/title only.
+ */
+public class DedupFilter {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final int MIN_CAPACITY = 1 << 16;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private final Set<String> ids = new HashSet<>();
+    private final Set<Long> titleKeys = new HashSet<>();
+    private BloomFilter bloom = new BloomFilter(MIN_CAPACITY, FALSE_POSITIVE_RATE);
+
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder bloomFalsePositives = new LongAdder();
+
+    /** Carga las claves ya guardadas en el store (en streaming). */
+    public static DedupFilter warmFrom(ArticleStore store) throws IOException {
+        DedupFilter f = new DedupFilter();
+        synchronized (f) {
+            store.streamDedupKeys(a -> f.addKeys(a.getArticleId(), a.getAuthorQuery(), a.getTitle()));
+            f.rebuildBloom();
+        }
+        return f;
+    }
+
+    /**
+     * True the first time an article is offered (and remembers it); false if its id or its
+     * author_query + title is already known, i.e. the DB would treat it as a duplicate.
+     */
+    public synchronized boolean firstSeen(String articleId, String authorQuery, String title) {
+        long idHash = articleId == null ? 0 : hash(articleId);
+        long titleKey = titleKey(authorQuery, title);
+
+        if ((articleId != null && knownId(articleId, idHash)) || knownTitle(titleKey)) {
+            skipped.increment();
+            return false;
+        }
+        addKeys(articleId, authorQuery, title);
+        if (articleId != null) bloom.add(idHash);
+        bloom.add(titleKey);
+        if (ids.size() + titleKeys.size() > bloom.capacity()) rebuildBloom();
+        return true;
+    }
+
+    private boolean knownId(String articleId, long idHash) {
+        if (!bloom.mightContain(idHash)) return false;
+        if (ids.contains(articleId)) return true;
+        bloomFalsePositives.increment();
+        return false;
+    }
+
+    private boolean knownTitle(long titleKey) {
+        if (!bloom.mightContain(titleKey)) return false;
+        if (titleKeys.contains(titleKey)) return true;
+        bloomFalsePositives.increment();
+        return false;
+    }
+
+    private void addKeys(String articleId, String authorQuery, String title) {
+        if (articleId != null) ids.add(articleId);
+        titleKeys.add(titleKey(authorQuery, title));
+    }
+
+    /** Bloom con el doble de capacidad de lo que hay ahora (se rehace al llenarse). */
+    private void rebuildBloom() {
+        BloomFilter b = new BloomFilter(Math.max(MIN_CAPACITY, 2L * (ids.size() + titleKeys.size())), FALSE_POSITIVE_RATE);
+        for (String id : ids) b.add(hash(id));
+        for (long k : titleKeys) b.add(k);
+        bloom = b;
+    }
+
+    /** Misma idea que uk_author_title (collation sin mayúsculas/acentos, prefijo de 255). */
+    static long titleKey(String authorQuery, String title) {
+        String t = title == null ? "" : title;
+        if (t.length() > 255) t = t.substring(0, 255);
+        return hash(normalize(authorQuery) + '\u0001' + normalize(t));
+    }
+
+    static String normalize(String s) {
+        if (s == null) return "";
+        String n = MARKS.matcher(Normalizer.normalize(s, Normalizer.Form.NFD)).replaceAll("");
+        return SPACES.matcher(n.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /** FNV-1a de 64 bits + mezcla final (fmix64) para repartir bien los bits. */
+    static long hash(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    public long getSkipped()             { return skipped.sum(); }
+    public long getBloomFalsePositives() { return bloomFalsePositives.sum(); }
+    public synchronized int size()       { return titleKeys.size(); } // un título por artículo conocido
+    public synchronized long bloomBytes() { return bloom.sizeBytes(); }
+}
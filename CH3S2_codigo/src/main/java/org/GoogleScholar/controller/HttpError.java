@@ -0,0 +1,30 @@
+package org.GoogleScholar.controller;
+
+/**
+ * Excepción para envolver estado HTTP.
+ * -1 = error de red (sin respuesta), -2 = circuito abierto (no se llegó a enviar),
+ * -3 = ninguna API key utilizable (todas agotadas o inválidas).
+ */
+class HttpError extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    static final int NETWORK = -1;
+    static final int CIRCUIT_OPEN = -2;
+    static final int KEYS_EXHAUSTED = -3;
+
+    private final int statusCode;
+
+    HttpError(int code, String msg) { super(msg); this.statusCode = code; }
+
+    int getStatusCode() { return statusCode; }
+
+    /** Sin respuesta útil del upstream (red, breaker, claves o reintentos agotados): reintentar más tarde puede funcionar. */
+    boolean isTransient() {
+        return statusCode == NETWORK || isUpstreamUnavailable() || RequestScheduler.isRetryable(statusCode);
+    }
+
+    /** Breaker abierto o sin claves utilizables: cualquier otra petición fallará igual. */
+    boolean isUpstreamUnavailable() {
+        return statusCode == CIRCUIT_OPEN || statusCode == KEYS_EXHAUSTED;
+    }
+}
@@ -0,0 +1,116 @@
+package org.GoogleScholar.controller;
+
+import org.GoogleScholar.model.Article;
+import org.GoogleScholar.model.Author;
+import org.GoogleScholar.model.Issue;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+
+/**
+ * Fans out N author queries concurrently (at most maxConcurrency in flight) and merges
+ * the articles in input order plus every issue logged along the way. With an AuthorEnricher
+ * set, each task also resolves the profiles of its articles' authors (lookups of the same
+ * author from different tasks are coalesced by the enricher).
+ * Uses virtual threads when the runtime supports them (JDK 21+), otherwise a bounded pool.
+ */
+public class IngestionEngine implements AutoCloseable {
+
+    private final ScholarController controller;
+    private final int perAuthorLimit;
+    private final Semaphore permits;
+    private final ExecutorService executor;
+    private volatile AuthorEnricher enricher; // null = sin enriquecer autores
+
+    public IngestionEngine(ScholarController controller, int maxConcurrency, int perAuthorLimit) {
+        if (maxConcurrency < 1) throw new IllegalArgumentException("maxConcurrency must be >= 1");
+        this.controller = controller;
+        this.perAuthorLimit = perAuthorLimit;
+        this.permits = new Semaphore(maxConcurrency);
+        this.executor = newTaskExecutor(maxConcurrency);
+    }
+
+    /** Perfiles de autores (ver AuthorEnricher); null lo desactiva. */
+    public void setAuthorEnricher(AuthorEnricher enricher) { this.enricher = enricher; }
+
+    public AuthorEnricher getAuthorEnricher() { return enricher; }
+
+    /**
+     * Busca todos los autores en paralelo; un fallo en un autor se registra como Issue, no aborta
+     * el resto y deja al autor en getFailedAuthors().
+     */
+    public IngestionResult ingest(List<String> authorQueries) throws InterruptedException {
+        List<Future<List<Article>>> futures = new ArrayList<>(authorQueries.size());
+        Queue<Author> authors = new ConcurrentLinkedQueue<>();
+        Queue<Issue> enrichIssues = new ConcurrentLinkedQueue<>();
+        for (String author : authorQueries) {
+            futures.add(executor.submit(() -> fetchOne(author, authors, enrichIssues)));
+        }
+
+        List<Article> articles = new ArrayList<>();
+        List<Issue> failures = new ArrayList<>();
+        List<String> failed = new ArrayList<>();
+        boolean unavailable = false;
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                articles.addAll(futures.get(i).get());
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                Integer status = cause instanceof HttpError h ? h.getStatusCode() : null;
+                unavailable |= cause instanceof HttpError h && h.isUpstreamUnavailable();
+                failures.add(new Issue(authorQueries.get(i), null,
+                        "Fallo al procesar autor: " + cause.getMessage(), status, null));
+                failed.add(authorQueries.get(i));
+            }
+        }
+
+        List<Issue> issues = controller.drainIssues();
+        issues.addAll(failures);
+        issues.addAll(enrichIssues);
+        return new IngestionResult(articles, issues, new ArrayList<>(authors), failed, unavailable);
+    }
+
+    private List<Article> fetchOne(String author, Queue<Author> authorsOut, Queue<Issue> issuesOut) throws Exception {
+        permits.acquire();
+        try {
+            AuthorEnricher e = enricher;
+            if (e == null) return controller.fetchTopArticlesByAuthorName(author, perAuthorLimit);
+            List<Author> refs = new ArrayList<>();
+            List<Article> articles = controller.fetchTopArticlesByAuthorName(author, perAuthorLimit, refs);
+            List<Issue> issues = new ArrayList<>();
+            authorsOut.addAll(e.enrich(author, refs, issues));
+            issuesOut.addAll(issues);
+            return articles;
+        } finally {
+            permits.release();
+        }
+    }
+
+    /** Virtual thread per task if available (JDK 21+), else a fixed pool sized to the cap. */
+    static ExecutorService newTaskExecutor(int fallbackThreads) {
+        try {
+            Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) m.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(fallbackThreads, r -> {
+                Thread t = new Thread(r, "ingest-worker");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) executor.shutdownNow();
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
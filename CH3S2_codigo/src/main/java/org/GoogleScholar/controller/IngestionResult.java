@@ -0,0 +1,46 @@
+package org.GoogleScholar.controller;
+
+import org.GoogleScholar.model.Article;
+import org.GoogleScholar.model.Author;
+import org.GoogleScholar.model.Issue;
+
+import java.util.List;
+
+/**
+ * Articles (in the order the authors were given) and issues from one ingestion run, plus
+ * the enriched authors of those articles when author enrichment is on (empty otherwise).
+ * Authors whose fetch failed (network, open breaker, exhausted keys or retries) are listed
+ * apart so callers do not treat them as done.
+ */
+public class IngestionResult {
+    private final List<Article> articles;
+    private final List<Issue> issues;
+    private final List<Author> authors;
+    private final List<String> failedAuthors;
+    private final boolean upstreamUnavailable;
+
+    public IngestionResult(List<Article> articles, List<Issue> issues) {
+        this(articles, issues, List.of());
+    }
+
+    public IngestionResult(List<Article> articles, List<Issue> issues, List<Author> authors) {
+        this(articles, issues, authors, List.of(), false);
+    }
+
+    public IngestionResult(List<Article> articles, List<Issue> issues, List<Author> authors,
+                           List<String> failedAuthors, boolean upstreamUnavailable) {
+        this.articles = articles;
+        this.issues = issues;
+        this.authors = authors;
+        this.failedAuthors = failedAuthors;
+        this.upstreamUnavailable = upstreamUnavailable;
+    }
+
+    public List<Article> getArticles() { return articles; }
+    public List<Issue> getIssues()     { return issues; }
+    public List<Author> getAuthors()   { return authors; }
+    public List<String> getFailedAuthors() { return failedAuthors; }
+
+    /** Algún autor falló con el breaker abierto o sin claves: el resto de la tanda fallaría igual. */
+    public boolean isUpstreamUnavailable() { return upstreamUnavailable; }
+}
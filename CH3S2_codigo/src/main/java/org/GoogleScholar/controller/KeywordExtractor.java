@@ -0,0 +1,152 @@
+package org.GoogleScholar.controller;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keyword extraction: top-k frequent terms (>= 4 chars, no stopwords, no author surnames, no
+ * pure numbers). Single pass over the chars (no regex), a bounded min-heap for the top-k,
+ * and an optional TF-IDF mode that weighs terms by document frequency over the corpus.
+ * Thread-safe: per-call state is local and the corpus counters are concurrent.
+ */
+public class KeywordExtractor {
+
+    public enum Mode { FREQUENCY, TFIDF }
+
+    private static final int MIN_LEN = 4;
+    private static final int MAX_TOKEN = 64;
+
+    private static final Set<String> STOP = Set.of(
+            "the","and","for","with","that","this","from","have","has","are","was","were","will",
+            "into","over","under","between","about","after","before","until","while","more","most",
+            "can","may","might","should","could","would","than","such","using","used","use","based",
+            "on","in","at","by","to","of","a","an","as","is","it","be","we","our","their","its",
+            "not","no","yes","new","study","results","paper","review","article","case","cases"
+    );
+
+    private final Mode mode;
+    private final int topK;
+
+    // Corpus para TF-IDF: nº de documentos y en cuántos aparece cada término
+    private final Map<String, LongAdder> docFreq = new ConcurrentHashMap<>();
+    private final LongAdder docCount = new LongAdder();
+
+    public KeywordExtractor(Mode mode, int topK) {
+        this.mode = mode;
+        this.topK = topK;
+    }
+
+    /** KEYWORDS_MODE=tfidf activa el modo TF-IDF; por defecto frecuencia simple. */
+    public static KeywordExtractor fromEnv() {
+        String m = System.getenv("KEYWORDS_MODE");
+        return new KeywordExtractor("tfidf".equalsIgnoreCase(m) ? Mode.TFIDF : Mode.FREQUENCY, 3);
+    }
+
+    public Mode getMode() { return mode; }
+
+    public long getCorpusSize() { return docCount.sum(); }
+
+    /** Adds one document to the document-frequency counts (each distinct term once). */
+    public void observe(String text) {
+        if (text == null || text.isBlank()) return;
+        Set<String> seen = new HashSet<>();
+        tokenize(text, tok -> {
+            if (!STOP.contains(tok)) seen.add(tok);
+        });
+        for (String t : seen) docFreq.computeIfAbsent(t, k -> new LongAdder()).increment();
+        docCount.increment();
+    }
+
+    /** Top-k keywords of text joined with ", ", or null if nothing qualifies. */
+    public String extract(String text, String authorsCsv) {
+        if (text == null || text.isBlank()) return null;
+
+        Set<String> authorBan = authorParts(authorsCsv);
+
+        // término → {frecuencia, posición de primera aparición}
+        Map<String, int[]> freq = new HashMap<>();
+        int[] pos = {0};
+        tokenize(text, tok -> {
+            if (STOP.contains(tok) || authorBan.contains(tok)) return;
+            int[] f = freq.get(tok);
+            if (f == null) freq.put(tok, new int[]{1, pos[0]++});
+            else f[0]++;
+        });
+        if (freq.isEmpty()) return null;
+
+        long n = docCount.sum();
+        boolean idf = mode == Mode.TFIDF && n > 0;
+
+        // Min-heap de tamaño k: la raíz es el peor candidato (menor score; en empate, el más tardío)
+        Comparator<Scored> worstFirst = Comparator.<Scored>comparingDouble(s -> s.score)
+                .thenComparing(Comparator.<Scored>comparingInt(s -> s.firstPos).reversed());
+        PriorityQueue<Scored> heap = new PriorityQueue<>(topK + 1, worstFirst);
+        for (Map.Entry<String, int[]> e : freq.entrySet()) {
+            double score = e.getValue()[0];
+            if (idf) {
+                LongAdder df = docFreq.get(e.getKey());
+                score *= Math.log((1.0 + n) / (1.0 + (df == null ? 0 : df.sum()))) + 1.0;
+            }
+            heap.offer(new Scored(e.getKey(), score, e.getValue()[1]));
+            if (heap.size() > topK) heap.poll();
+        }
+
+        String[] best = new String[heap.size()];
+        for (int i = best.length - 1; i >= 0; i--) best[i] = heap.poll().term;
+        return String.join(", ", best);
+    }
+
+    private static final class Scored {
+        final String term;
+        final double score;
+        final int firstPos;
+        Scored(String term, double score, int firstPos) { this.term = term; this.score = score; this.firstPos = firstPos; }
+    }
+
+    private interface TokenSink { void accept(String token); }
+
+    /**
+     * Tokens = runs of [a-z0-9] after ASCII lower-casing (any other char separates).
+     * Emits only tokens with >= MIN_LEN chars that are not all digits.
+     */
+    private static void tokenize(String text, TokenSink sink) {
+        char[] buf = new char[MAX_TOKEN];
+        int len = 0;
+        boolean allDigits = true;
+        int n = text.length();
+        for (int i = 0; i <= n; i++) {
+            char c = i < n ? text.charAt(i) : ' ';
+            if (c >= 'A' && c <= 'Z') c = (char) (c + ('a' - 'A'));
+            boolean letter = c >= 'a' && c <= 'z';
+            boolean digit = c >= '0' && c <= '9';
+            if (letter || digit) {
+                if (len < MAX_TOKEN) buf[len] = c;
+                len++;
+                if (letter) allDigits = false;
+            } else {
+                if (len >= MIN_LEN && len <= MAX_TOKEN && !allDigits) sink.accept(new String(buf, 0, len));
+                len = 0;
+                allDigits = true;
+            }
+        }
+    }
+
+    /** Partes de los nombres de autores (separadas por coma/espacio) con >= 3 chars, en minúsculas. */
+    private static Set<String> authorParts(String authorsCsv) {
+        if (authorsCsv == null || authorsCsv.isEmpty()) return Set.of();
+        Set<String> out = new HashSet<>();
+        int start = -1;
+        int n = authorsCsv.length();
+        for (int i = 0; i <= n; i++) {
+            char c = i < n ? authorsCsv.charAt(i) : ',';
+            if (c == ',' || c == ' ') {
+                if (start >= 0 && i - start >= 3) out.add(authorsCsv.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            } else if (start < 0) {
+                start = i;
+            }
+        }
+        return out;
+    }
+}
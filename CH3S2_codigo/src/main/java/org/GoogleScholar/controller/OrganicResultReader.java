@@ -0,0 +1,143 @@
+package org.GoogleScholar.controller;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming extractor for SerpAPI google_scholar pages: walks the JSON with a JsonReader
+ * and keeps only the fields the controller uses; everything else is skipped without
+ * building a tree.
+ */
+public final class OrganicResultReader {
+
+    private OrganicResultReader() {}
+
+    public static List<ScholarResult> read(InputStream in) throws IOException {
+        List<ScholarResult> out = new ArrayList<>();
+        try (JsonReader r = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            if (r.peek() != JsonToken.BEGIN_OBJECT) return out;
+            r.beginObject();
+            while (r.hasNext()) {
+                if (r.nextName().equals("organic_results") && r.peek() == JsonToken.BEGIN_ARRAY) {
+                    r.beginArray();
+                    while (r.hasNext()) {
+                        if (r.peek() == JsonToken.BEGIN_OBJECT) out.add(readResult(r));
+                        else r.skipValue();
+                    }
+                    r.endArray();
+                } else {
+                    r.skipValue();
+                }
+            }
+            r.endObject();
+        }
+        return out;
+    }
+
+    private static ScholarResult readResult(JsonReader r) throws IOException {
+        ScholarResult res = new ScholarResult();
+        r.beginObject();
+        while (r.hasNext()) {
+            switch (r.nextName()) {
+                case "title"            -> res.title = stringOrNull(r);
+                case "link"             -> res.link = stringOrNull(r);
+                case "result_id"        -> res.resultId = stringOrNull(r);
+                case "snippet"          -> res.snippet = stringOrNull(r);
+                case "authors"          -> readAuthors(r, res.authorNames, res.authorIds);
+                case "publication_info" -> readPublicationInfo(r, res);
+                case "cited_by"         -> {
+                    Integer v = readIntField(r, "value");
+                    if (v != null) res.citedBy = v;
+                }
+                case "inline_links"     -> readInlineLinks(r, res);
+                default                 -> r.skipValue();
+            }
+        }
+        r.endObject();
+        return res;
+    }
+
+    private static void readPublicationInfo(JsonReader r, ScholarResult res) throws IOException {
+        if (r.peek() != JsonToken.BEGIN_OBJECT) { r.skipValue(); return; }
+        r.beginObject();
+        while (r.hasNext()) {
+            switch (r.nextName()) {
+                case "summary" -> res.publicationSummary = stringOrNull(r);
+                case "authors" -> readAuthors(r, res.pubAuthorNames, res.pubAuthorIds);
+                default        -> r.skipValue();
+            }
+        }
+        r.endObject();
+    }
+
+    /** inline_links.cited_by.total (solo si no vino cited_by.value en el item). */
+    private static void readInlineLinks(JsonReader r, ScholarResult res) throws IOException {
+        if (r.peek() != JsonToken.BEGIN_OBJECT) { r.skipValue(); return; }
+        r.beginObject();
+        while (r.hasNext()) {
+            if (r.nextName().equals("cited_by")) {
+                Integer total = readIntField(r, "total");
+                if (res.citedBy == null) res.citedBy = total;
+            } else {
+                r.skipValue();
+            }
+        }
+        r.endObject();
+    }
+
+    /** [{name, author_id, ...}] → nombres y sus author_id en listas paralelas (sin nombre, se descarta). */
+    private static void readAuthors(JsonReader r, List<String> names, List<String> ids) throws IOException {
+        if (r.peek() != JsonToken.BEGIN_ARRAY) { r.skipValue(); return; }
+        r.beginArray();
+        while (r.hasNext()) {
+            if (r.peek() != JsonToken.BEGIN_OBJECT) { r.skipValue(); continue; }
+            String name = null, id = null;
+            r.beginObject();
+            while (r.hasNext()) {
+                switch (r.nextName()) {
+                    case "name"      -> name = stringOrNull(r);
+                    case "author_id" -> id = stringOrNull(r);
+                    default          -> r.skipValue();
+                }
+            }
+            r.endObject();
+            if (name != null && !name.isBlank()) {
+                names.add(name);
+                ids.add(id == null || id.isBlank() ? null : id);
+            }
+        }
+        r.endArray();
+    }
+
+    /** Lee {"field": n, ...} y devuelve n como entero (null si no está o no es numérico). */
+    private static Integer readIntField(JsonReader r, String field) throws IOException {
+        if (r.peek() != JsonToken.BEGIN_OBJECT) { r.skipValue(); return null; }
+        Integer value = null;
+        r.beginObject();
+        while (r.hasNext()) {
+            if (r.nextName().equals(field) && (r.peek() == JsonToken.NUMBER || r.peek() == JsonToken.STRING)) {
+                try { value = (int) Double.parseDouble(r.nextString()); } catch (NumberFormatException ignored) {}
+            } else {
+                r.skipValue();
+            }
+        }
+        r.endObject();
+        return value;
+    }
+
+    /** Primitivos como texto (igual que JsonElement.getAsString); objetos/arrays/null → null. */
+    private static String stringOrNull(JsonReader r) throws IOException {
+        switch (r.peek()) {
+            case STRING, NUMBER -> { return r.nextString(); }
+            case BOOLEAN        -> { return Boolean.toString(r.nextBoolean()); }
+            default             -> { r.skipValue(); return null; }
+        }
+    }
+}
@@ -0,0 +1,596 @@
+package org.GoogleScholar.controller;
+
+import com.google.gson.stream.JsonWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.GoogleScholar.config.Env;
+import org.GoogleScholar.metrics.LatencyHistogram;
+import org.GoogleScholar.metrics.Metrics;
+import org.GoogleScholar.model.AggregateRow;
+import org.GoogleScholar.model.Article;
+import org.GoogleScholar.model.ArticleExporter;
+import org.GoogleScholar.model.ArticleSnapshot;
+import org.GoogleScholar.model.ArticleStore;
+import org.GoogleScholar.model.MySqlArticleStore;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32C;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Read-only HTTP/JSON API over the ArticleStore, on the JDK HttpServer with one virtual thread
+ * per request where available (IngestionEngine#newTaskExecutor). Responses are cached in memory
+ * by path + sorted parameters, bounded by size; an entry is stale once the store's write version
+ * changes or its TTL expires. The write version only counts saves through this process: writes
+ * by another process to a shared MySQL are picked up when the TTL expires, and the log store
+ * cannot be shared (its directory LOCK admits one process), so run the server inside the ingesting
+ * process (QUERY_PORT) to see its writes at once. The columnar snapshot behind the aggregate
+ * endpoints is rebuilt on a background thread when stale; requests keep reading the previous one
+ * meanwhile and only the first load blocks. Concurrent misses for the same key share one computation. Every cached response has a strong
+ * ETag (If-None-Match → 304) and is sent gzipped when the client accepts it; the gzip variant
+ * has its own ETag ("-gz" suffix) and both carry Vary: Accept-Encoding;
+ * /api/articles/export streams every row as NDJSON without buffering.
+ *
+ * GET /api/articles?before=&amp;limit=        keyset page, newest first
+ * GET /api/articles/export                 all rows (NDJSON, chunked)
+ * GET /api/search?q=&amp;year=&amp;author=&amp;min_cited=&amp;page=   full-text (MySQL only)
+ * GET /api/keyword?k=&amp;limit=  /api/years?from=&amp;to=&amp;limit=  /api/top-cited?author=&amp;from=&amp;to=&amp;limit=
+ * GET /api/authors/top?top=&amp;from=&amp;to=  /api/authors/stats?author=  /api/keywords/top?top=&amp;from=&amp;to=
+ * GET /api/health
+ */
+public class QueryServer implements AutoCloseable {
+
+    /** Respuesta cacheada: cuerpo JSON, su versión gzip (perezosa) y el ETag de cada variante. */
+    private static final class Entry {
+        final byte[] body;
+        final String etag;
+        final String gzipEtag;
+        final long version;
+        final long epoch;
+        final long storedAt;
+        private byte[] gzipped;
+
+        Entry(byte[] body, long version) {
+            this(body, version, 0);
+        }
+
+        Entry(byte[] body, long version, long epoch) {
+            this.body = body;
+            this.version = version;
+            this.epoch = epoch;
+            this.storedAt = System.currentTimeMillis();
+            CRC32C crc = new CRC32C();
+            crc.update(body);
+            String tag = Long.toHexString(crc.getValue()) + "-" + Integer.toHexString(body.length);
+            this.etag = "\"" + tag + "\"";
+            this.gzipEtag = "\"" + tag + "-gz\"";
+        }
+
+        synchronized byte[] gzipped() throws IOException {
+            if (gzipped == null) {
+                ByteArrayOutputStream bos = new ByteArrayOutputStream(body.length / 4 + 64);
+                try (GZIPOutputStream gz = new GZIPOutputStream(bos)) { gz.write(body); }
+                gzipped = bos.toByteArray();
+            }
+            return gzipped;
+        }
+    }
+
+    /** Escribe el cuerpo JSON de una consulta. */
+    @FunctionalInterface
+    private interface Body {
+        void write(JsonWriter w) throws IOException;
+    }
+
+    /** Petición inválida (parámetro, o endpoint que este store no admite) → 400. */
+    private static final class BadRequest extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        BadRequest(String msg) { super(msg); }
+    }
+
+    private static final int MAX_LIMIT = 500;
+    private static final int GZIP_MIN_BYTES = 1024;
+    private static final LatencyHistogram HANDLE = Metrics.stage("query.request");
+
+    private final ArticleStore store;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long maxCacheBytes;
+    private final long ttlMillis;
+
+    private final LinkedHashMap<String, Entry> cache = new LinkedHashMap<>(256, 0.75f, true);
+    private long cacheBytes;
+    private final ConcurrentHashMap<String, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+
+    /** Snapshot con la versión de escritura y el instante en que se cargó. */
+    private record Loaded(ArticleSnapshot snapshot, long version, long at) {}
+
+    private volatile Loaded loaded;
+    // Sube con cada snapshot nuevo: invalida las respuestas calculadas con el anterior
+    private volatile long snapshotEpoch;
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "query-snapshot");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    public QueryServer(ArticleStore store, InetSocketAddress address, int maxThreads,
+                       long maxCacheBytes, long ttlMillis) throws IOException {
+        this.store = store;
+        this.maxCacheBytes = maxCacheBytes;
+        this.ttlMillis = ttlMillis;
+        this.executor = IngestionEngine.newTaskExecutor(maxThreads);
+        this.server = HttpServer.create(address, 0);
+        this.server.createContext("/api/", this::handle);
+        this.server.setExecutor(executor);
+    }
+
+    /** QUERY_BIND (127.0.0.1), QUERY_THREADS (64), QUERY_CACHE_MB (32), QUERY_CACHE_TTL_SEC (60). */
+    public static QueryServer fromEnv(ArticleStore store, int port) throws IOException {
+        String bind = System.getenv("QUERY_BIND");
+        return new QueryServer(store,
+                new InetSocketAddress((bind == null || bind.isBlank()) ? "127.0.0.1" : bind.trim(), port),
+                Env.intValue("QUERY_THREADS", 64),
+                Env.intValue("QUERY_CACHE_MB", 32) * 1024L * 1024L,
+                Env.intValue("QUERY_CACHE_TTL_SEC", 60) * 1000L);
+    }
+
+    public QueryServer start() {
+        server.start();
+        return this;
+    }
+
+    public int getPort() { return server.getAddress().getPort(); }
+
+    public InetSocketAddress getAddress() { return server.getAddress(); }
+
+    /** http://host:puerto/api/ con la dirección real de escucha (QUERY_BIND). */
+    public String getBaseUrl() {
+        String host = getAddress().getHostString();
+        return "http://" + (host.contains(":") ? "[" + host + "]" : host) + ":" + getPort() + "/api/";
+    }
+
+    // --------------------- peticiones ---------------------
+
+    private void handle(HttpExchange ex) throws IOException {
+        requests.increment();
+        long t0 = System.nanoTime();
+        try {
+            if (!"GET".equals(ex.getRequestMethod())) {
+                ex.getResponseHeaders().add("Allow", "GET");
+                sendError(ex, 405, "Only GET is supported");
+                return;
+            }
+            String path = ex.getRequestURI().getPath();
+            Map<String, String> q = params(ex.getRequestURI().getRawQuery());
+            switch (path) {
+                case "/api/articles/export" -> streamExport(ex);
+                case "/api/health" -> send(ex, new Entry(json(this::writeHealth), store.getWriteVersion()), false);
+                default -> {
+                    Body body = route(path, q);
+                    if (body == null) {
+                        sendError(ex, 404, "Unknown endpoint " + path);
+                        return;
+                    }
+                    send(ex, cached(path + "?" + new TreeMap<>(q), body), true);
+                }
+            }
+        } catch (BadRequest e) {
+            sendError(ex, 400, e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            errors.increment();
+            System.err.println("Query failed (" + ex.getRequestURI() + "): " + e.getMessage());
+            try { sendError(ex, 500, String.valueOf(e.getMessage())); } catch (IOException ignored) {}
+        } finally {
+            ex.close();
+            HANDLE.recordSince(t0);
+        }
+    }
+
+    /** Endpoint → cuerpo; null si no existe. Los parámetros se validan aquí (BadRequest). */
+    private Body route(String path, Map<String, String> q) {
+        switch (path) {
+            case "/api/articles": {
+                Long before = q.containsKey("before") ? longParam(q, "before") : null;
+                int limit = limit(q, 50);
+                return w -> {
+                    List<Article> page = store.findPage(before, limit);
+                    w.beginObject();
+                    writeArticles(w.name("articles"), page);
+                    Long next = page.size() < limit ? null : page.get(page.size() - 1).getId();
+                    w.name("next_before").value(next);
+                    w.endObject();
+                };
+            }
+            case "/api/search": {
+                String text = required(q, "q");
+                Integer minCited = q.containsKey("min_cited") ? intParam(q, "min_cited", 0) : null;
+                int page = intParam(q, "page", 0);
+                if (!(store instanceof MySqlArticleStore mysql)) {
+                    throw new BadRequest("Full-text search needs the MySQL store");
+                }
+                return w -> {
+                    try {
+                        writeArticles(w, mysql.getArticleRepository().search(text, q.get("year"), q.get("author"),
+                                minCited, page, 20));
+                    } catch (SQLException e) {
+                        throw new IOException(e.getMessage(), e);
+                    }
+                };
+            }
+            case "/api/keyword": {
+                String k = required(q, "k");
+                int limit = limit(q, 20);
+                return w -> writeArticles(w, store.findByKeyword(k, limit));
+            }
+            case "/api/years": {
+                int from = intParam(q, "from", 0);
+                int to = intParam(q, "to", from);
+                int limit = limit(q, 20);
+                return w -> writeArticles(w, store.findByYearRange(from, to, limit));
+            }
+            case "/api/top-cited": {
+                Integer from = q.containsKey("from") ? intParam(q, "from", 0) : null;
+                Integer to = q.containsKey("to") ? intParam(q, "to", 0) : null;
+                int limit = limit(q, 20);
+                return w -> writeArticles(w, store.findTopCited(q.get("author"), from, to, limit));
+            }
+            case "/api/authors/top": {
+                int top = intParam(q, "top", 10), from = intParam(q, "from", 0), to = intParam(q, "to", 0);
+                return w -> writeAggregates(w, snapshot().topAuthorQueries(top, from, to));
+            }
+            case "/api/keywords/top": {
+                int top = intParam(q, "top", 10), from = intParam(q, "from", 0), to = intParam(q, "to", 0);
+                return w -> writeAggregates(w, snapshot().topKeywords(top, from, to));
+            }
+            case "/api/authors/stats": {
+                String author = required(q, "author");
+                return w -> writeAuthorStats(w, author);
+            }
+            default:
+                return null;
+        }
+    }
+
+    // --------------------- cache ---------------------
+
+    /** Entrada vigente o calculada una sola vez aunque lleguen varias peticiones iguales a la vez. */
+    private Entry cached(String key, Body body) throws IOException {
+        long version = store.getWriteVersion();
+        long epoch = snapshotEpoch;
+        synchronized (cache) {
+            Entry e = cache.get(key);
+            if (e != null && e.version == version && e.epoch == epoch
+                    && System.currentTimeMillis() - e.storedAt <= ttlMillis) {
+                hits.increment();
+                return e;
+            }
+        }
+        CompletableFuture<Entry> mine = new CompletableFuture<>();
+        CompletableFuture<Entry> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            hits.increment();
+            return await(leader);
+        }
+        try {
+            misses.increment();
+            Entry e = new Entry(json(body), version, epoch);
+            synchronized (cache) {
+                Entry old = cache.put(key, e);
+                if (old != null) cacheBytes -= old.body.length;
+                cacheBytes += e.body.length;
+                Iterator<Entry> it = cache.values().iterator();
+                while (cacheBytes > maxCacheBytes && it.hasNext()) {
+                    Entry victim = it.next();
+                    if (victim == e) break;
+                    cacheBytes -= victim.body.length;
+                    it.remove();
+                }
+            }
+            mine.complete(e);
+            return e;
+        } catch (IOException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private static Entry await(CompletableFuture<Entry> f) throws IOException {
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a shared query");
+        } catch (ExecutionException e) {
+            Throwable c = e.getCause();
+            if (c instanceof IOException io) throw io;
+            if (c instanceof RuntimeException re) throw re;
+            throw new IOException(c);
+        }
+    }
+
+    /**
+     * Snapshot columnar para los agregados. Tras una escritura o al caducar se reconstruye en
+     * segundo plano (una reconstrucción a la vez) y mientras tanto se sirve el anterior; solo la
+     * primera carga bloquea.
+     */
+    private ArticleSnapshot snapshot() throws IOException {
+        Loaded cur = loaded;
+        if (cur == null) {
+            synchronized (this) {
+                if (loaded == null) publish(load());
+                return loaded.snapshot();
+            }
+        }
+        if (cur.version() != store.getWriteVersion() || System.currentTimeMillis() - cur.at() > ttlMillis) {
+            rebuildInBackground();
+        }
+        return cur.snapshot();
+    }
+
+    private Loaded load() throws IOException {
+        long version = store.getWriteVersion(); // antes de leer: una escritura concurrente fuerza otra recarga
+        return new Loaded(ArticleSnapshot.load(store), version, System.currentTimeMillis());
+    }
+
+    /** Una sola escritora a la vez (la primera carga o el hilo de reconstrucción). */
+    private void publish(Loaded l) {
+        loaded = l;
+        snapshotEpoch = snapshotEpoch + 1; // después: una respuesta con la época nueva ya ve este snapshot
+    }
+
+    private void rebuildInBackground() {
+        if (!rebuildQueued.compareAndSet(false, true)) return;
+        try {
+            rebuilder.execute(() -> {
+                try {
+                    publish(load());
+                } catch (IOException | RuntimeException e) {
+                    System.err.println("Query server: snapshot rebuild failed, serving the previous one: " + e.getMessage());
+                } finally {
+                    rebuildQueued.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rebuildQueued.set(false); // close() en curso
+        }
+    }
+
+    // --------------------- JSON ---------------------
+
+    private static byte[] json(Body body) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(4096);
+        try (JsonWriter w = new JsonWriter(new OutputStreamWriter(bos, StandardCharsets.UTF_8))) {
+            body.write(w);
+        }
+        return bos.toByteArray();
+    }
+
+    private static void writeArticles(JsonWriter w, List<Article> arts) throws IOException {
+        w.beginArray();
+        for (Article a : arts) ArticleExporter.writeJson(w, a);
+        w.endArray();
+    }
+
+    private static void writeAggregates(JsonWriter w, List<AggregateRow> rows) throws IOException {
+        w.beginArray();
+        for (AggregateRow r : rows) writeAggregate(w, r, true);
+        w.endArray();
+    }
+
+    private static void writeAggregate(JsonWriter w, AggregateRow r, boolean label) throws IOException {
+        w.beginObject();
+        if (label) w.name("label").value(r.getLabel());
+        if (r.getYear() != 0) w.name("year").value(r.getYear());
+        w.name("articles").value(r.getArticles());
+        w.name("citations").value(r.getCitations());
+        w.endObject();
+    }
+
+    private void writeAuthorStats(JsonWriter w, String author) throws IOException {
+        ArticleSnapshot snap = snapshot();
+        long articles = 0, citations = 0;
+        w.beginObject();
+        w.name("author").value(author);
+        w.name("by_year").beginArray();
+        for (AggregateRow r : snap.citationsByYear(author)) {
+            writeAggregate(w, r, false);
+            articles += r.getArticles();
+            citations += r.getCitations();
+        }
+        w.endArray();
+        w.name("articles").value(articles);
+        w.name("citations").value(citations);
+        w.name("top_cited");
+        writeArticles(w, snap.topCited(5, author, 0, 0));
+        w.endObject();
+    }
+
+    private void writeHealth(JsonWriter w) throws IOException {
+        w.beginObject();
+        w.name("store").value(store.describe());
+        w.name("write_version").value(store.getWriteVersion());
+        w.name("requests").value(getRequests());
+        w.name("cache_hits").value(getCacheHits());
+        w.name("cache_misses").value(getCacheMisses());
+        w.name("not_modified").value(getNotModified());
+        w.name("cache_entries").value(getCacheEntries());
+        w.name("cache_bytes").value(getCacheBytes());
+        w.endObject();
+    }
+
+    // --------------------- respuesta ---------------------
+
+    private void send(HttpExchange ex, Entry e, boolean cacheable) throws IOException {
+        var h = ex.getResponseHeaders();
+        boolean gzip = e.body.length >= GZIP_MIN_BYTES && acceptsGzip(ex);
+        h.add("Content-Type", "application/json; charset=utf-8");
+        h.add("Vary", "Accept-Encoding"); // también en la variante sin comprimir, para las caches intermedias
+        if (cacheable) {
+            // Cada codificación es una representación distinta: ETag distinto
+            String etag = gzip ? e.gzipEtag : e.etag;
+            h.add("ETag", etag);
+            h.add("Cache-Control", "no-cache"); // el cliente revalida siempre con el ETag
+            if (matches(ex.getRequestHeaders().getFirst("If-None-Match"), etag)) {
+                notModified.increment();
+                ex.sendResponseHeaders(304, -1);
+                return;
+            }
+        }
+        byte[] out = e.body;
+        if (gzip) {
+            h.add("Content-Encoding", "gzip");
+            out = e.gzipped();
+        }
+        ex.sendResponseHeaders(200, out.length);
+        try (OutputStream os = ex.getResponseBody()) {
+            os.write(out);
+        }
+    }
+
+    /** NDJSON en streaming (chunked): memoria constante sea cual sea el tamaño de la tabla. */
+    private void streamExport(HttpExchange ex) throws IOException {
+        boolean gzip = acceptsGzip(ex);
+        ex.getResponseHeaders().add("Content-Type", "application/x-ndjson; charset=utf-8");
+        ex.getResponseHeaders().add("Vary", "Accept-Encoding");
+        if (gzip) ex.getResponseHeaders().add("Content-Encoding", "gzip");
+        ex.sendResponseHeaders(200, 0);
+        OutputStream raw = ex.getResponseBody();
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                gzip ? new GZIPOutputStream(raw, 64 * 1024) : raw, StandardCharsets.UTF_8), 64 * 1024)) {
+            Writer line = new FilterWriter(out) {
+                @Override public void close() {}
+            };
+            try {
+                store.streamAll(a -> {
+                    try {
+                        // Un JsonWriter por línea: cada uno admite un solo valor de primer nivel
+                        JsonWriter jw = new JsonWriter(line);
+                        ArticleExporter.writeJson(jw, a);
+                        jw.flush();
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause(); // p. ej. el cliente cerró la conexión
+            }
+        }
+    }
+
+    private void sendError(HttpExchange ex, int status, String message) throws IOException {
+        byte[] body = json(w -> w.beginObject().name("error").value(message).endObject());
+        ex.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(status, body.length);
+        try (OutputStream os = ex.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String t : ifNoneMatch.split(",")) {
+            String v = t.trim();
+            if (v.equals("*") || v.equals(etag) || v.equals("W/" + etag)) return true;
+        }
+        return false;
+    }
+
+    private static boolean acceptsGzip(HttpExchange ex) {
+        String ae = ex.getRequestHeaders().getFirst("Accept-Encoding");
+        return ae != null && ae.toLowerCase(Locale.ROOT).contains("gzip");
+    }
+
+    // --------------------- parámetros ---------------------
+
+    private static Map<String, String> params(String raw) {
+        Map<String, String> out = new HashMap<>();
+        if (raw == null || raw.isEmpty()) return out;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String k = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String v = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            if (!k.isEmpty() && !v.isBlank()) out.put(k, v.trim());
+        }
+        return out;
+    }
+
+    private static String required(Map<String, String> q, String name) {
+        String v = q.get(name);
+        if (v == null) throw new BadRequest("Missing parameter '" + name + "'");
+        return v;
+    }
+
+    private static int intParam(Map<String, String> q, String name, int def) {
+        String v = q.get(name);
+        if (v == null) return def;
+        try { return Integer.parseInt(v); } catch (NumberFormatException e) {
+            throw new BadRequest("Parameter '" + name + "' must be an integer");
+        }
+    }
+
+    private static long longParam(Map<String, String> q, String name) {
+        try { return Long.parseLong(q.get(name)); } catch (NumberFormatException e) {
+            throw new BadRequest("Parameter '" + name + "' must be an integer");
+        }
+    }
+
+    private static int limit(Map<String, String> q, int def) {
+        int n = intParam(q, "limit", def);
+        if (n < 1 || n > MAX_LIMIT) throw new BadRequest("limit must be between 1 and " + MAX_LIMIT);
+        return n;
+    }
+
+    // --------------------- estado ---------------------
+
+    public long getRequests()    { return requests.sum(); }
+    public long getCacheHits()   { return hits.sum(); }
+    public long getCacheMisses() { return misses.sum(); }
+    public long getNotModified() { return notModified.sum(); }
+    public long getErrors()      { return errors.sum(); }
+
+    public int getCacheEntries() {
+        synchronized (cache) { return cache.size(); }
+    }
+
+    public long getCacheBytes() {
+        synchronized (cache) { return cacheBytes; }
+    }
+
+    /** Deja de aceptar conexiones y espera hasta 2 s a las peticiones en curso. */
+    @Override
+    public void close() {
+        server.stop(2);
+        executor.shutdown();
+        rebuilder.shutdownNow();
+        try {
+            executor.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
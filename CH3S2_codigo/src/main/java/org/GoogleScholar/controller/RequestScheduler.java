@@ -0,0 +1,194 @@
+package org.GoogleScholar.controller;
+
+import org.GoogleScholar.config.Env;
+import org.GoogleScholar.metrics.Metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs SerpAPI calls on a key from the ApiKeyPool (each key with its own token bucket),
+ * retries only retryable statuses with exponential backoff + full jitter (or the server's
+ * Retry-After), and fails fast through a circuit breaker while the upstream keeps failing.
+ * A 429 cools down only the key that got it, so the retry goes to another key if one is free.
+ */
+public class RequestScheduler {
+
+    /** Respuesta ya consumida (status, cuerpo y cabecera Retry-After si vino). */
+    static final class Response {
+        final int status;
+        final byte[] body;
+        final String retryAfter;
+        Response(int status, byte[] body, String retryAfter) {
+            this.status = status;
+            this.body = body;
+            this.retryAfter = retryAfter;
+        }
+    }
+
+    interface Call {
+        Response execute(String apiKey) throws IOException;
+    }
+
+    /** Vale la pena reintentar: timeouts, 429 y errores transitorios del servidor. */
+    private static final Set<Integer> RETRYABLE = Set.of(408, 425, 429, 500, 502, 503, 504);
+
+    private final int maxAttempts;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+    private final CircuitBreaker breaker;
+
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder rejectedByBreaker = new LongAdder();
+
+    // Respuestas por clase de estado (Metrics/JMX); sustituyen al antiguo log "HTTP 200 ✓" por petición
+    private static final LongAdder OK = Metrics.counter("serpapi.responses.2xx");
+    private static final LongAdder CLIENT_ERRORS = Metrics.counter("serpapi.responses.4xx");
+    private static final LongAdder SERVER_ERRORS = Metrics.counter("serpapi.responses.5xx");
+    private static final LongAdder NETWORK_ERRORS = Metrics.counter("serpapi.network_errors");
+
+    public RequestScheduler(int maxAttempts, long baseBackoffMs, long maxBackoffMs,
+                            int breakerThreshold, long breakerOpenMs) {
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMs = baseBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.breaker = new CircuitBreaker(breakerThreshold, breakerOpenMs);
+    }
+
+    /** SERPAPI_MAX_ATTEMPTS, SERPAPI_BACKOFF_BASE_MS/MAX_MS, SERPAPI_BREAKER_* (el ritmo por clave lo lleva ApiKeyPool). */
+    public static RequestScheduler fromEnv() {
+        return new RequestScheduler(
+                (int) Env.doubleValue("SERPAPI_MAX_ATTEMPTS", 4),
+                (long) Env.doubleValue("SERPAPI_BACKOFF_BASE_MS", 500),
+                (long) Env.doubleValue("SERPAPI_BACKOFF_MAX_MS", 30_000),
+                (int) Env.doubleValue("SERPAPI_BREAKER_THRESHOLD", 5),
+                (long) Env.doubleValue("SERPAPI_BREAKER_OPEN_MS", 30_000));
+    }
+
+    byte[] execute(ApiKeyPool keys, Call call) throws HttpError {
+        for (int attempt = 1; ; attempt++) {
+            if (!breaker.allowRequest()) {
+                rejectedByBreaker.increment();
+                throw new HttpError(HttpError.CIRCUIT_OPEN, "Circuit open: SerpAPI degraded, failing fast");
+            }
+            ApiKeyPool.Key key;
+            try {
+                key = keys.acquire(); // clave sana menos cargada, con su token
+            } catch (InterruptedException e) {
+                breaker.release();
+                Thread.currentThread().interrupt();
+                throw new HttpError(HttpError.NETWORK, "Interrupted while waiting for rate limit");
+            } catch (HttpError | RuntimeException e) {
+                breaker.release(); // KEYS_EXHAUSTED: no dice nada de la salud del upstream
+                throw e;
+            }
+
+            Response resp;
+            try {
+                resp = call.execute(key.value);
+            } catch (RuntimeException ex) {
+                keys.finish(key, HttpError.NETWORK, null, 0);
+                breaker.release();
+                throw ex;
+            } catch (IOException ex) {
+                keys.finish(key, HttpError.NETWORK, null, 0);
+                NETWORK_ERRORS.increment();
+                breaker.onFailure();
+                if (attempt < maxAttempts) {
+                    long wait = backoffMillis(attempt);
+                    System.err.println("Network error → retry " + attempt + "/" + maxAttempts + " in " + wait + "ms :: " + ex.getMessage());
+                    retryAfterSleep(wait);
+                    continue;
+                }
+                throw new HttpError(HttpError.NETWORK, ex.getMessage());
+            }
+
+            if (resp.status < 300) OK.increment();
+            else if (resp.status < 500) CLIENT_ERRORS.increment();
+            else SERVER_ERRORS.increment();
+
+            Long serverWait = parseRetryAfter(resp.retryAfter);
+            long wait = serverWait != null ? Math.min(serverWait, maxBackoffMs) : backoffMillis(attempt);
+            if (keys.finish(key, resp.status, resp.body, wait)) {
+                // Clave sin búsquedas o inválida: se repite ya con otra (si no queda ninguna, acquire falla)
+                breaker.onSuccess();
+                attempt--;
+                continue;
+            }
+
+            if (resp.status == 200) {
+                breaker.onSuccess();
+                return resp.body;
+            }
+
+            if (!RETRYABLE.contains(resp.status)) {
+                // 4xx definitivos (clave inválida, petición mal formada…): el upstream está sano, no reintentar
+                breaker.onSuccess();
+                throw new HttpError(resp.status, new String(resp.body, StandardCharsets.UTF_8));
+            }
+
+            // Un 429 es una respuesta del upstream (sano): cierra el ensayo half-open; el ritmo lo corrige la clave
+            if (resp.status == 429) {
+                throttled.increment();
+                breaker.onSuccess();
+            } else {
+                breaker.onFailure();
+            }
+            if (attempt >= maxAttempts) {
+                throw new HttpError(resp.status, new String(resp.body, StandardCharsets.UTF_8));
+            }
+            if (resp.status == 429) {
+                // Solo esa clave queda en enfriamiento 'wait' ms; acquire() elige otra o espera a que vuelva
+                System.err.println("HTTP 429 on key " + ApiKeyPool.mask(key.value) + " → retry " + attempt + "/" + maxAttempts
+                        + " (key cooling down " + wait + "ms)");
+                retries.increment();
+                continue;
+            }
+            System.err.println("HTTP " + resp.status + " → retry " + attempt + "/" + maxAttempts + " in " + wait + "ms");
+            retryAfterSleep(wait);
+        }
+    }
+
+    static boolean isRetryable(int status) {
+        return RETRYABLE.contains(status);
+    }
+
+    /** Backoff exponencial con "full jitter": aleatorio en [0, min(max, base·2^(n-1))]. */
+    long backoffMillis(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, baseBackoffMs << Math.min(20, attempt - 1));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /** Retry-After en segundos o como fecha HTTP (RFC 1123); null si no viene o no se entiende. */
+    static Long parseRetryAfter(String value) {
+        if (value == null || value.isBlank()) return null;
+        String v = value.trim();
+        try {
+            return Math.max(0, Long.parseLong(v)) * 1000;
+        } catch (NumberFormatException ignored) {}
+        try {
+            ZonedDateTime at = ZonedDateTime.parse(v, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(0, Duration.between(ZonedDateTime.now(at.getZone()), at).toMillis());
+        } catch (Exception ignored) {
+            return null;
+        }
+    }
+
+    private void retryAfterSleep(long ms) {
+        retries.increment();
+        try { Thread.sleep(ms); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+    }
+
+    public long getRetries()           { return retries.sum(); }
+    public long getThrottled()         { return throttled.sum(); }
+    public long getRejectedByBreaker() { return rejectedByBreaker.sum(); }
+    public long getBreakerOpens()      { return breaker.getOpens(); }
+    public String getBreakerState()    { return breaker.getState().name(); }
+}
@@ -0,0 +1,222 @@
+package org.GoogleScholar.controller;
+
+import org.GoogleScholar.config.Env;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Append-only archive of every SerpAPI page fetched over the network, so extraction can be
+ * re-run offline (see ScholarController.replaying / ReplayRunner).
+ * Pages go to rolling segment files (pages-000001.gz …), each page as its own gzip member,
+ * so a segment is also a valid multi-member .gz. index.tsv has one line per page
+ * (segment, offset, length, raw length, fetched at, engine, start, query); it is written
+ * after the page, and on open lines pointing past the end of their segment are ignored.
+ * The latest page per (engine, query, start) wins.
+ */
+public class ResponseArchive implements Closeable {
+
+    public static final String SEARCH = "google_scholar";
+    public static final String AUTHOR = "google_scholar_author";
+
+    private final Path dir;
+    private final long segmentBytes;
+
+    private final Map<String, Entry> index = new HashMap<>();
+    private final TreeMap<Integer, FileChannel> segments = new TreeMap<>();
+    private Writer indexOut;
+
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder reads = new LongAdder();
+    private long compressedBytes;
+    private long rawBytes;
+
+    private static final class Entry {
+        final int segment;
+        final long offset;
+        final int length;
+        final String engine;
+        final String query;
+        final int start;
+        Entry(int segment, long offset, int length, String engine, String query, int start) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+            this.engine = engine;
+            this.query = query;
+            this.start = start;
+        }
+    }
+
+    private ResponseArchive(Path dir, long segmentBytes) {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+    }
+
+    public static ResponseArchive open(Path dir, long segmentBytes) throws IOException {
+        ResponseArchive a = new ResponseArchive(dir, segmentBytes);
+        a.load();
+        return a;
+    }
+
+    /** Config por variables de entorno; null si ARCHIVE=off. */
+    public static ResponseArchive fromEnv() throws IOException {
+        if ("off".equalsIgnoreCase(System.getenv("ARCHIVE"))) return null;
+        return open(defaultDir(), Env.longValue("ARCHIVE_SEGMENT_MB", 64) * 1024 * 1024);
+    }
+
+    /** ARCHIVE_DIR o ~/.scholar-archive. */
+    public static Path defaultDir() {
+        String d = System.getenv("ARCHIVE_DIR");
+        return (d == null || d.isBlank())
+                ? Paths.get(System.getProperty("user.home"), ".scholar-archive")
+                : Paths.get(d);
+    }
+
+    private static String key(String engine, String query, int start) {
+        return engine + '\u0001' + query + '\u0001' + start;
+    }
+
+    // --------------------- escritura ---------------------
+
+    /** Guarda la página; un fallo de disco se avisa pero no interrumpe la ingesta. */
+    public synchronized void append(String engine, String query, int start, byte[] body) {
+        try {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream(body.length / 4 + 64);
+            try (GZIPOutputStream gz = new GZIPOutputStream(bos)) {
+                gz.write(body);
+            }
+            byte[] packed = bos.toByteArray();
+
+            int seg = segments.isEmpty() ? 1 : segments.lastKey();
+            FileChannel ch = segment(seg);
+            if (ch.size() > 0 && ch.size() + packed.length > segmentBytes) ch = segment(++seg);
+            long offset = ch.size();
+            ByteBuffer buf = ByteBuffer.wrap(packed);
+            long pos = offset;
+            while (buf.hasRemaining()) pos += ch.write(buf, pos);
+
+            String q = clean(query);
+            indexOut.write(seg + "\t" + offset + "\t" + packed.length + "\t" + body.length + "\t"
+                    + System.currentTimeMillis() + "\t" + engine + "\t" + start + "\t" + q + "\n");
+            indexOut.flush();
+
+            index.put(key(engine, q, start), new Entry(seg, offset, packed.length, engine, q, start));
+            appended.increment();
+            compressedBytes += packed.length;
+            rawBytes += body.length;
+        } catch (IOException e) {
+            System.err.println("Could not archive page (" + engine + " " + query + " @" + start + "): " + e.getMessage());
+        }
+    }
+
+    private static String clean(String s) {
+        return s == null ? "" : s.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+
+    private FileChannel segment(int n) throws IOException {
+        FileChannel ch = segments.get(n);
+        if (ch == null) {
+            ch = FileChannel.open(dir.resolve(String.format(Locale.ROOT, "pages-%06d.gz", n)),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segments.put(n, ch);
+        }
+        return ch;
+    }
+
+    // --------------------- lectura ---------------------
+
+    public synchronized boolean contains(String engine, String query, int start) {
+        return index.containsKey(key(engine, clean(query), start));
+    }
+
+    /** Página archivada (descomprimida) o null si no está. Lecturas posicionales: seguras en paralelo. */
+    public byte[] read(String engine, String query, int start) throws IOException {
+        Entry e;
+        FileChannel ch;
+        synchronized (this) {
+            e = index.get(key(engine, clean(query), start));
+            if (e == null) return null;
+            ch = segments.get(e.segment);
+        }
+        ByteBuffer buf = ByteBuffer.allocate(e.length);
+        long pos = e.offset;
+        while (buf.hasRemaining()) {
+            int n = ch.read(buf, pos);
+            if (n < 0) throw new EOFException("Archive segment " + e.segment + " is truncated");
+            pos += n;
+        }
+        reads.increment();
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(buf.array()))) {
+            return in.readAllBytes();
+        }
+    }
+
+    /** Consultas archivadas de un engine (nombres de autor para SEARCH), ordenadas. */
+    public synchronized List<String> queries(String engine) {
+        TreeSet<String> out = new TreeSet<>();
+        for (Entry e : index.values()) if (e.engine.equals(engine)) out.add(e.query);
+        return new ArrayList<>(out);
+    }
+
+    // --------------------- índice ---------------------
+
+    private void load() throws IOException {
+        Files.createDirectories(dir);
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, "pages-*.gz")) {
+            for (Path p : ds) {
+                String name = p.getFileName().toString();
+                segment(Integer.parseInt(name.substring(6, name.length() - 3)));
+            }
+        }
+        Path idx = dir.resolve("index.tsv");
+        if (Files.isRegularFile(idx)) {
+            try (BufferedReader in = Files.newBufferedReader(idx, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String[] f = line.split("\t", 8);
+                    if (f.length < 8) continue; // línea a medias
+                    try {
+                        int seg = Integer.parseInt(f[0]);
+                        long off = Long.parseLong(f[1]);
+                        int len = Integer.parseInt(f[2]);
+                        FileChannel ch = segments.get(seg);
+                        if (ch == null || off + len > ch.size()) continue;
+                        int start = Integer.parseInt(f[6]);
+                        index.put(key(f[5], f[7], start), new Entry(seg, off, len, f[5], f[7], start));
+                        compressedBytes += len;
+                        rawBytes += Long.parseLong(f[3]);
+                    } catch (NumberFormatException ignored) {
+                        // línea corrupta
+                    }
+                }
+            }
+        }
+        indexOut = Files.newBufferedWriter(idx, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    // --------------------- estado ---------------------
+
+    public synchronized int size()            { return index.size(); }
+    public synchronized int getSegments()     { return segments.size(); }
+    public synchronized long getCompressedBytes() { return compressedBytes; }
+    public synchronized long getRawBytes()    { return rawBytes; }
+    public long getAppended()                 { return appended.sum(); }
+    public long getReads()                    { return reads.sum(); }
+    public Path getDir()                      { return dir; }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (indexOut != null) indexOut.close();
+        for (FileChannel ch : segments.values()) ch.close();
+        segments.clear();
+    }
+}
@@ -0,0 +1,249 @@
+package org.GoogleScholar.controller;
+
+import org.GoogleScholar.config.Env;
+
+import java.io.*;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * LRU cache of SerpAPI response bodies with a TTL, bounded by entry count and bytes.
+ * Keys are the request URL normalized (api_key removed, params sorted, q lower-cased)
+ * so the same query/page hits regardless of key or parameter order.
+ * The cache is persisted as a single gzip snapshot file and reloaded on startup; the snapshot
+ * is copied under the lock and written outside it, so lookups never wait on the disk.
+ * Puts rewrite it at most once per save interval, so the cost of the full rewrite is bounded
+ * by time and not by the put rate; close() writes whatever is left.
+ */
+public class ResponseCache implements Closeable {
+
+    private static final int MAGIC = 0x53434843; // "SCHC"
+    private static final int VERSION = 1;
+
+    private final Path file;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long saveIntervalMillis;
+
+    private final LinkedHashMap<String, Entry> map = new LinkedHashMap<>(256, 0.75f, true);
+    private long bytes;
+    private int dirtyPuts;
+    private long lastSaveAttempt = System.currentTimeMillis();
+    private final ReentrantLock saveLock = new ReentrantLock(); // un solo escritor del snapshot
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private static final class Entry {
+        final byte[] body;
+        final long storedAt;
+        Entry(byte[] body, long storedAt) { this.body = body; this.storedAt = storedAt; }
+    }
+
+    public ResponseCache(Path file, long ttlMillis, int maxEntries, long maxBytes, long saveIntervalMillis) {
+        this.file = file;
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.saveIntervalMillis = saveIntervalMillis;
+        load();
+    }
+
+    /** Config por variables de entorno; devuelve null si SERPAPI_CACHE=off. */
+    public static ResponseCache fromEnv() {
+        if ("off".equalsIgnoreCase(System.getenv("SERPAPI_CACHE"))) return null;
+        String dir = System.getenv("SERPAPI_CACHE_DIR");
+        Path base = (dir == null || dir.isBlank())
+                ? Paths.get(System.getProperty("user.home"), ".scholar-cache")
+                : Paths.get(dir);
+        return new ResponseCache(
+                base.resolve("serpapi-cache.bin"),
+                Env.longValue("SERPAPI_CACHE_TTL_HOURS", 24) * 3_600_000L,
+                (int) Env.longValue("SERPAPI_CACHE_MAX_ENTRIES", 5_000),
+                Env.longValue("SERPAPI_CACHE_MAX_MB", 64) * 1024 * 1024,
+                Env.longValue("SERPAPI_CACHE_SAVE_SEC", 30) * 1000L);
+    }
+
+    /** Body cacheado para la URL, o null si no hay o ya expiró. */
+    public synchronized byte[] get(String url) {
+        String key = normalizeKey(url);
+        Entry e = map.get(key);
+        if (e == null) { misses.increment(); return null; }
+        if (isExpired(e, System.currentTimeMillis())) {
+            remove(key);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return e.body;
+    }
+
+    public void put(String url, byte[] body) {
+        if (body == null || body.length > maxBytes) return;
+        String key = normalizeKey(url);
+        boolean flush;
+        synchronized (this) {
+            Entry old = map.put(key, new Entry(body, System.currentTimeMillis()));
+            if (old != null) bytes -= old.body.length;
+            bytes += body.length;
+            evictOverflow();
+            dirtyPuts++;
+            flush = System.currentTimeMillis() - lastSaveAttempt >= saveIntervalMillis;
+        }
+        // Guardado periódico fuera del lock; si ya hay uno en curso se deja para el siguiente put
+        if (flush && saveLock.tryLock()) {
+            try {
+                writeSnapshot();
+            } finally {
+                saveLock.unlock();
+            }
+        }
+    }
+
+    private boolean isExpired(Entry e, long now) {
+        return now - e.storedAt > ttlMillis;
+    }
+
+    private void remove(String key) {
+        Entry e = map.remove(key);
+        if (e != null) bytes -= e.body.length;
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, Entry>> it = map.entrySet().iterator();
+        while ((map.size() > maxEntries || bytes > maxBytes) && it.hasNext()) {
+            bytes -= it.next().getValue().body.length;
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    /** Clave canónica: path + parámetros ordenados, sin api_key y con q normalizado. */
+    static String normalizeKey(String url) {
+        URI uri = URI.create(url);
+        TreeMap<String, String> params = new TreeMap<>();
+        String rawQuery = uri.getRawQuery();
+        if (rawQuery != null) {
+            for (String pair : rawQuery.split("&")) {
+                if (pair.isEmpty()) continue;
+                int eq = pair.indexOf('=');
+                String k = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+                String v = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+                if (k.equals("api_key")) continue;
+                if (k.equals("q")) v = v.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+                params.put(k, v);
+            }
+        }
+        StringBuilder sb = new StringBuilder(uri.getPath());
+        char sep = '?';
+        for (Map.Entry<String, String> p : params.entrySet()) {
+            sb.append(sep).append(p.getKey()).append('=').append(p.getValue());
+            sep = '&';
+        }
+        return sb.toString();
+    }
+
+    // --------------------- persistencia ---------------------
+
+    private void load() {
+        if (!Files.isRegularFile(file)) return;
+        long now = System.currentTimeMillis();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return;
+            int n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                String key = in.readUTF();
+                long storedAt = in.readLong();
+                byte[] body = new byte[in.readInt()];
+                in.readFully(body);
+                Entry e = new Entry(body, storedAt);
+                if (isExpired(e, now)) continue;
+                map.put(key, e);
+                bytes += body.length;
+            }
+            evictOverflow();
+        } catch (IOException e) {
+            // Snapshot corrupto o truncado: se descarta y se empieza vacío
+            System.err.println("Response cache ignored (" + e.getMessage() + ")");
+            map.clear();
+            bytes = 0;
+        }
+    }
+
+    /** Escribe el snapshot completo (temp + move atómico para no dejar archivos a medias). */
+    public void save() {
+        saveLock.lock();
+        try {
+            writeSnapshot();
+        } finally {
+            saveLock.unlock();
+        }
+    }
+
+    /**
+     * Copia las entradas vivas bajo el lock (solo referencias) y escribe el archivo sin él.
+     * dirtyPuts solo se descuenta si el archivo llegó a su sitio; un fallo se reintenta en el
+     * siguiente intervalo.
+     */
+    private void writeSnapshot() {
+        List<Map.Entry<String, Entry>> live;
+        int copied;
+        synchronized (this) {
+            copied = dirtyPuts;
+            long now = System.currentTimeMillis();
+            lastSaveAttempt = now;
+            live = new ArrayList<>(map.size());
+            for (Map.Entry<String, Entry> me : map.entrySet()) {
+                if (!isExpired(me.getValue(), now)) live.add(Map.entry(me.getKey(), me.getValue()));
+            }
+        }
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(tmp))))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(live.size());
+                // Orden LRU → al recargar se conserva el orden de acceso
+                for (Map.Entry<String, Entry> me : live) {
+                    out.writeUTF(me.getKey());
+                    out.writeLong(me.getValue().storedAt);
+                    out.writeInt(me.getValue().body.length);
+                    out.write(me.getValue().body);
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            synchronized (this) {
+                dirtyPuts -= copied; // los puts llegados durante la escritura siguen pendientes
+            }
+        } catch (IOException e) {
+            System.err.println("Could not save response cache: " + e.getMessage());
+        }
+    }
+
+    /** Escribe el snapshot si quedan puts sin guardar (incluidos los de un guardado fallido). */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (dirtyPuts == 0) return;
+        }
+        save();
+    }
+
+    public long getHits()       { return hits.sum(); }
+    public long getMisses()     { return misses.sum(); }
+    public long getEvictions()  { return evictions.sum(); }
+    public synchronized int size()      { return map.size(); }
+    public synchronized long sizeBytes() { return bytes; }
+}
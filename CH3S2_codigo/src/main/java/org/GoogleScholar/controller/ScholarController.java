@@ -1,47 +1,203 @@
 package org.GoogleScholar.controller;
 
-import com.google.gson.*;
+import org.GoogleScholar.config.Env;
+import org.GoogleScholar.metrics.LatencyHistogram;
+import org.GoogleScholar.metrics.Metrics;
 import org.GoogleScholar.model.Article;
+import org.GoogleScholar.model.ArticleStore;
+import org.GoogleScholar.model.Author;
 import org.GoogleScholar.model.Issue;
 
 import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
 
 /** Sprint 3 controller: fetch top articles per author name with validation and logging. */
-public class ScholarController {
-
-    private final String apiKey;
-    private final List<Issue> issues = new ArrayList<>();
-
-    // Placeholders (en español)
-    private static final String ID_MISSING   = "No se encontró id";
+public class ScholarController implements AutoCloseable {
+
+    /** Endpoint por defecto; SERPAPI_BASE_URL permite apuntar a un servidor local de pruebas. */
+    public static final String DEFAULT_BASE_URL = "https://serpapi.com/search.json";
+
+    private final ApiKeyPool keys;         // null en modo replay
+    private final String baseUrl;
+    private final CloseableHttpClient http; // null en modo replay
+    private final ResponseCache cache; // null si SERPAPI_CACHE=off
+    private final ResponseArchive archive; // null si ARCHIVE=off
+    private final boolean replay;          // páginas solo desde el archivo, nunca de la red
+    private final KeywordExtractor keywordExtractor = KeywordExtractor.fromEnv();
+    private final LongAdder apiCalls = new LongAdder(); // peticiones reales a SerpAPI (incluye reintentos)
+    private final RequestScheduler scheduler = RequestScheduler.fromEnv();
+    // Compartida entre hilos de ingesta (IngestionEngine)
+    private final Queue<Issue> issues = new ConcurrentLinkedQueue<>();
+    private volatile DedupFilter dedup; // null = sin filtro (--refresh y modo interactivo deben re-procesar)
+
+    // Placeholders (en español). Sin id se guarda NULL: article_id es UNIQUE y admite varios NULL
     private static final String DATE_MISSING = "No se encontró fecha";
     private static final String ABS_MISSING  = "No se encontró abstracto";
     private static final String KW_MISSING   = "No se encontraron keywords";
 
-    public ScholarController() {
-        this.apiKey = System.getenv("SERPAPI_KEY");
-        if (apiKey == null || apiKey.isBlank()) {
-            throw new IllegalStateException("Missing SERPAPI_KEY environment variable.");
-        }
+    // Latencias por etapa (ver Metrics): red con esperas y reintentos, cada intento HTTP, extracción
+    private static final LatencyHistogram FETCH    = Metrics.stage("serpapi.fetch");
+    private static final LatencyHistogram REQUEST  = Metrics.stage("serpapi.request");
+    private static final LatencyHistogram EXTRACT  = Metrics.stage("extract.page");
+    private static final LatencyHistogram PARSE    = Metrics.stage("extract.parse");
+    private static final LatencyHistogram KEYWORDS = Metrics.stage("extract.keywords");
+    private static final LongAdder ARTICLES_EXTRACTED = Metrics.counter("extract.articles");
+
+    public ScholarController() throws IOException {
+        this(apiKeysFromEnv(), System.getenv("SERPAPI_BASE_URL"), ResponseCache.fromEnv(),
+                ResponseArchive.fromEnv());
+    }
+
+    /**
+     * apiKeys: una clave o varias separadas por comas ("k1,k2:5000", ver ApiKeyPool).
+     * baseUrl null/vacío → DEFAULT_BASE_URL; cache puede ser null (sin cache). Sin archivo.
+     */
+    public ScholarController(String apiKeys, String baseUrl, ResponseCache cache) {
+        this(apiKeys, baseUrl, cache, null);
+    }
+
+    /** Como el anterior; archive (puede ser null) guarda cada página bajada de la red. */
+    public ScholarController(String apiKeys, String baseUrl, ResponseCache cache, ResponseArchive archive) {
+        this.keys = ApiKeyPool.fromEnv(apiKeys);
+        this.baseUrl = (baseUrl == null || baseUrl.isBlank()) ? DEFAULT_BASE_URL : baseUrl;
+        this.http = buildHttpClient();
+        this.cache = cache;
+        this.archive = archive;
+        this.replay = false;
+    }
+
+    /** SERPAPI_KEYS (varias claves) o, si no está, SERPAPI_KEY. */
+    public static String apiKeysFromEnv() {
+        String many = System.getenv("SERPAPI_KEYS");
+        return (many != null && !many.isBlank()) ? many : System.getenv("SERPAPI_KEY");
+    }
+
+    private ScholarController(ResponseArchive archive) {
+        this.keys = null;
+        this.baseUrl = DEFAULT_BASE_URL;
+        this.http = null;
+        this.cache = null;
+        this.archive = archive;
+        this.replay = true;
+    }
+
+    /**
+     * Controlador sin red: las páginas (búsquedas y perfiles) salen del archivo y pasan por
+     * la misma extracción; una página que no está archivada termina ese autor.
+     */
+    public static ScholarController replaying(ResponseArchive archive) {
+        return new ScholarController(Objects.requireNonNull(archive, "archive"));
+    }
+
+    /**
+     * Un solo cliente HTTP de larga vida: conexiones keep-alive reutilizadas entre páginas
+     * y autores, límite por ruta, gzip/deflate (compresión activada por defecto en HttpClient 5)
+     * y timeouts configurables.
+     */
+    private static CloseableHttpClient buildHttpClient() {
+        Timeout connectTimeout = Timeout.ofMilliseconds(Env.intValue("SERPAPI_CONNECT_TIMEOUT_MS", 5_000));
+        Timeout readTimeout    = Timeout.ofMilliseconds(Env.intValue("SERPAPI_READ_TIMEOUT_MS", 20_000));
+
+        PoolingHttpClientConnectionManager cm = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnPerRoute(Env.intValue("SERPAPI_MAX_CONN_PER_ROUTE", 8))
+                .setMaxConnTotal(Env.intValue("SERPAPI_MAX_CONN_TOTAL", 32))
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(connectTimeout)
+                        .setSocketTimeout(readTimeout)
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                        .setTimeToLive(TimeValue.ofMinutes(5))
+                        .build())
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(cm)
+                .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(connectTimeout)
+                        .setResponseTimeout(readTimeout)
+                        .build())
+                // Los reintentos (429/503, Retry-After) los decide RequestScheduler, no el cliente
+                .disableAutomaticRetries()
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(30))
+                .build();
+    }
+
+    /**
+     * En modo TF-IDF carga las frecuencias de documento desde los artículos ya guardados
+     * (mismo texto que se usa al extraer: abstract, o título si no hay abstract).
+     */
+    public void warmKeywordCorpus(ArticleStore store) throws IOException {
+        if (keywordExtractor.getMode() != KeywordExtractor.Mode.TFIDF) return;
+        store.forEachTitleAndAbstract((title, abs) ->
+                keywordExtractor.observe(abs == null || abs.equals(ABS_MISSING) ? title : abs));
+    }
+
+    /** Número de peticiones HTTP enviadas a SerpAPI (no cuenta los aciertos de cache). */
+    public long getApiCalls() { return apiCalls.sum(); }
+
+    /** Reintentos, throttling y estado del circuit breaker de las llamadas a SerpAPI. */
+    public RequestScheduler getRequestScheduler() { return scheduler; }
+
+    /** Claves de SerpAPI en uso (null en modo replay). */
+    public ApiKeyPool getApiKeyPool() { return keys; }
+
+    /** Filtro de duplicados (ver DedupFilter); null lo desactiva. */
+    public void setDedupFilter(DedupFilter dedup) { this.dedup = dedup; }
+
+    public DedupFilter getDedupFilter() { return dedup; }
+
+    /** Cache de respuestas (puede ser null si está desactivada). */
+    public ResponseCache getResponseCache() { return cache; }
+
+    /** Archivo de páginas (null si está desactivado). */
+    public ResponseArchive getResponseArchive() { return archive; }
+
+    /** Cierra el cliente HTTP y su pool de conexiones, persiste la cache y cierra el archivo. */
+    @Override
+    public void close() throws IOException {
+        if (cache != null) cache.close();
+        if (archive != null) archive.close();
+        if (http != null) http.close();
     }
 
     /** Devuelve y “vacía” la lista de incidencias acumuladas. */
     public List<Issue> drainIssues() {
-        List<Issue> copy = new ArrayList<>(issues);
-        issues.clear();
+        List<Issue> copy = new ArrayList<>();
+        Issue i;
+        while ((i = issues.poll()) != null) copy.add(i);
         return copy;
     }
 
     /** Obtiene hasta 'limit' artículos del autor (saltando items sin autores) con validación. */
     public List<Article> fetchTopArticlesByAuthorName(String authorName, int limit) throws Exception {
+        return fetchTopArticlesByAuthorName(authorName, limit, null);
+    }
+
+    /**
+     * Igual, y además añade a authorsOut (si no es null) un Author por cada autor de los
+     * artículos devueltos: nombre, author_id (puede ser null) y título del artículo.
+     */
+    public List<Article> fetchTopArticlesByAuthorName(String authorName, int limit, List<Author> authorsOut) throws Exception {
         List<Article> out = new ArrayList<>();
         final int pageSize = 10;
         int start = 0;
@@ -49,67 +205,28 @@ public class ScholarController {
 
         while (out.size() < limit && safetyPages < 3) {
             String q = "\"" + authorName + "\"";
-            String url = "https://serpapi.com/search.json"
+            String url = baseUrl
                     + "?engine=google_scholar"
                     + "&q=" + URLEncoder.encode(q, StandardCharsets.UTF_8)
                     + "&hl=en"
                     + "&num=" + pageSize
-                    + "&start=" + start
-                    + "&api_key=" + apiKey;
+                    + "&start=" + start;
 
-            String json;
+            byte[] body;
             try {
-                json = httpGetWithRetry(url, 3, 600);
+                body = fetchPage(url, ResponseArchive.SEARCH, authorName, start);
             } catch (HttpError e) {
-                // Registra incidente de red/HTTP
+                System.err.println("HTTP " + e.getStatusCode() + " for " + url);
+                // Red, breaker, claves o reintentos agotados: el autor no está hecho; IngestionEngine lo marca como fallido
+                if (e.isTransient()) throw e;
+                // 4xx definitivo: se registra la incidencia y se da el autor por terminado
                 issues.add(new Issue(authorName, null,
                         "HTTP error " + e.getStatusCode(), e.getStatusCode(), null));
-                System.err.println("HTTP " + e.getStatusCode() + " for " + url);
-                break; // aborta esta página
+                break;
             }
+            if (body == null) break; // replay: página no archivada
 
-            JsonObject root = JsonParser.parseString(json).getAsJsonObject();
-            JsonArray results = root.has("organic_results") ? root.getAsJsonArray("organic_results") : new JsonArray();
-
-            for (JsonElement el : results) {
-                if (out.size() >= limit) break;
-                JsonObject item = el.getAsJsonObject();
-
-                // Autores: si no hay, lo saltamos (y registramos)
-                String authorsCsv = extractAuthorsCsv(item);
-                if (authorsCsv == null || authorsCsv.isBlank()) {
-                    issues.add(new Issue(authorName, getString(item, "title", "(sin título)"),
-                            "Artículo sin autores", null, trimJson(item.toString())));
-                    continue;
-                }
-
-                String title          = getString(item, "title", "(sin título)");
-                String link           = getString(item, "link", null);
-                String articleIdRaw   = getString(item, "result_id", null);
-                String publicationRaw = extractYear(item);
-                String abstractRaw    = getString(item, "snippet", null);
-                Integer citedByRaw    = extractCitedBy(item);
-                String keywordsRaw    = computeKeywords(abstractRaw != null ? abstractRaw : title, authorsCsv);
-
-                // Placeholders si faltan
-                String articleId    = articleIdRaw    == null ? ID_MISSING   : articleIdRaw;
-                String publication  = publicationRaw  == null ? DATE_MISSING : publicationRaw;
-                String abstractText = abstractRaw     == null ? ABS_MISSING  : abstractRaw;
-                String keywords     = keywordsRaw     == null ? KW_MISSING   : keywordsRaw;
-                Integer citedBy     = citedByRaw == null ? -1 : citedByRaw;
-
-                // Incidencias por campo faltante
-                if (articleIdRaw == null)    issues.add(new Issue(authorName, title, "Falta article_id", null, null));
-                if (publicationRaw == null)  issues.add(new Issue(authorName, title, "Falta publication_date", null, null));
-                if (abstractRaw == null)     issues.add(new Issue(authorName, title, "Falta abstract", null, null));
-                if (keywordsRaw == null)     issues.add(new Issue(authorName, title, "Falta keywords (computadas)", null, null));
-                if (citedByRaw == null)      issues.add(new Issue(authorName, title, "Faltan citas", null, null));
-
-                out.add(new Article(
-                        authorName, articleId, title, authorsCsv, publication,
-                        abstractText, link, keywords, citedBy
-                ));
-            }
+            out.addAll(extractArticles(authorName, body, limit - out.size(), authorsOut));
 
             start += pageSize;
             safetyPages++;
@@ -118,148 +235,168 @@ public class ScholarController {
         return out;
     }
 
-    // --------------------- HTTP helper con reintentos ---------------------
-
-    /** Excepción para envolver estado HTTP. */
-    private static class HttpError extends Exception {
-        private final int statusCode;
-        HttpError(int code, String msg) { super(msg); this.statusCode = code; }
-        int getStatusCode() { return statusCode; }
-    }
+    /**
+     * Extracción de una página de resultados (organic_results): hasta 'limit' artículos válidos,
+     * con placeholders e incidencias como siempre. La usan la ingesta en vivo y el replay.
+     */
+    public List<Article> extractArticles(String authorName, byte[] page, int limit, List<Author> authorsOut) throws IOException {
+        long t0 = System.nanoTime();
+        List<Article> out = new ArrayList<>();
+        // Lectura en streaming: solo los campos que usamos, sin árbol JSON completo
+        List<ScholarResult> results = OrganicResultReader.read(new ByteArrayInputStream(page));
+        PARSE.recordSince(t0);
+
+        for (ScholarResult item : results) {
+            if (out.size() >= limit) break;
+
+            // Autores: si no hay, lo saltamos (y registramos)
+            String authorsCsv = extractAuthorsCsv(item);
+            if (authorsCsv == null || authorsCsv.isBlank()) {
+                issues.add(new Issue(authorName, orDefault(item.getTitle(), "(sin título)"),
+                        "Artículo sin autores", null, trimJson(item.toCompactJson())));
+                continue;
+            }
 
-    /** GET con validación de status y reintento simple (backoff ms). */
-    private String httpGetWithRetry(String url, int attempts, long backoffMs) throws HttpError {
-        int tryNo = 0;
-        while (true) {
-            tryNo++;
-            try (CloseableHttpClient http = HttpClients.createDefault()) {
-                HttpGet get = new HttpGet(url);
-                try (CloseableHttpResponse resp = http.execute(get)) {
-                    int status = resp.getCode();
-                    String body = resp.getEntity() != null ? EntityUtils.toString(resp.getEntity()) : "";
-                    if (status != 200) {
-                        if (tryNo < attempts) {
-                            System.err.println("HTTP " + status + " → retry " + tryNo + "/" + attempts);
-                            sleep(backoffMs * tryNo);
-                            continue;
-                        }
-                        throw new HttpError(status, body);
-                    }
-                    // Log “verde”
-                    System.out.println("HTTP 200 ✓");
-                    return body;
-                }
-            } catch (HttpError e) {
-                throw e;
-            } catch (Exception ex) {
-                if (tryNo < attempts) {
-                    System.err.println("Network error → retry " + tryNo + "/" + attempts + " :: " + ex.getMessage());
-                    sleep(backoffMs * tryNo);
-                    continue;
+            String title          = orDefault(item.getTitle(), "(sin título)");
+
+            // Ya está en la BD (o ya salió en esta ejecución): ni keywords ni insert
+            DedupFilter seen = dedup;
+            if (seen != null && !seen.firstSeen(item.getResultId(), authorName, title)) continue;
+
+            String link           = item.getLink();
+            String articleIdRaw   = item.getResultId();
+            String publicationRaw = extractYear(item);
+            String abstractRaw    = item.getSnippet();
+            Integer citedByRaw    = extractCitedBy(item);
+            String keywordsRaw    = computeKeywords(abstractRaw != null ? abstractRaw : title, authorsCsv);
+
+            // Placeholders si faltan
+            String publication  = publicationRaw  == null ? DATE_MISSING : publicationRaw;
+            String abstractText = abstractRaw     == null ? ABS_MISSING  : abstractRaw;
+            String keywords     = keywordsRaw     == null ? KW_MISSING   : keywordsRaw;
+            Integer citedBy     = citedByRaw == null ? -1 : citedByRaw;
+
+            // Incidencias por campo faltante
+            if (articleIdRaw == null)    issues.add(new Issue(authorName, title, "Falta article_id", null, null));
+            if (publicationRaw == null)  issues.add(new Issue(authorName, title, "Falta publication_date", null, null));
+            if (abstractRaw == null)     issues.add(new Issue(authorName, title, "Falta abstract", null, null));
+            if (keywordsRaw == null)     issues.add(new Issue(authorName, title, "Falta keywords (computadas)", null, null));
+            if (citedByRaw == null)      issues.add(new Issue(authorName, title, "Faltan citas", null, null));
+
+            out.add(new Article(
+                    authorName, articleIdRaw, title, authorsCsv, publication,
+                    abstractText, link, keywords, citedBy
+            ));
+            if (authorsOut != null) {
+                List<String> names = item.getAuthors(), ids = item.getAuthorIds();
+                for (int i = 0; i < names.size(); i++) {
+                    authorsOut.add(new Author(names.get(i), ids.get(i), null, title, null));
                 }
-                throw new HttpError(-1, ex.getMessage());
             }
         }
+        ARTICLES_EXTRACTED.add(out.size());
+        EXTRACT.recordSince(t0);
+        return out;
     }
 
-    private void sleep(long ms) { try { Thread.sleep(ms); } catch (InterruptedException ignored) {} }
-
-    // --------------------- JSON helpers ---------------------
-
-    private static String getString(JsonObject o, String key, String def) {
-        return (o.has(key) && o.get(key).isJsonPrimitive()) ? o.get(key).getAsString() : def;
+    /** Perfil de un autor (engine=google_scholar_author); null si SerpAPI no lo devuelve. */
+    public Author fetchAuthorProfile(String authorId) throws Exception {
+        String url = baseUrl
+                + "?engine=google_scholar_author"
+                + "&author_id=" + URLEncoder.encode(authorId, StandardCharsets.UTF_8)
+                + "&hl=en"
+                + "&num=1";
+        byte[] body = fetchPage(url, ResponseArchive.AUTHOR, authorId, 0);
+        return body == null ? null : AuthorProfileReader.read(new ByteArrayInputStream(body), authorId);
     }
 
-    private String extractAuthorsCsv(JsonObject item) {
-        List<String> names = new ArrayList<>();
+    // --------------------- HTTP helper con reintentos ---------------------
 
-        if (item.has("authors") && item.get("authors").isJsonArray()) {
-            for (JsonElement ael : item.getAsJsonArray("authors")) {
-                if (ael.isJsonObject()) {
-                    String name = getString(ael.getAsJsonObject(), "name", null);
-                    if (name != null && !name.isBlank()) names.add(name);
-                }
+    /**
+     * Primero la cache local; si no está (o expiró) va a la red y guarda el 200 en la cache y
+     * en el archivo. En replay solo el archivo (null si la página no está).
+     */
+    private byte[] fetchPage(String url, String engine, String query, int start) throws HttpError, IOException {
+        if (replay) return archive.read(engine, query, start);
+        if (cache != null) {
+            byte[] cached = cache.get(url);
+            if (cached != null) {
+                if (archive != null && !archive.contains(engine, query, start)) archive.append(engine, query, start, cached);
+                return cached;
             }
         }
+        byte[] body = httpGetWithRetry(url);
+        if (cache != null) cache.put(url, body);
+        if (archive != null) archive.append(engine, query, start, body);
+        return body;
+    }
 
-        if (names.isEmpty() && item.has("publication_info") && item.get("publication_info").isJsonObject()) {
-            JsonObject pub = item.getAsJsonObject("publication_info");
-            if (pub.has("authors") && pub.get("authors").isJsonArray()) {
-                for (JsonElement ael : pub.getAsJsonArray("authors")) {
-                    if (ael.isJsonObject()) {
-                        String name = getString(ael.getAsJsonObject(), "name", null);
-                        if (name != null && !name.isBlank()) names.add(name);
-                    }
+    /**
+     * GET a través del RequestScheduler: cada intento con la clave que elija el ApiKeyPool
+     * (añadida aquí, la url no la lleva), reintentos solo para estados reintentables
+     * (backoff exponencial con jitter o Retry-After) y circuit breaker.
+     */
+    private byte[] httpGetWithRetry(String url) throws HttpError {
+        long t0 = System.nanoTime();
+        try {
+            return scheduler.execute(keys, apiKey -> {
+                apiCalls.increment();
+                long t1 = System.nanoTime();
+                // El handler consume la entidad y devuelve la conexión al pool
+                HttpGet get = new HttpGet(url + "&api_key=" + URLEncoder.encode(apiKey, StandardCharsets.UTF_8));
+                try {
+                    return http.execute(get, r -> {
+                        Header retryAfter = r.getFirstHeader("Retry-After");
+                        return new RequestScheduler.Response(r.getCode(),
+                                r.getEntity() != null ? EntityUtils.toByteArray(r.getEntity()) : new byte[0],
+                                retryAfter != null ? retryAfter.getValue() : null);
+                    });
+                } finally {
+                    REQUEST.recordSince(t1);
                 }
-            }
+            });
+        } finally {
+            FETCH.recordSince(t0);
         }
+    }
 
+    // --------------------- helpers de extracción ---------------------
+
+    private static String orDefault(String v, String def) {
+        return v != null ? v : def;
+    }
+
+    // Helpers estáticos y package-private: los usan también los benchmarks JMH (módulo benchmarks)
+    static String extractAuthorsCsv(ScholarResult item) {
+        List<String> names = item.getAuthors();
         return names.isEmpty() ? null : String.join(", ", names);
     }
 
-    private String extractYear(JsonObject item) {
-        if (item.has("publication_info") && item.get("publication_info").isJsonObject()) {
-            String summary = getString(item.getAsJsonObject("publication_info"), "summary", null);
-            if (summary != null) {
-                var m = java.util.regex.Pattern.compile("(19|20)\\d{2}").matcher(summary);
-                if (m.find()) return m.group();
-            }
+    private static final Pattern YEAR = Pattern.compile("(19|20)\\d{2}");
+
+    static String extractYear(ScholarResult item) {
+        String summary = item.getPublicationSummary();
+        if (summary != null) {
+            var m = YEAR.matcher(summary);
+            if (m.find()) return m.group();
         }
         return null;
     }
 
-    private Integer extractCitedBy(JsonObject item) {
-        try {
-            if (item.has("cited_by") && item.get("cited_by").isJsonObject()) {
-                JsonObject cb = item.getAsJsonObject("cited_by");
-                if (cb.has("value")) return cb.get("value").getAsInt();
-            } else if (item.has("inline_links") && item.get("inline_links").isJsonObject()) {
-                JsonObject il = item.getAsJsonObject("inline_links");
-                if (il.has("cited_by") && il.get("cited_by").isJsonObject()) {
-                    JsonObject cb = il.getAsJsonObject("cited_by");
-                    if (cb.has("total")) return cb.get("total").getAsInt();
-                }
-            }
-        } catch (Exception ignored) {}
-        return null;
+    static Integer extractCitedBy(ScholarResult item) {
+        return item.getCitedBy();
     }
 
-    // --- keywords: top 3 palabras frecuentes (sin stopwords y sin apellidos de autores) ---
-    private static final Set<String> STOP = Set.of(
-            "the","and","for","with","that","this","from","have","has","are","was","were","will",
-            "into","over","under","between","about","after","before","until","while","more","most",
-            "can","may","might","should","could","would","than","such","using","used","use","based",
-            "on","in","at","by","to","of","a","an","as","is","it","be","we","our","their","its",
-            "not","no","yes","new","study","results","paper","review","article","case","cases"
-    );
-
+    // --- keywords: top 3 palabras (sin stopwords y sin apellidos de autores), ver KeywordExtractor ---
     private String computeKeywords(String text, String authorsCsv) {
-        if (text == null || text.isBlank()) return null;
-
-        Set<String> ban = new HashSet<>(STOP);
-        if (authorsCsv != null) {
-            for (String part : authorsCsv.split("[, ]+")) {
-                if (part.length() >= 3) ban.add(part.toLowerCase());
-            }
-        }
-
-        Map<String,Integer> freq = new HashMap<>();
-        for (String raw : text.toLowerCase().replaceAll("[^a-z0-9 ]", " ").split("\\s+")) {
-            if (raw.length() < 4) continue;
-            if (ban.contains(raw)) continue;
-            if (raw.matches("\\d+")) continue;
-            freq.merge(raw, 1, Integer::sum);
-        }
-
-        return freq.entrySet().stream()
-                .sorted((a,b) -> Integer.compare(b.getValue(), a.getValue()))
-                .limit(3)
-                .map(Map.Entry::getKey)
-                .reduce((a,b) -> a + ", " + b)
-                .orElse(null);
+        long t0 = System.nanoTime();
+        if (keywordExtractor.getMode() == KeywordExtractor.Mode.TFIDF) keywordExtractor.observe(text);
+        String kw = keywordExtractor.extract(text, authorsCsv);
+        KEYWORDS.recordSince(t0);
+        return kw;
     }
 
-    private String trimJson(String j) {
+    static String trimJson(String j) {
         if (j == null) return null;
         return j.length() > 800 ? j.substring(0, 800) + "…" : j;
     }
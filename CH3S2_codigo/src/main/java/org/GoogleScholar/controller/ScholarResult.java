@@ -0,0 +1,60 @@
+package org.GoogleScholar.controller;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+/** The handful of fields we read from one organic_results item (filled by OrganicResultReader). */
+public class ScholarResult {
+    String title;
+    String link;
+    String resultId;
+    String snippet;
+    String publicationSummary;
+    Integer citedBy;
+    final List<String> authorNames = new ArrayList<>();      // item.authors[].name
+    final List<String> authorIds = new ArrayList<>();        // item.authors[].author_id (null si no hay)
+    final List<String> pubAuthorNames = new ArrayList<>();   // item.publication_info.authors[].name
+    final List<String> pubAuthorIds = new ArrayList<>();     // item.publication_info.authors[].author_id
+
+    public String getTitle()              { return title; }
+    public String getLink()               { return link; }
+    public String getResultId()           { return resultId; }
+    public String getSnippet()            { return snippet; }
+    public String getPublicationSummary() { return publicationSummary; }
+    public Integer getCitedBy()           { return citedBy; }
+
+    /** Autores del item; si no hay, los de publication_info (mismo criterio que antes). */
+    public List<String> getAuthors() {
+        return authorNames.isEmpty() ? pubAuthorNames : authorNames;
+    }
+
+    /** author_id de cada autor de getAuthors() (misma posición; null si el autor no tiene perfil). */
+    public List<String> getAuthorIds() {
+        return authorNames.isEmpty() ? pubAuthorIds : authorIds;
+    }
+
+    /** JSON compacto con los campos extraídos (para Issue.rawJson). */
+    public String toCompactJson() {
+        StringWriter sw = new StringWriter();
+        try (JsonWriter w = new JsonWriter(sw)) {
+            w.beginObject();
+            w.name("title").value(title);
+            w.name("result_id").value(resultId);
+            w.name("link").value(link);
+            w.name("snippet").value(snippet);
+            w.name("publication_summary").value(publicationSummary);
+            w.name("cited_by").value(citedBy);
+            w.name("authors").beginArray();
+            for (String a : getAuthors()) w.value(a);
+            w.endArray();
+            w.endObject();
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // StringWriter no lanza IO
+        }
+        return sw.toString();
+    }
+}
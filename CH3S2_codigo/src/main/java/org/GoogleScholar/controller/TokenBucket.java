@@ -0,0 +1,62 @@
+package org.GoogleScholar.controller;
+
+/**
+ * Token bucket with an adaptive rate (AIMD): a 429 halves the refill rate down to a floor,
+ * and every success adds a small step back up to the configured rate.
+ */
+class TokenBucket {
+
+    private final double maxRate;
+    private final double minRate;
+    private final double capacity;
+    private double rate;       // tokens por segundo
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(double ratePerSecond, int burst) {
+        this.maxRate = ratePerSecond;
+        this.minRate = Math.max(0.05, ratePerSecond / 16);
+        this.capacity = Math.max(1, burst);
+        this.rate = ratePerSecond;
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /** Bloquea hasta obtener un token; devuelve los ms esperados. */
+    long acquire() throws InterruptedException {
+        long waitedNanos = 0;
+        while (true) {
+            long sleepNanos;
+            synchronized (this) {
+                refill();
+                if (tokens >= 1) {
+                    tokens -= 1;
+                    return waitedNanos / 1_000_000;
+                }
+                sleepNanos = (long) ((1 - tokens) / rate * 1e9);
+            }
+            Thread.sleep(Math.max(1, sleepNanos / 1_000_000));
+            waitedNanos += sleepNanos;
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) / 1e9 * rate);
+        lastRefill = now;
+    }
+
+    /** 429 recibido: reduce la tasa a la mitad y vacía el bucket. */
+    synchronized void onThrottled() {
+        refill();
+        rate = Math.max(minRate, rate / 2);
+        tokens = 0;
+    }
+
+    /** Respuesta correcta: recupera la tasa poco a poco. */
+    synchronized void onSuccess() {
+        if (rate < maxRate) rate = Math.min(maxRate, rate + maxRate / 20);
+    }
+
+    synchronized double currentRate() { return rate; }
+}
@@ -0,0 +1,8 @@
+package org.GoogleScholar.metrics;
+
+import java.util.Map;
+
+/** JMX view of every counter (org.GoogleScholar:type=Counters). */
+public interface CountersMXBean {
+    Map<String, Long> getCounters();
+}
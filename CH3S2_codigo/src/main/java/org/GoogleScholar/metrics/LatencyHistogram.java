@@ -0,0 +1,92 @@
+package org.GoogleScholar.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets (HDR-style): exact below 32 ns, then 32
+ * sub-buckets per power of two, so any recorded value is reported within ~3% up to ~18 minutes
+ * (longer values land in the last bucket). Recording is one array increment plus two adders.
+ */
+public class LatencyHistogram implements StageMXBean {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB = 1 << SUB_BITS;            // 32
+    private static final int MAX_EXP = 40;                   // 2^40 ns ≈ 18 min
+    private static final int BUCKETS = (MAX_EXP - SUB_BITS + 2) * SUB;
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    public String getName() { return name; }
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(index(nanos));
+        count.increment();
+        totalNanos.add(nanos);
+        if (nanos > maxNanos.get()) maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /** Mide desde t0 (System.nanoTime()) hasta ahora. */
+    public void recordSince(long t0) {
+        record(System.nanoTime() - t0);
+    }
+
+    static int index(long v) {
+        if (v < SUB) return (int) v;
+        int exp = 63 - Long.numberOfLeadingZeros(v);
+        if (exp > MAX_EXP) return BUCKETS - 1;
+        int sub = (int) (v >>> (exp - SUB_BITS)) & (SUB - 1);
+        return (exp - SUB_BITS + 1) * SUB + sub;
+    }
+
+    /** Mayor valor que cae en el bucket (el percentil se informa por arriba, como HdrHistogram). */
+    static long upperBound(int idx) {
+        if (idx < SUB) return idx;
+        int exp = idx / SUB + SUB_BITS - 1;
+        long sub = idx % SUB;
+        return ((SUB + sub + 1) << (exp - SUB_BITS)) - 1;
+    }
+
+    /** Percentil p (0–100) en nanosegundos; 0 sin muestras. */
+    public long percentileNanos(double p) {
+        long n = count.sum();
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(p / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(upperBound(i), maxNanos.get());
+        }
+        return maxNanos.get();
+    }
+
+    // --------------------- StageMXBean ---------------------
+
+    @Override public long getCount()          { return count.sum(); }
+    @Override public double getTotalMillis()  { return totalNanos.sum() / 1e6; }
+    @Override public double getMeanMillis()   { long n = count.sum(); return n == 0 ? 0 : totalNanos.sum() / 1e6 / n; }
+    @Override public double getP50Millis()    { return percentileNanos(50) / 1e6; }
+    @Override public double getP90Millis()    { return percentileNanos(90) / 1e6; }
+    @Override public double getP99Millis()    { return percentileNanos(99) / 1e6; }
+    @Override public double getP999Millis()   { return percentileNanos(99.9) / 1e6; }
+    @Override public double getMaxMillis()    { return maxNanos.get() / 1e6; }
+
+    /** Vacía el histograma (las muestras concurrentes con el reset pueden quedar a medias). */
+    @Override
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        count.reset();
+        totalNanos.reset();
+        maxNanos.set(0);
+    }
+}
@@ -0,0 +1,101 @@
+package org.GoogleScholar.metrics;
+
+import org.GoogleScholar.config.Env;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide registry of stage histograms and counters. Each histogram is registered as an
+ * MXBean (org.GoogleScholar:type=Stage,name=…) and the counters as one (type=Counters), so
+ * jconsole/VisualVM or any JMX scraper can read them while a run is in progress.
+ * Hot paths keep the instances they use in static fields; lookups happen once.
+ */
+public final class Metrics {
+
+    private static final String DOMAIN = "org.GoogleScholar";
+
+    private static final Map<String, LatencyHistogram> stages = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    static {
+        register("type=Counters", new CountersMXBean() {
+            @Override public Map<String, Long> getCounters() { return counterValues(); }
+        });
+    }
+
+    private Metrics() {}
+
+    /** Histograma de una etapa (se crea y registra en JMX la primera vez). */
+    public static LatencyHistogram stage(String name) {
+        return stages.computeIfAbsent(name, n -> {
+            LatencyHistogram h = new LatencyHistogram(n);
+            register("type=Stage,name=" + ObjectName.quote(n), h);
+            return h;
+        });
+    }
+
+    public static LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, n -> new LongAdder());
+    }
+
+    /** Etapas con al menos una muestra, por nombre. */
+    public static List<LatencyHistogram> stages() {
+        List<LatencyHistogram> out = new ArrayList<>();
+        for (LatencyHistogram h : new TreeMap<>(stages).values()) if (h.getCount() > 0) out.add(h);
+        return out;
+    }
+
+    public static Map<String, Long> counterValues() {
+        Map<String, Long> out = new TreeMap<>();
+        counters.forEach((k, v) -> out.put(k, v.sum()));
+        return out;
+    }
+
+    private static void register(String props, Object bean) {
+        try {
+            MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(DOMAIN + ":" + props);
+            if (!mbs.isRegistered(name)) mbs.registerMBean(bean, name);
+        } catch (JMException | RuntimeException e) {
+            System.err.println("Metrics: could not register " + props + " in JMX: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Llama a report cada periodSec segundos en un hilo daemon; null si periodSec &lt;= 0.
+     * Cerrar el resultado detiene el informe.
+     */
+    public static AutoCloseable startReporter(long periodSec, Runnable report) {
+        if (periodSec <= 0) return null;
+        ScheduledExecutorService ses = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-reporter");
+            t.setDaemon(true);
+            return t;
+        });
+        ses.scheduleAtFixedRate(() -> {
+            try {
+                report.run();
+            } catch (RuntimeException e) {
+                System.err.println("Metrics report failed: " + e.getMessage());
+            }
+        }, periodSec, periodSec, TimeUnit.SECONDS);
+        return ses::shutdownNow;
+    }
+
+    /** METRICS_REPORT_SEC (0 = sin informe periódico). */
+    public static long reportPeriodFromEnv(long def) {
+        return Env.longValue("METRICS_REPORT_SEC", def);
+    }
+}
@@ -0,0 +1,14 @@
+package org.GoogleScholar.metrics;
+
+/** JMX view of one timed stage (org.GoogleScholar:type=Stage,name=…). */
+public interface StageMXBean {
+    long getCount();
+    double getTotalMillis();
+    double getMeanMillis();
+    double getP50Millis();
+    double getP90Millis();
+    double getP99Millis();
+    double getP999Millis();
+    double getMaxMillis();
+    void reset();
+}
@@ -0,0 +1,25 @@
+package org.GoogleScholar.model;
+
+/** One group of an {@link ArticleSnapshot} aggregate (label = author query or keyword; year 0 = all years). */
+public class AggregateRow {
+    private final String label;
+    private final int year;
+    private final long articles;
+    private final long citations;
+
+    public AggregateRow(String label, int year, long articles, long citations) {
+        this.label = label;
+        this.year = year;
+        this.articles = articles;
+        this.citations = citations;
+    }
+
+    public String getLabel()   { return label; }
+    public int getYear()       { return year; }
+    public long getArticles()  { return articles; }
+    public long getCitations() { return citations; }
+
+    public double getAvgCitations() {
+        return articles == 0 ? 0.0 : (double) citations / articles;
+    }
+}
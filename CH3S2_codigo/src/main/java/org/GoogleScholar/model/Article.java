@@ -1,6 +1,7 @@
 package org.GoogleScholar.model;
 
 public class Article {
+    private final Long id;             // PK de la tabla; null si aún no se guardó
     private final String authorQuery;
     private final String articleId;
     private final String title;
@@ -14,6 +15,13 @@ public class Article {
     public Article(String authorQuery, String articleId, String title, String authors,
                    String publicationDate, String abstractText, String link,
                    String keywords, Integer citedBy) {
+        this(null, authorQuery, articleId, title, authors, publicationDate, abstractText, link, keywords, citedBy);
+    }
+
+    public Article(Long id, String authorQuery, String articleId, String title, String authors,
+                   String publicationDate, String abstractText, String link,
+                   String keywords, Integer citedBy) {
+        this.id = id;
         this.authorQuery = authorQuery;
         this.articleId = articleId;
         this.title = title;
@@ -25,6 +33,7 @@ public class Article {
         this.citedBy = citedBy;
     }
 
+    public Long getId()                { return id; }
     public String getAuthorQuery()     { return authorQuery; }
     public String getArticleId()       { return articleId; }
     public String getTitle()           { return title; }
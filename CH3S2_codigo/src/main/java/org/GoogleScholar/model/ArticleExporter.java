@@ -0,0 +1,101 @@
+package org.GoogleScholar.model;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Dumps the whole articles table to a gzip file (JSON Lines or CSV) row by row,
+ * on top of ArticleStore.streamAll, so memory stays constant.
+ */
+public class ArticleExporter {
+
+    public enum Format { JSONL, CSV }
+
+    private static final String[] HEADER = {
+            "id", "author_query", "article_id", "title", "authors", "publication_date",
+            "abstract", "link", "keywords", "cited_by"
+    };
+
+    private final ArticleStore store;
+
+    public ArticleExporter(ArticleStore store) {
+        this.store = store;
+    }
+
+    /** Writes every article to out (gzip) and returns the number of rows exported. */
+    public long export(Path out, Format format) throws IOException {
+        try (Writer w = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(out), 64 * 1024), StandardCharsets.UTF_8))) {
+            if (format == Format.CSV) writeCsvRow(w, HEADER);
+            try {
+                return store.streamAll(a -> {
+                    try {
+                        if (format == Format.CSV) writeCsvRow(w, values(a));
+                        else writeJsonLine(w, a);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static String[] values(Article a) {
+        return new String[]{
+                a.getId() == null ? "" : a.getId().toString(),
+                a.getAuthorQuery(), a.getArticleId(), a.getTitle(), a.getAuthors(),
+                a.getPublicationDate(), a.getAbstractText(), a.getLink(), a.getKeywords(),
+                a.getCitedBy() == null ? "" : a.getCitedBy().toString()
+        };
+    }
+
+    private static void writeJsonLine(Writer w, Article a) throws IOException {
+        // JsonWriter sin cerrar el Writer de fondo: una línea por artículo
+        JsonWriter jw = new JsonWriter(new FilterWriter(w) {
+            @Override public void close() {}
+        });
+        writeJson(jw, a);
+        jw.flush();
+        w.write('\n');
+    }
+
+    /** Un artículo como objeto JSON (mismos campos que la exportación JSONL; también lo usa QueryServer). */
+    public static void writeJson(JsonWriter jw, Article a) throws IOException {
+        jw.beginObject();
+        jw.name("id").value(a.getId());
+        jw.name("author_query").value(a.getAuthorQuery());
+        jw.name("article_id").value(a.getArticleId());
+        jw.name("title").value(a.getTitle());
+        jw.name("authors").value(a.getAuthors());
+        jw.name("publication_date").value(a.getPublicationDate());
+        jw.name("abstract").value(a.getAbstractText());
+        jw.name("link").value(a.getLink());
+        jw.name("keywords").value(a.getKeywords());
+        jw.name("cited_by").value(a.getCitedBy());
+        jw.endObject();
+    }
+
+    /** RFC 4180: comillas si hay coma, comillas o salto de línea (las comillas se duplican). */
+    private static void writeCsvRow(Writer w, String[] cols) throws IOException {
+        for (int i = 0; i < cols.length; i++) {
+            if (i > 0) w.write(',');
+            String v = cols[i] == null ? "" : cols[i];
+            boolean quote = v.indexOf(',') >= 0 || v.indexOf('"') >= 0 || v.indexOf('\n') >= 0 || v.indexOf('\r') >= 0;
+            if (quote) {
+                w.write('"');
+                w.write(v.replace("\"", "\"\""));
+                w.write('"');
+            } else {
+                w.write(v);
+            }
+        }
+        w.write("\r\n");
+    }
+}
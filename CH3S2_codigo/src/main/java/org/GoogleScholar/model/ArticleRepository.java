@@ -1,60 +1,418 @@
 package org.GoogleScholar.model;
 
+import org.GoogleScholar.metrics.LatencyHistogram;
+import org.GoogleScholar.metrics.Metrics;
+
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 public class ArticleRepository {
 
+    /** Placeholder que escribe ScholarController cuando no hay keywords (no va a article_keywords). */
+    static final String KW_PLACEHOLDER = "No se encontraron keywords";
+    private static final int MAX_KEYWORD_LENGTH = 64;
+
+    private static final LatencyHistogram SAVE_ARTICLES = Metrics.stage("db.articles.saveAll");
+    private static final LatencyHistogram SAVE_KEYWORDS = Metrics.stage("db.article_keywords.saveAll");
+
     public void saveAll(List<Article> articles) throws SQLException {
         if (articles == null || articles.isEmpty()) return;
-        String sql = "INSERT IGNORE INTO articles " +
-                "(author_query, article_id, title, authors, publication_date, abstract, link, keywords, cited_by) " +
-                "VALUES (?,?,?,?,?,?,?,?,?)";
-        try (Connection con = Db.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
+        try (Connection con = Db.getConnection()) {
+            saveAll(con, articles);
+        }
+    }
+
+    /**
+     * Same batch upsert on a caller-provided connection (no commit; used inside transactions).
+     * Existing rows (same article_id, or same author_query + title) keep their text fields but
+     * get the new cited_by, authors and link; the previous count and fetch time move to
+     * prev_cited_by / prev_fetched_at so the refresh planner can estimate citation velocity.
+     * pub_year is the typed year (NULL for the placeholder) and keywords also go to article_keywords.
+     */
+    public void saveAll(Connection con, List<Article> articles) throws SQLException {
+        if (articles == null || articles.isEmpty()) return;
+        // En ON DUPLICATE KEY UPDATE las asignaciones se aplican en orden: primero guardar los prev_*.
+        // new.* es la fila propuesta (alias de fila, MySQL 8.0.19+; VALUES(col) está obsoleto)
+        String sql = "INSERT INTO articles " +
+                "(author_query, article_id, title, authors, publication_date, pub_year, abstract, link, keywords, cited_by) " +
+                "VALUES (?,?,?,?,?,?,?,?,?,?) AS new " +
+                "ON DUPLICATE KEY UPDATE " +
+                "prev_cited_by   = IF(new.cited_by >= 0, articles.cited_by, articles.prev_cited_by), " +
+                "prev_fetched_at = IF(new.cited_by >= 0, articles.last_fetched_at, articles.prev_fetched_at), " +
+                "cited_by        = IF(new.cited_by >= 0, new.cited_by, articles.cited_by), " +
+                "authors         = new.authors, " +
+                "link            = COALESCE(new.link, articles.link), " +
+                "pub_year        = COALESCE(articles.pub_year, new.pub_year), " +
+                "last_fetched_at = CURRENT_TIMESTAMP";
+        long t0 = System.nanoTime();
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
             for (Article a : articles) {
                 ps.setString(1, a.getAuthorQuery());
                 ps.setString(2, a.getArticleId());
                 ps.setString(3, a.getTitle());
                 ps.setString(4, a.getAuthors());
                 ps.setString(5, a.getPublicationDate());
-                ps.setString(6, a.getAbstractText());
-                ps.setString(7, a.getLink());
-                ps.setString(8, a.getKeywords());
-                if (a.getCitedBy() == null) ps.setNull(9, Types.INTEGER);
-                else ps.setInt(9, a.getCitedBy());
+                Integer year = parseYear(a.getPublicationDate());
+                if (year == null) ps.setNull(6, Types.SMALLINT);
+                else ps.setInt(6, year);
+                ps.setString(7, a.getAbstractText());
+                ps.setString(8, a.getLink());
+                ps.setString(9, a.getKeywords());
+                if (a.getCitedBy() == null) ps.setNull(10, Types.INTEGER);
+                else ps.setInt(10, a.getCitedBy());
                 ps.addBatch();
             }
             ps.executeBatch();
         }
+        SAVE_ARTICLES.recordSince(t0);
+        t0 = System.nanoTime();
+        saveKeywords(con, articles);
+        SAVE_KEYWORDS.recordSince(t0);
+    }
+
+    /**
+     * Fills article_keywords for the given (just upserted) articles: resolves their PKs with
+     * one IN lookup on article_id (per-row lookup on author_query + title when there is no id)
+     * and inserts every (id, keyword) pair in a single batch; existing pairs are ignored.
+     */
+    private void saveKeywords(Connection con, List<Article> articles) throws SQLException {
+        Map<String, Long> pkByArticleId = new HashMap<>();
+        List<String> withId = new ArrayList<>();
+        for (Article a : articles) {
+            if (a.getArticleId() != null && !keywordsOf(a.getKeywords()).isEmpty()) withId.add(a.getArticleId());
+        }
+        if (!withId.isEmpty()) {
+            String in = String.join(",", Collections.nCopies(withId.size(), "?"));
+            try (PreparedStatement ps = con.prepareStatement("SELECT id, article_id FROM articles WHERE article_id IN (" + in + ")")) {
+                for (int i = 0; i < withId.size(); i++) ps.setString(i + 1, withId.get(i));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) pkByArticleId.put(rs.getString(2), rs.getLong(1));
+                }
+            }
+        }
+
+        try (PreparedStatement byTitle = con.prepareStatement(
+                     "SELECT id FROM articles WHERE author_query = ? AND title = ?");
+             PreparedStatement ins = con.prepareStatement(
+                     "INSERT IGNORE INTO article_keywords (article_pk, keyword) VALUES (?,?)")) {
+            int pending = 0;
+            for (Article a : articles) {
+                Set<String> kws = keywordsOf(a.getKeywords());
+                if (kws.isEmpty()) continue;
+                Long pk = a.getArticleId() != null ? pkByArticleId.get(a.getArticleId()) : null;
+                if (pk == null) {
+                    byTitle.setString(1, a.getAuthorQuery());
+                    byTitle.setString(2, a.getTitle());
+                    try (ResultSet rs = byTitle.executeQuery()) {
+                        if (rs.next()) pk = rs.getLong(1);
+                    }
+                }
+                if (pk == null) continue;
+                for (String kw : kws) {
+                    ins.setLong(1, pk);
+                    ins.setString(2, kw);
+                    ins.addBatch();
+                    pending++;
+                }
+            }
+            if (pending > 0) ins.executeBatch();
+        }
+    }
+
+    /** "deep, learning, nets" → {deep, learning, nets} (minúsculas, sin el placeholder). */
+    static Set<String> keywordsOf(String csv) {
+        Set<String> out = new LinkedHashSet<>();
+        if (csv == null || csv.isBlank() || csv.equals(KW_PLACEHOLDER)) return out;
+        for (String k : csv.split(",")) {
+            String t = k.trim().toLowerCase(Locale.ROOT);
+            if (t.isEmpty()) continue;
+            out.add(t.length() > MAX_KEYWORD_LENGTH ? t.substring(0, MAX_KEYWORD_LENGTH) : t);
+        }
+        return out;
+    }
+
+    /** "2019" → 2019; placeholder o cualquier otra cosa → null. */
+    static Integer parseYear(String s) {
+        if (s == null || s.length() != 4) return null;
+        for (int i = 0; i < 4; i++) {
+            if (!Character.isDigit(s.charAt(i))) return null;
+        }
+        return Integer.parseInt(s);
     }
 
+    private static final String COLUMNS =
+            "id, author_query, article_id, title, authors, publication_date, abstract, link, keywords, cited_by";
+
+    /** Newest 100 rows (first page of findPage). */
     public List<Article> findAll() throws SQLException {
+        return findPage(null, 100);
+    }
+
+    /**
+     * Keyset pagination, newest first: rows with id &lt; beforeId (null = from the top).
+     * Pass the id of the last row of a page to get the next one; cost does not grow with depth.
+     */
+    public List<Article> findPage(Long beforeId, int limit) throws SQLException {
+        String sql = "SELECT " + COLUMNS + " FROM articles"
+                + (beforeId == null ? "" : " WHERE id < ?")
+                + " ORDER BY id DESC LIMIT ?";
+        List<Article> out = new ArrayList<>(limit);
+        try (Connection con = Db.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+            int i = 1;
+            if (beforeId != null) ps.setLong(i++, beforeId);
+            ps.setInt(i, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) out.add(mapRow(rs));
+            }
+        }
+        return out;
+    }
+
+    /** All article ids, newest first (a long[] is ~8 MB per million rows). */
+    public long[] findIdsNewestFirst() throws SQLException {
+        String sql = "SELECT id FROM articles ORDER BY id DESC";
+        long[] ids = new long[1024];
+        int n = 0;
+        try (Connection con = Db.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (n == ids.length) ids = Arrays.copyOf(ids, n * 2);
+                    ids[n++] = rs.getLong(1);
+                }
+            }
+        }
+        return Arrays.copyOf(ids, n);
+    }
+
+    /**
+     * Streams only the columns behind the unique keys (article_id, author_query, title);
+     * the other Article fields are null. Used to warm the in-memory dedup filter.
+     */
+    public long streamDedupKeys(Consumer<Article> consumer) throws SQLException {
+        String sql = "SELECT id, author_query, article_id, title FROM articles";
+        long n = 0;
+        try (Connection con = Db.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(Integer.MIN_VALUE); // Connector/J: filas en streaming
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(new Article(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                            null, null, null, null, null, null));
+                    n++;
+                }
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Streams the columns used by ArticleSnapshot (no authors/abstract/link); the other
+     * Article fields are null.
+     */
+    public long streamAnalyticsColumns(Consumer<Article> consumer) throws SQLException {
+        String sql = "SELECT id, author_query, article_id, title, publication_date, keywords, cited_by FROM articles";
+        long n = 0;
+        try (Connection con = Db.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(Integer.MIN_VALUE); // Connector/J: filas en streaming
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(new Article(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                            null, rs.getString(5), null, null, rs.getString(6),
+                            rs.getObject(7) == null ? null : rs.getInt(7)));
+                    n++;
+                }
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Streams every row (ascending id) to the consumer using a server-side streaming
+     * result set, so memory stays constant regardless of table size.
+     */
+    public long streamAll(Consumer<Article> consumer) throws SQLException {
+        String sql = "SELECT " + COLUMNS + " FROM articles ORDER BY id";
+        long n = 0;
+        try (Connection con = Db.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(Integer.MIN_VALUE); // Connector/J: filas en streaming
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(mapRow(rs));
+                    n++;
+                }
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Full-text search over title, abstract, authors and keywords (FULLTEXT indexes
+     * ft_articles / ft_title). Ranked by relevance, title matches weigh double.
+     * Filters are optional (null = no filter); page is 0-based.
+     */
+    public List<Article> search(String text, String year, String authorQuery, Integer minCitedBy,
+                                int page, int pageSize) throws SQLException {
+        StringBuilder sql = new StringBuilder("""
+            SELECT id, author_query, article_id, title, authors, publication_date, abstract, link, keywords, cited_by,
+                   2 * MATCH(title) AGAINST (? IN NATURAL LANGUAGE MODE)
+                     + MATCH(title, abstract, authors, keywords) AGAINST (? IN NATURAL LANGUAGE MODE) AS score
+            FROM articles
+            WHERE MATCH(title, abstract, authors, keywords) AGAINST (? IN NATURAL LANGUAGE MODE)
+        """);
+        List<Object> params = new ArrayList<>(List.of(text, text, text));
+        if (year != null)        { sql.append(" AND pub_year = ?");         params.add(parseYear(year)); }
+        if (authorQuery != null) { sql.append(" AND author_query = ?");     params.add(authorQuery); }
+        if (minCitedBy != null)  { sql.append(" AND cited_by >= ?");        params.add(minCitedBy); }
+        sql.append(" ORDER BY score DESC, cited_by DESC LIMIT ? OFFSET ?");
+        params.add(pageSize);
+        params.add(Math.max(0, page) * pageSize);
+
+        List<Article> out = new ArrayList<>();
+        try (Connection con = Db.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql.toString())) {
+            for (int i = 0; i < params.size(); i++) ps.setObject(i + 1, params.get(i));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) out.add(mapRow(rs));
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Author queries worth re-crawling, highest priority first (see RefreshPlanner: staleness
+     * since the author's latest fetch × (1 + citations gained per day per article)). Authors
+     * fetched less than minStaleHours ago are skipped. Ages are computed by MySQL (NOW()), so
+     * the JVM clock does not matter.
+     */
+    public List<RefreshCandidate> findRefreshCandidates(int minStaleHours, int limit) throws SQLException {
         String sql = """
-            SELECT author_query, article_id, title, authors, publication_date, abstract, link, keywords, cited_by
+            SELECT author_query,
+                   TIMESTAMPDIFF(SECOND, COALESCE(last_fetched_at, created_at), NOW()) AS age_s,
+                   TIMESTAMPDIFF(SECOND, prev_fetched_at, last_fetched_at) AS gap_s,
+                   cited_by, prev_cited_by
             FROM articles
-            ORDER BY id DESC
-            LIMIT 100
         """;
+        RefreshPlanner planner = new RefreshPlanner();
+        try (Connection con = Db.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setFetchSize(Integer.MIN_VALUE); // Connector/J: filas en streaming
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    long gap = rs.getLong("gap_s");
+                    Long gapOrNull = rs.wasNull() ? null : gap;
+                    int prev = rs.getInt("prev_cited_by");
+                    Integer prevOrNull = rs.wasNull() ? null : prev;
+                    planner.add(rs.getString("author_query"), rs.getLong("age_s"), gapOrNull,
+                            rs.getInt("cited_by"), prevOrNull);
+                }
+            }
+        }
+        return planner.plan(minStaleHours, limit);
+    }
+
+    /**
+     * Articles published in [yearFrom, yearTo], most cited first. The id list comes from the
+     * covering index idx_year_cited (pub_year, cited_by); only the final rows are read from
+     * the table (deferred join).
+     */
+    public List<Article> findByYearRange(int yearFrom, int yearTo, int limit) throws SQLException {
+        String sql = "SELECT " + prefixed("a") + " FROM articles a JOIN ("
+                + " SELECT id FROM articles WHERE pub_year BETWEEN ? AND ? ORDER BY cited_by DESC LIMIT ?"
+                + ") t ON t.id = a.id ORDER BY a.cited_by DESC";
+        return query(sql, yearFrom, yearTo, limit);
+    }
+
+    /** Articles tagged with keyword (case-insensitive), most cited first; seek on article_keywords' PK. */
+    public List<Article> findByKeyword(String keyword, int limit) throws SQLException {
+        String sql = "SELECT " + prefixed("a") + " FROM article_keywords k JOIN articles a ON a.id = k.article_pk"
+                + " WHERE k.keyword = ? ORDER BY a.cited_by DESC LIMIT ?";
+        return query(sql, keyword.trim().toLowerCase(Locale.ROOT), limit);
+    }
+
+    /**
+     * Most cited articles, optionally for one author_query and/or a year range (null = no
+     * filter). Served by idx_author_year_cited / idx_year_cited / idx_cited, then a deferred join.
+     */
+    public List<Article> findTopCited(String authorQuery, Integer yearFrom, Integer yearTo, int limit) throws SQLException {
+        StringBuilder where = new StringBuilder(" WHERE cited_by >= 0");
+        List<Object> params = new ArrayList<>();
+        if (authorQuery != null) { where.append(" AND author_query = ?"); params.add(authorQuery); }
+        if (yearFrom != null)    { where.append(" AND pub_year >= ?");    params.add(yearFrom); }
+        if (yearTo != null)      { where.append(" AND pub_year <= ?");    params.add(yearTo); }
+        params.add(limit);
+        String sql = "SELECT " + prefixed("a") + " FROM articles a JOIN ("
+                + " SELECT id FROM articles" + where + " ORDER BY cited_by DESC LIMIT ?"
+                + ") t ON t.id = a.id ORDER BY a.cited_by DESC";
+        return query(sql, params.toArray());
+    }
+
+    private static String prefixed(String alias) {
+        return alias + "." + COLUMNS.replace(", ", ", " + alias + ".");
+    }
+
+    private List<Article> query(String sql, Object... params) throws SQLException {
         List<Article> out = new ArrayList<>();
         try (Connection con = Db.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-            while (rs.next()) {
-                out.add(new Article(
-                        rs.getString("author_query"),
-                        rs.getString("article_id"),
-                        rs.getString("title"),
-                        rs.getString("authors"),
-                        rs.getString("publication_date"),
-                        rs.getString("abstract"),
-                        rs.getString("link"),
-                        rs.getString("keywords"),
-                        rs.getObject("cited_by") == null ? null : rs.getInt("cited_by")
-                ));
+             PreparedStatement ps = con.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) ps.setObject(i + 1, params[i]);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) out.add(mapRow(rs));
             }
         }
         return out;
     }
+
+    private static Article mapRow(ResultSet rs) throws SQLException {
+        return new Article(
+                rs.getLong("id"),
+                rs.getString("author_query"),
+                rs.getString("article_id"),
+                rs.getString("title"),
+                rs.getString("authors"),
+                rs.getString("publication_date"),
+                rs.getString("abstract"),
+                rs.getString("link"),
+                rs.getString("keywords"),
+                rs.getObject("cited_by") == null ? null : rs.getInt("cited_by")
+        );
+    }
+
+    /** Recorre (article_id, authors) de toda la tabla en streaming (grafo de coautores). */
+    public void forEachArticleIdAndAuthors(BiConsumer<String, String> consumer) throws SQLException {
+        String sql = "SELECT article_id, authors FROM articles";
+        try (Connection con = Db.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(Integer.MIN_VALUE); // Connector/J: filas en streaming
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) consumer.accept(rs.getString(1), rs.getString(2));
+            }
+        }
+    }
+
+    /** Recorre (title, abstract) de toda la tabla en streaming, sin cargarla en memoria. */
+    public void forEachTitleAndAbstract(BiConsumer<String, String> consumer) throws SQLException {
+        String sql = "SELECT title, abstract FROM articles";
+        try (Connection con = Db.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(Integer.MIN_VALUE); // Connector/J: filas en streaming
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) consumer.accept(rs.getString(1), rs.getString(2));
+            }
+        }
+    }
 }
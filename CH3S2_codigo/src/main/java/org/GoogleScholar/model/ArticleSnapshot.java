@@ -0,0 +1,516 @@
+package org.GoogleScholar.model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
+/**
+ * Read-only columnar copy of the articles table for aggregate queries. Strings that repeat
+ * (author_query, keywords) are dictionary-encoded to int codes, year and cited_by are int
+ * columns, and missing/placeholder values are flagged in BitSets instead of boxed nulls.
+ * Queries scan row ranges in parallel on the common fork-join pool and merge partial results.
+ */
+public class ArticleSnapshot {
+
+    /** Filas por tarea hoja del fork-join. */
+    private static final int LEAF_ROWS = 32_768;
+    /** Máximo de grupos para agregar con arrays densos (por hilo del pool: 2 × 8 bytes por grupo). */
+    private static final int DENSE_LIMIT = 1 << 21;
+
+    private final int rows;
+    private final long[] ids;
+    private final String[] titles;
+    private final int[] authorCodes;
+    private final String[] authorDict;
+    private final int[] years;        // 0 si falta (ver yearMissing)
+    private final int[] citedBy;      // 0 si falta (ver citedMissing)
+    private final int[] kwOffsets;    // keywords de la fila r: kwCodes[kwOffsets[r] .. kwOffsets[r+1])
+    private final int[] kwCodes;
+    private final String[] keywordDict;
+    private final BitSet yearMissing;
+    private final BitSet citedMissing;
+    private final BitSet keywordsMissing;
+    private final BitSet idMissing;
+    private final int minYear;
+    private final int maxYear;
+    private final Map<String, Integer> authorIndex;
+
+    private ArticleSnapshot(Builder b) {
+        this.rows = b.rows;
+        this.ids = Arrays.copyOf(b.ids, rows);
+        this.titles = Arrays.copyOf(b.titles, rows);
+        this.authorCodes = Arrays.copyOf(b.authorCodes, rows);
+        this.authorDict = b.authorDict.toArray(new String[0]);
+        this.years = Arrays.copyOf(b.years, rows);
+        this.citedBy = Arrays.copyOf(b.citedBy, rows);
+        this.kwOffsets = Arrays.copyOf(b.kwOffsets, rows + 1);
+        this.kwCodes = Arrays.copyOf(b.kwCodes, b.kwCount);
+        this.keywordDict = b.keywordDict.toArray(new String[0]);
+        this.yearMissing = b.yearMissing;
+        this.citedMissing = b.citedMissing;
+        this.keywordsMissing = b.keywordsMissing;
+        this.idMissing = b.idMissing;
+        this.authorIndex = b.authorIndex;
+        int lo = 0, hi = 0;
+        for (int r = 0; r < rows; r++) {
+            int y = years[r];
+            if (y == 0) continue;
+            if (lo == 0 || y < lo) lo = y;
+            if (y > hi) hi = y;
+        }
+        this.minYear = lo;
+        this.maxYear = hi;
+    }
+
+    /** Loads the analytic columns of every row in one streaming pass. */
+    public static ArticleSnapshot load(ArticleStore store) throws IOException {
+        Builder b = new Builder();
+        store.streamAnalyticsColumns(b::add);
+        return b.build();
+    }
+
+    // --------------------- construcción ---------------------
+
+    /** Appends rows one by one; dictionaries grow as new strings appear. */
+    public static class Builder {
+        private int rows;
+        private long[] ids = new long[1024];
+        private String[] titles = new String[1024];
+        private int[] authorCodes = new int[1024];
+        private int[] years = new int[1024];
+        private int[] citedBy = new int[1024];
+        private int[] kwOffsets = new int[1025];
+        private int[] kwCodes = new int[3072];
+        private int kwCount;
+        private final Map<String, Integer> authorIndex = new HashMap<>();
+        private final List<String> authorDict = new ArrayList<>();
+        private final Map<String, Integer> keywordIndex = new HashMap<>();
+        private final List<String> keywordDict = new ArrayList<>();
+        private final BitSet yearMissing = new BitSet();
+        private final BitSet citedMissing = new BitSet();
+        private final BitSet keywordsMissing = new BitSet();
+        private final BitSet idMissing = new BitSet();
+
+        public void add(Article a) {
+            if (rows == ids.length) grow();
+            int r = rows++;
+            ids[r] = a.getId() == null ? 0 : a.getId();
+            titles[r] = a.getTitle();
+            authorCodes[r] = code(authorIndex, authorDict, a.getAuthorQuery() == null ? "" : a.getAuthorQuery());
+
+            int y = parseYear(a.getPublicationDate());
+            if (y == 0) yearMissing.set(r);
+            years[r] = y;
+
+            Integer c = a.getCitedBy();
+            if (c == null || c < 0) citedMissing.set(r);
+            citedBy[r] = (c == null || c < 0) ? 0 : c;
+
+            if (a.getArticleId() == null) idMissing.set(r);
+
+            String kw = a.getKeywords();
+            if (kw == null || kw.isBlank() || kw.equals(ArticleRepository.KW_PLACEHOLDER)) {
+                keywordsMissing.set(r);
+            } else {
+                for (String k : kw.split(",")) {
+                    String t = k.trim();
+                    if (t.isEmpty()) continue;
+                    if (kwCount == kwCodes.length) kwCodes = Arrays.copyOf(kwCodes, kwCount * 2);
+                    kwCodes[kwCount++] = code(keywordIndex, keywordDict, t);
+                }
+            }
+            kwOffsets[r + 1] = kwCount;
+        }
+
+        private void grow() {
+            int n = ids.length * 2;
+            ids = Arrays.copyOf(ids, n);
+            titles = Arrays.copyOf(titles, n);
+            authorCodes = Arrays.copyOf(authorCodes, n);
+            years = Arrays.copyOf(years, n);
+            citedBy = Arrays.copyOf(citedBy, n);
+            kwOffsets = Arrays.copyOf(kwOffsets, n + 1);
+        }
+
+        private static int code(Map<String, Integer> index, List<String> dict, String s) {
+            Integer c = index.get(s);
+            if (c != null) return c;
+            int next = dict.size();
+            index.put(s, next);
+            dict.add(s);
+            return next;
+        }
+
+        /** "2019" → 2019; placeholder u otra cosa → 0. */
+        private static int parseYear(String s) {
+            if (s == null || s.length() != 4) return 0;
+            int y = 0;
+            for (int i = 0; i < 4; i++) {
+                char ch = s.charAt(i);
+                if (ch < '0' || ch > '9') return 0;
+                y = y * 10 + (ch - '0');
+            }
+            return y;
+        }
+
+        public ArticleSnapshot build() {
+            return new ArticleSnapshot(this);
+        }
+    }
+
+    // --------------------- motor paralelo ---------------------
+
+    @FunctionalInterface
+    private interface RangeScan<R> {
+        R scan(int from, int to);
+    }
+
+    /** Divide [from, to) hasta LEAF_ROWS filas, escanea cada hoja y combina de abajo arriba. */
+    @SuppressWarnings("serial") // ForkJoinTask es Serializable, pero esta lleva lambdas y nunca sale del pool
+    private static final class ScanTask<R> extends RecursiveTask<R> {
+        private final int from, to;
+        private final RangeScan<R> leaf;
+        private final BinaryOperator<R> merge;
+
+        ScanTask(int from, int to, RangeScan<R> leaf, BinaryOperator<R> merge) {
+            this.from = from;
+            this.to = to;
+            this.leaf = leaf;
+            this.merge = merge;
+        }
+
+        @Override
+        protected R compute() {
+            if (to - from <= LEAF_ROWS) return leaf.scan(from, to);
+            int mid = (from + to) >>> 1;
+            ScanTask<R> left = new ScanTask<>(from, mid, leaf, merge);
+            left.fork();
+            R right = new ScanTask<>(mid, to, leaf, merge).compute();
+            return merge.apply(left.join(), right);
+        }
+    }
+
+    private <R> R parallelScan(RangeScan<R> leaf, BinaryOperator<R> merge) {
+        return ForkJoinPool.commonPool().invoke(new ScanTask<>(0, rows, leaf, merge));
+    }
+
+    @FunctionalInterface
+    private interface DenseScan {
+        void scan(DenseAccumulator acc, int from, int to);
+    }
+
+    /**
+     * Like parallelScan, but with one DenseAccumulator per worker thread instead of one per leaf:
+     * memory and merge cost are O(threads × cardinality), not O(leaves × cardinality).
+     * A leaf runs start to end on one thread, so each accumulator has a single writer.
+     */
+    private DenseAccumulator denseScan(int cardinality, DenseScan leaf) {
+        Map<Thread, DenseAccumulator> perWorker = new ConcurrentHashMap<>();
+        parallelScan((from, to) -> {
+            leaf.scan(perWorker.computeIfAbsent(Thread.currentThread(), t -> new DenseAccumulator(cardinality)), from, to);
+            return null;
+        }, (a, b) -> null);
+        DenseAccumulator out = null;
+        for (DenseAccumulator acc : perWorker.values()) out = out == null ? acc : out.mergeFrom(acc);
+        return out != null ? out : new DenseAccumulator(cardinality);
+    }
+
+    /** Count + sum per dictionary code in plain arrays (cardinality is the dictionary size). */
+    static final class DenseAccumulator {
+        final long[] counts;
+        final long[] sums;
+
+        DenseAccumulator(int cardinality) {
+            counts = new long[cardinality];
+            sums = new long[cardinality];
+        }
+
+        DenseAccumulator mergeFrom(DenseAccumulator other) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+                sums[i] += other.sums[i];
+            }
+            return this;
+        }
+
+        void forEach(GroupAccumulator.Visitor v) {
+            for (int i = 0; i < counts.length; i++) if (counts[i] != 0) v.visit(i, counts[i], sums[i]);
+        }
+    }
+
+    /**
+     * Count + sum per long key with open addressing (no boxing per row); one per fork-join
+     * leaf, merged pairwise.
+     */
+    static final class GroupAccumulator {
+        private long[] keys = new long[64];
+        private long[] counts = new long[64];
+        private long[] sums = new long[64];
+        private boolean[] used = new boolean[64];
+        private int size;
+
+        void add(long key, long count, long sum) {
+            if (size * 2 >= keys.length) rehash();
+            int mask = keys.length - 1;
+            int i = (int) mix(key) & mask;
+            while (used[i] && keys[i] != key) i = (i + 1) & mask;
+            if (!used[i]) {
+                used[i] = true;
+                keys[i] = key;
+                size++;
+            }
+            counts[i] += count;
+            sums[i] += sum;
+        }
+
+        GroupAccumulator mergeFrom(GroupAccumulator other) {
+            GroupAccumulator big = size >= other.size ? this : other, small = big == this ? other : this;
+            for (int i = 0; i < small.keys.length; i++) {
+                if (small.used[i]) big.add(small.keys[i], small.counts[i], small.sums[i]);
+            }
+            return big;
+        }
+
+        private void rehash() {
+            long[] k = keys, c = counts, s = sums;
+            boolean[] u = used;
+            int n = k.length * 2;
+            keys = new long[n];
+            counts = new long[n];
+            sums = new long[n];
+            used = new boolean[n];
+            size = 0;
+            for (int i = 0; i < k.length; i++) if (u[i]) add(k[i], c[i], s[i]);
+        }
+
+        private static long mix(long x) {
+            x ^= x >>> 33;
+            x *= 0xff51afd7ed558ccdL;
+            x ^= x >>> 33;
+            return x;
+        }
+
+        interface Visitor { void visit(long key, long count, long sum); }
+
+        void forEach(Visitor v) {
+            for (int i = 0; i < keys.length; i++) if (used[i]) v.visit(keys[i], counts[i], sums[i]);
+        }
+    }
+
+    // --------------------- consultas ---------------------
+
+    private int authorCode(String authorQuery) {
+        Integer c = authorIndex.get(authorQuery);
+        return c == null ? -1 : c;
+    }
+
+    private int[] authorRank; // posición alfabética de cada código de author_query
+
+    private synchronized int[] authorRank() {
+        if (authorRank == null) {
+            Integer[] order = new Integer[authorDict.length];
+            for (int i = 0; i < order.length; i++) order[i] = i;
+            Arrays.sort(order, Comparator.comparing(i -> authorDict[i]));
+            int[] rank = new int[order.length];
+            for (int pos = 0; pos < order.length; pos++) rank[order[pos]] = pos;
+            authorRank = rank;
+        }
+        return authorRank;
+    }
+
+    public int size() { return rows; }
+    public int distinctAuthorQueries() { return authorDict.length; }
+    public int distinctKeywords() { return keywordDict.length; }
+    public int missingYears()     { return yearMissing.cardinality(); }
+    public int missingCitations() { return citedMissing.cardinality(); }
+    public int missingKeywords()  { return keywordsMissing.cardinality(); }
+    public int missingIds()       { return idMissing.cardinality(); }
+
+    private boolean inYears(int r, int yearFrom, int yearTo) {
+        if (yearFrom == 0 && yearTo == 0) return true;
+        if (yearMissing.get(r)) return false;
+        return (yearFrom == 0 || years[r] >= yearFrom) && (yearTo == 0 || years[r] <= yearTo);
+    }
+
+    /** Artículos y citas por (author_query, año), ordenado por autor y año. Filas sin año van al año 0. */
+    public List<AggregateRow> citationsByAuthorAndYear() {
+        // Slot = autor × año (slot 0 = sin año): arrays densos si caben, si no tabla hash
+        int span = maxYear == 0 ? 1 : maxYear - minYear + 2;
+        long cardinality = (long) authorDict.length * span;
+        int[] rank = authorRank();
+        List<AggregateRow> out = new ArrayList<>();
+        if (dense(cardinality, rows)) {
+            DenseAccumulator acc = denseScan((int) cardinality, (g, from, to) -> {
+                for (int r = from; r < to; r++) {
+                    int slot = authorCodes[r] * span + (years[r] == 0 ? 0 : years[r] - minYear + 1);
+                    g.counts[slot]++;
+                    g.sums[slot] += citedBy[r];
+                }
+            });
+            int[] byRank = new int[rank.length];
+            for (int c = 0; c < rank.length; c++) byRank[rank[c]] = c;
+            for (int code : byRank) {
+                for (int y = 0; y < span; y++) {
+                    int slot = code * span + y;
+                    if (acc.counts[slot] == 0) continue;
+                    out.add(new AggregateRow(authorDict[code], y == 0 ? 0 : minYear + y - 1,
+                            acc.counts[slot], acc.sums[slot]));
+                }
+            }
+            return out;
+        }
+        GroupAccumulator acc = parallelScan((from, to) -> {
+            GroupAccumulator g = new GroupAccumulator();
+            for (int r = from; r < to; r++) g.add(((long) authorCodes[r] << 16) | years[r], 1, citedBy[r]);
+            return g;
+        }, GroupAccumulator::mergeFrom);
+        acc.forEach((key, count, sum) ->
+                out.add(new AggregateRow(authorDict[(int) (key >>> 16)], (int) (key & 0xFFFF), count, sum)));
+        out.sort(Comparator.comparingInt((AggregateRow row) -> rank[authorCode(row.getLabel())])
+                .thenComparingInt(AggregateRow::getYear));
+        return out;
+    }
+
+    /** Artículos y citas por año de un solo author_query (año 0 = sin año); vacío si no existe. */
+    public List<AggregateRow> citationsByYear(String authorQuery) {
+        int code = authorCode(authorQuery);
+        if (code < 0) return List.of();
+        int span = maxYear == 0 ? 1 : maxYear - minYear + 2;
+        DenseAccumulator acc = denseScan(span, (g, from, to) -> {
+            for (int r = from; r < to; r++) {
+                if (authorCodes[r] != code) continue;
+                int slot = years[r] == 0 ? 0 : years[r] - minYear + 1;
+                g.counts[slot]++;
+                g.sums[slot] += citedBy[r];
+            }
+        });
+        List<AggregateRow> out = new ArrayList<>();
+        for (int y = 0; y < span; y++) {
+            if (acc.counts[y] == 0) continue;
+            out.add(new AggregateRow(authorQuery, y == 0 ? 0 : minYear + y - 1, acc.counts[y], acc.sums[y]));
+        }
+        return out;
+    }
+
+    /**
+     * Arrays densos (uno por hilo del pool) solo si caben y no hay más grupos que entradas a
+     * agregar; si no, casi todos los slots quedarían vacíos y sale más barata la tabla hash.
+     */
+    private static boolean dense(long cardinality, long entries) {
+        return cardinality <= DENSE_LIMIT && cardinality <= entries;
+    }
+
+    /** Los k author_query con más citas en [yearFrom, yearTo] (0 = sin límite). */
+    public List<AggregateRow> topAuthorQueries(int k, int yearFrom, int yearTo) {
+        if (dense(authorDict.length, rows)) {
+            DenseAccumulator acc = denseScan(authorDict.length, (g, from, to) -> {
+                for (int r = from; r < to; r++) {
+                    if (!inYears(r, yearFrom, yearTo)) continue;
+                    g.counts[authorCodes[r]]++;
+                    g.sums[authorCodes[r]] += citedBy[r];
+                }
+            });
+            return topK(acc::forEach, k, authorDict);
+        }
+        GroupAccumulator acc = parallelScan((from, to) -> {
+            GroupAccumulator g = new GroupAccumulator();
+            for (int r = from; r < to; r++) {
+                if (inYears(r, yearFrom, yearTo)) g.add(authorCodes[r], 1, citedBy[r]);
+            }
+            return g;
+        }, GroupAccumulator::mergeFrom);
+        return topK(acc::forEach, k, authorDict);
+    }
+
+    /** Las k keywords cuyos artículos suman más citas en [yearFrom, yearTo]. */
+    public List<AggregateRow> topKeywords(int k, int yearFrom, int yearTo) {
+        if (dense(keywordDict.length, kwCodes.length)) {
+            DenseAccumulator acc = denseScan(keywordDict.length, (g, from, to) -> {
+                for (int r = from; r < to; r++) {
+                    if (!inYears(r, yearFrom, yearTo)) continue;
+                    for (int i = kwOffsets[r]; i < kwOffsets[r + 1]; i++) {
+                        g.counts[kwCodes[i]]++;
+                        g.sums[kwCodes[i]] += citedBy[r];
+                    }
+                }
+            });
+            return topK(acc::forEach, k, keywordDict);
+        }
+        GroupAccumulator acc = parallelScan((from, to) -> {
+            GroupAccumulator g = new GroupAccumulator();
+            for (int r = from; r < to; r++) {
+                if (!inYears(r, yearFrom, yearTo)) continue;
+                for (int i = kwOffsets[r]; i < kwOffsets[r + 1]; i++) g.add(kwCodes[i], 1, citedBy[r]);
+            }
+            return g;
+        }, GroupAccumulator::mergeFrom);
+        return topK(acc::forEach, k, keywordDict);
+    }
+
+    /** Recorre los grupos no vacíos de un acumulador (clave = código de diccionario). */
+    @FunctionalInterface
+    private interface Groups {
+        void forEach(GroupAccumulator.Visitor v);
+    }
+
+    private static List<AggregateRow> topK(Groups groups, int k, String[] dict) {
+        PriorityQueue<AggregateRow> heap = new PriorityQueue<>(Comparator.comparingLong(AggregateRow::getCitations));
+        groups.forEach((code, count, sum) -> {
+            if (heap.size() < k) heap.add(new AggregateRow(dict[(int) code], 0, count, sum));
+            else if (k > 0 && sum > heap.peek().getCitations()) {
+                heap.poll();
+                heap.add(new AggregateRow(dict[(int) code], 0, count, sum));
+            }
+        });
+        List<AggregateRow> out = new ArrayList<>(heap);
+        out.sort(Comparator.comparingLong(AggregateRow::getCitations).reversed());
+        return out;
+    }
+
+    /**
+     * The k most cited articles in [yearFrom, yearTo] (0 = open), optionally for one author
+     * query (null = all). Each leaf keeps a k-sized min-heap of row numbers; heaps are merged.
+     */
+    public List<Article> topCited(int k, String authorQuery, int yearFrom, int yearTo) {
+        int authorCode = -1;
+        if (authorQuery != null) {
+            authorCode = authorCode(authorQuery);
+            if (authorCode < 0) return List.of();
+        }
+        final int ac = authorCode;
+        Comparator<Integer> byCites = Comparator.comparingInt(r -> citedBy[r]);
+        PriorityQueue<Integer> heap = parallelScan((from, to) -> {
+            PriorityQueue<Integer> h = new PriorityQueue<>(byCites);
+            for (int r = from; r < to; r++) {
+                if (citedMissing.get(r) || (ac >= 0 && authorCodes[r] != ac) || !inYears(r, yearFrom, yearTo)) continue;
+                if (h.size() < k) h.add(r);
+                else if (k > 0 && citedBy[r] > citedBy[h.peek()]) { h.poll(); h.add(r); }
+            }
+            return h;
+        }, (a, b) -> {
+            for (int r : b) {
+                if (a.size() < k) a.add(r);
+                else if (k > 0 && citedBy[r] > citedBy[a.peek()]) { a.poll(); a.add(r); }
+            }
+            return a;
+        });
+        List<Integer> rowsDesc = new ArrayList<>(heap);
+        rowsDesc.sort(byCites.reversed());
+        List<Article> out = new ArrayList<>(rowsDesc.size());
+        for (int r : rowsDesc) {
+            out.add(new Article(ids[r], authorDict[authorCodes[r]], null, titles[r], null,
+                    yearMissing.get(r) ? null : String.valueOf(years[r]), null, null, null, citedBy[r]));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,72 @@
+package org.GoogleScholar.model;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Storage used by ingestion, the table browser, exports and the indexed queries. Two
+ * backends: MySQL ({@link MySqlArticleStore}) and an embedded log-structured file store
+ * ({@link LogArticleStore}) for runs without a database server.
+ * Saves are upserts with the same semantics in both (see ArticleRepository#saveAll).
+ */
+public interface ArticleStore extends AutoCloseable {
+
+    /** Upserts the articles and appends the issues as one atomic unit. */
+    void save(List<Article> articles, List<Issue> issues) throws IOException;
+
+    /** Upserts enriched authors, one per (name, article title); newer profile data wins. */
+    void saveAuthors(List<Author> authors) throws IOException;
+
+    /** Keyset page, newest first: rows with id &lt; beforeId (null = from the top). */
+    List<Article> findPage(Long beforeId, int limit) throws IOException;
+
+    long[] findIdsNewestFirst() throws IOException;
+
+    /** Every row, ascending id, with constant memory. */
+    long streamAll(Consumer<Article> consumer) throws IOException;
+
+    /** Rows with at least id, author_query, article_id and title (used by the dedup filter). */
+    long streamDedupKeys(Consumer<Article> consumer) throws IOException;
+
+    /** Rows with the columns ArticleSnapshot needs. */
+    long streamAnalyticsColumns(Consumer<Article> consumer) throws IOException;
+
+    void forEachTitleAndAbstract(BiConsumer<String, String> consumer) throws IOException;
+
+    List<Article> findByYearRange(int yearFrom, int yearTo, int limit) throws IOException;
+
+    List<Article> findByKeyword(String keyword, int limit) throws IOException;
+
+    List<Article> findTopCited(String authorQuery, Integer yearFrom, Integer yearTo, int limit) throws IOException;
+
+    /**
+     * Number of article saves committed through this instance; in-process caches compare it
+     * to notice writes (writes by other processes to a shared MySQL are not counted).
+     */
+    long getWriteVersion();
+
+    /** Una línea para la consola: backend y dónde está. */
+    String describe();
+
+    @Override
+    void close() throws IOException;
+
+    /**
+     * STORE=mysql|file. Without STORE, MySQL is used when DB_URL is set and the file store
+     * otherwise (directory STORE_DIR, default ~/.scholar-store).
+     */
+    static ArticleStore fromEnv() throws IOException {
+        String kind = System.getenv("STORE");
+        boolean mysql = kind == null || kind.isBlank() ? Db.isConfigured() : "mysql".equalsIgnoreCase(kind.trim());
+        if (mysql) return new MySqlArticleStore(new ArticleRepository(), new IssueRepository());
+        String dir = System.getenv("STORE_DIR");
+        Path base = (dir == null || dir.isBlank())
+                ? Paths.get(System.getProperty("user.home"), ".scholar-store")
+                : Paths.get(dir);
+        return LogArticleStore.open(base);
+    }
+}
@@ -3,6 +3,7 @@ package org.GoogleScholar.model;
 
 /**
  * Plain Model object representing what we store in MySQL:
+ * - id (table PK, null until stored)
  * - name (always)
  * - authorId (Scholar's "user" id) if available
  * - citations (total) if available
@@ -10,6 +11,7 @@ package org.GoogleScholar.model;
  * - profileUrl (direct link to the Scholar profile if we resolved authorId)
  */
 public class Author {
+    private final Long id;
     private final String name;
     private final String authorId;
     private final Integer citations;
@@ -17,6 +19,11 @@ public class Author {
     private final String profileUrl;
 
     public Author(String name, String authorId, Integer citations, String articleTitle, String profileUrl) {
+        this(null, name, authorId, citations, articleTitle, profileUrl);
+    }
+
+    public Author(Long id, String name, String authorId, Integer citations, String articleTitle, String profileUrl) {
+        this.id = id;
         this.name = name;
         this.authorId = authorId;
         this.citations = citations;
@@ -24,6 +31,7 @@ public class Author {
         this.profileUrl = profileUrl;
     }
 
+    public Long getId() { return id; }
     public String getName() { return name; }
     public String getAuthorId() { return authorId; }
     public Integer getCitations() { return citations; }
@@ -1,21 +1,35 @@
 // src/main/java/org/GoogleScholar/model/AuthorRepository.java
 package org.GoogleScholar.model;
 
+import org.GoogleScholar.metrics.LatencyHistogram;
+import org.GoogleScholar.metrics.Metrics;
+
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Repository: isolates SQL details.
- * - saveAll(): batch insert with INSERT IGNORE (unique index prevents duplicates).
+ * - saveAll(): batch upsert on uk_author_article (name + article title); a new profile
+ *   (author_id, citations, profile_url) replaces the stored one, nulls never overwrite.
  * - findAll(): read up to 500 recent rows for the Swing table.
+ * - findPage()/streamAll(): keyset pages and constant-memory streaming for big tables.
  */
 public class AuthorRepository {
 
+    private static final LatencyHistogram SAVE_AUTHORS = Metrics.stage("db.authors.saveAll");
+
     public void saveAll(List<Author> authors) throws SQLException {
-        String sql = "INSERT IGNORE INTO authors " +
+        if (authors.isEmpty()) return;
+        String sql = "INSERT INTO authors " +
                 "(author_name, author_id, citations, article_title, profile_url) " +
-                "VALUES (?,?,?,?,?)";
+                "VALUES (?,?,?,?,?) AS new " +
+                "ON DUPLICATE KEY UPDATE " +
+                "author_id = COALESCE(new.author_id, authors.author_id), " +
+                "citations = COALESCE(new.citations, authors.citations), " +
+                "profile_url = COALESCE(new.profile_url, authors.profile_url)";
+        long t0 = System.nanoTime();
         try (Connection con = Db.getConnection();
              PreparedStatement ps = con.prepareStatement(sql)) {
 
@@ -30,31 +44,59 @@ public class AuthorRepository {
             }
             ps.executeBatch(); // single roundtrip to DB
         }
+        SAVE_AUTHORS.recordSince(t0);
     }
 
+    private static final String COLUMNS = "id, author_name, author_id, citations, article_title, profile_url";
+
     /** Pull a small snapshot to display in the Swing table (sorted by newest id). */
     public List<Author> findAll() throws SQLException {
-        String sql = """
-            SELECT author_name, author_id, citations, article_title, profile_url
-            FROM authors
-            ORDER BY id DESC
-            LIMIT 500
-        """;
-        List<Author> list = new ArrayList<>();
+        return findPage(null, 500);
+    }
+
+    /** Keyset page, newest first: rows with id < beforeId (null = from the top). */
+    public List<Author> findPage(Long beforeId, int limit) throws SQLException {
+        String sql = "SELECT " + COLUMNS + " FROM authors"
+                + (beforeId == null ? "" : " WHERE id < ?")
+                + " ORDER BY id DESC LIMIT ?";
+        List<Author> list = new ArrayList<>(limit);
         try (Connection con = Db.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-
-            while (rs.next()) {
-                list.add(new Author(
-                        rs.getString("author_name"),
-                        rs.getString("author_id"),
-                        rs.getObject("citations") == null ? null : rs.getInt("citations"),
-                        rs.getString("article_title"),
-                        rs.getString("profile_url")
-                ));
+             PreparedStatement ps = con.prepareStatement(sql)) {
+            int i = 1;
+            if (beforeId != null) ps.setLong(i++, beforeId);
+            ps.setInt(i, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) list.add(mapRow(rs));
             }
         }
         return list;
     }
+
+    /** Streams every row (ascending id) without holding the result set in memory. */
+    public long streamAll(Consumer<Author> consumer) throws SQLException {
+        String sql = "SELECT " + COLUMNS + " FROM authors ORDER BY id";
+        long n = 0;
+        try (Connection con = Db.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(Integer.MIN_VALUE); // Connector/J: filas en streaming
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(mapRow(rs));
+                    n++;
+                }
+            }
+        }
+        return n;
+    }
+
+    private static Author mapRow(ResultSet rs) throws SQLException {
+        return new Author(
+                rs.getLong("id"),
+                rs.getString("author_name"),
+                rs.getString("author_id"),
+                rs.getObject("citations") == null ? null : rs.getInt("citations"),
+                rs.getString("article_title"),
+                rs.getString("profile_url")
+        );
+    }
 }
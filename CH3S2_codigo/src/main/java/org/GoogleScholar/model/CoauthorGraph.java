@@ -0,0 +1,336 @@
+package org.GoogleScholar.model;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable co-authorship graph in CSR form: author names are interned to dense int ids and
+ * each author's neighbours live in one slice of int arrays (targets/weights, weight = papers
+ * shared), sorted by weight descending. No per-edge objects, so millions of edges fit in a
+ * few tens of MB and queries only touch primitive arrays.
+ */
+public class CoauthorGraph {
+
+    /** Un colaborador y cuántos artículos comparte con el autor consultado. */
+    public static final class Collaborator {
+        private final String name;
+        private final int sharedPapers;
+        Collaborator(String name, int sharedPapers) {
+            this.name = name;
+            this.sharedPapers = sharedPapers;
+        }
+        public String getName()      { return name; }
+        public int getSharedPapers() { return sharedPapers; }
+    }
+
+    /** Recorrido de aristas (a &lt; b) para persistirlas. */
+    @FunctionalInterface
+    public interface EdgeConsumer {
+        void accept(int a, int b, int sharedPapers);
+    }
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private final String[] names;
+    private final int[] papers;
+    private final Map<String, Integer> index;
+    private final int[] offsets; // vecinos de u: [offsets[u], offsets[u+1])
+    private final int[] targets;
+    private final int[] weights;
+
+    private int[] component;      // calculado al primer uso
+    private int[] componentSizes;
+
+    private CoauthorGraph(String[] names, int[] papers, Map<String, Integer> index,
+                          int[] src, int[] dst, int[] w, int edges) {
+        int n = names.length;
+        this.names = names;
+        this.papers = papers;
+        this.index = index;
+
+        // CSR: cada arista no dirigida aparece en las dos filas
+        int[] degree = new int[n + 1];
+        for (int e = 0; e < edges; e++) {
+            degree[src[e]]++;
+            degree[dst[e]]++;
+        }
+        offsets = new int[n + 1];
+        for (int u = 0; u < n; u++) offsets[u + 1] = offsets[u] + degree[u];
+        targets = new int[offsets[n]];
+        weights = new int[offsets[n]];
+        int[] fill = Arrays.copyOf(offsets, n);
+        for (int e = 0; e < edges; e++) {
+            int a = src[e], b = dst[e];
+            targets[fill[a]] = b; weights[fill[a]++] = w[e];
+            targets[fill[b]] = a; weights[fill[b]++] = w[e];
+        }
+        sortRowsByWeight();
+    }
+
+    /** Ordena cada fila por peso descendente (top-k = las primeras k posiciones). */
+    private void sortRowsByWeight() {
+        long[] tmp = new long[16];
+        for (int u = 0; u < names.length; u++) {
+            int from = offsets[u], len = offsets[u + 1] - from;
+            if (len < 2) continue;
+            if (tmp.length < len) tmp = new long[len];
+            for (int i = 0; i < len; i++) tmp[i] = ((long) weights[from + i] << 32) | targets[from + i];
+            Arrays.sort(tmp, 0, len);
+            for (int i = 0; i < len; i++) {
+                long k = tmp[len - 1 - i];
+                weights[from + i] = (int) (k >>> 32);
+                targets[from + i] = (int) k;
+            }
+        }
+    }
+
+    /** Clave de interning: sin mayúsculas, acentos ni espacios repetidos. */
+    static String key(String name) {
+        if (isPlainAscii(name)) return name.toLowerCase(Locale.ROOT); // caso común: sin Normalizer ni regex
+        String n = MARKS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("");
+        return SPACES.matcher(n.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /** ASCII, sin espacios al borde ni repetidos (la clave es solo el nombre en minúsculas). */
+    private static boolean isPlainAscii(String s) {
+        int n = s.length();
+        if (n == 0 || s.charAt(0) == ' ' || s.charAt(n - 1) == ' ') return false;
+        char prev = 0;
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            if (c >= 0x80 || (c < ' ') || (c == ' ' && prev == ' ')) return false;
+            prev = c;
+        }
+        return true;
+    }
+
+    // --------------------- construcción ---------------------
+
+    /** Builds the graph from papers (one author list each); repeated papers must be skipped by the caller. */
+    public static class Builder {
+        /** Más autores que esto en un artículo → solo se enlazan los primeros (evita O(k²) en listas enormes). */
+        private static final int MAX_AUTHORS_PER_PAPER = 25;
+
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+        private int[] papers = new int[1024];
+        private long[] pairs = new long[4096]; // (min << 32) | max, una entrada por artículo compartido
+        private int pairCount;
+
+        public Builder addPaper(List<String> authors) {
+            int[] members = new int[Math.min(authors.size(), MAX_AUTHORS_PER_PAPER)];
+            int k = 0;
+            for (String raw : authors) {
+                if (k == members.length) break;
+                String name = raw == null ? "" : raw.trim();
+                if (name.isEmpty() || name.equals("…")) continue;
+                int id = intern(name);
+                boolean dup = false;
+                for (int i = 0; i < k; i++) if (members[i] == id) { dup = true; break; }
+                if (!dup) members[k++] = id;
+            }
+            for (int i = 0; i < k; i++) {
+                papers[members[i]]++;
+                for (int j = i + 1; j < k; j++) {
+                    int a = Math.min(members[i], members[j]), b = Math.max(members[i], members[j]);
+                    if (pairCount == pairs.length) pairs = Arrays.copyOf(pairs, pairCount * 2);
+                    pairs[pairCount++] = ((long) a << 32) | b;
+                }
+            }
+            return this;
+        }
+
+        private int intern(String name) {
+            String key = key(name);
+            Integer id = ids.get(key);
+            if (id != null) return id;
+            int next = names.size();
+            ids.put(key, next);
+            names.add(name);
+            if (next == papers.length) papers = Arrays.copyOf(papers, next * 2);
+            return next;
+        }
+
+        public CoauthorGraph build() {
+            // Ordenar los pares y contar repeticiones = peso de cada arista
+            Arrays.sort(pairs, 0, pairCount);
+            int[] src = new int[pairCount], dst = new int[pairCount], w = new int[pairCount];
+            int edges = 0;
+            for (int i = 0; i < pairCount; ) {
+                long p = pairs[i];
+                int j = i;
+                while (j < pairCount && pairs[j] == p) j++;
+                src[edges] = (int) (p >>> 32);
+                dst[edges] = (int) p;
+                w[edges++] = j - i;
+                i = j;
+            }
+            pairs = null;
+            return new CoauthorGraph(names.toArray(new String[0]), Arrays.copyOf(papers, names.size()),
+                    ids, src, dst, w, edges);
+        }
+    }
+
+    /** Graph from already aggregated edges (e.g. loaded from coauthor_edges); ids index names. */
+    public static CoauthorGraph fromEdges(String[] names, int[] papers, int[] src, int[] dst, int[] w, int edges) {
+        Map<String, Integer> index = new HashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) index.putIfAbsent(key(names[i]), i);
+        return new CoauthorGraph(names, papers, index, src, dst, w, edges);
+    }
+
+    // --------------------- consultas ---------------------
+
+    public int nodeCount() { return names.length; }
+    public long edgeCount() { return targets.length / 2; }
+    public String name(int id) { return names[id]; }
+    public int papers(int id)  { return papers[id]; }
+
+    /** Id del autor, o -1 si no aparece en ningún artículo. */
+    public int idOf(String name) {
+        Integer id = name == null ? null : index.get(key(name));
+        return id == null ? -1 : id;
+    }
+
+    /** Los k coautores con más artículos compartidos (filas ya ordenadas: O(k)). */
+    public List<Collaborator> topCollaborators(String name, int k) {
+        int u = idOf(name);
+        if (u < 0) return Collections.emptyList();
+        int from = offsets[u], to = Math.min(offsets[u + 1], from + Math.max(0, k));
+        List<Collaborator> out = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) out.add(new Collaborator(names[targets[i]], weights[i]));
+        return out;
+    }
+
+    /**
+     * Shortest collaboration chain from a to b (both included), by number of hops; empty if
+     * they are not connected or unknown. Bidirectional BFS: always expands the smaller frontier.
+     */
+    public List<String> shortestPath(String a, String b) {
+        int s = idOf(a), t = idOf(b);
+        if (s < 0 || t < 0) return Collections.emptyList();
+        if (s == t) return List.of(names[s]);
+
+        int n = names.length;
+        int[] parentF = new int[n], parentB = new int[n];
+        Arrays.fill(parentF, -1);
+        Arrays.fill(parentB, -1);
+        parentF[s] = s;
+        parentB[t] = t;
+        int[] frontF = {s}, frontB = {t};
+        int sizeF = 1, sizeB = 1;
+
+        while (sizeF > 0 && sizeB > 0) {
+            boolean forward = sizeF <= sizeB;
+            int[] front = forward ? frontF : frontB;
+            int size = forward ? sizeF : sizeB;
+            int[] mine = forward ? parentF : parentB, other = forward ? parentB : parentF;
+            int[] next = new int[Math.max(4, size * 2)];
+            int nextSize = 0;
+            for (int i = 0; i < size; i++) {
+                int u = front[i];
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    int v = targets[e];
+                    if (mine[v] != -1) continue;
+                    mine[v] = u;
+                    if (other[v] != -1) return joinPath(v, parentF, parentB, s, t);
+                    if (nextSize == next.length) next = Arrays.copyOf(next, nextSize * 2);
+                    next[nextSize++] = v;
+                }
+            }
+            if (forward) { frontF = next; sizeF = nextSize; }
+            else         { frontB = next; sizeB = nextSize; }
+        }
+        return Collections.emptyList();
+    }
+
+    private List<String> joinPath(int meet, int[] parentF, int[] parentB, int s, int t) {
+        List<String> path = new ArrayList<>();
+        for (int v = meet; ; v = parentF[v]) {
+            path.add(names[v]);
+            if (v == s) break;
+        }
+        Collections.reverse(path);
+        for (int v = meet; v != t; ) {
+            v = parentB[v];
+            path.add(names[v]);
+        }
+        return path;
+    }
+
+    /** Número de componentes conexas (autores aislados cuentan como una cada uno). */
+    public synchronized int componentCount() {
+        ensureComponents();
+        return componentSizes.length;
+    }
+
+    /** Autores en la misma componente que name (0 si no existe). */
+    public synchronized int componentSize(String name) {
+        int u = idOf(name);
+        if (u < 0) return 0;
+        ensureComponents();
+        return componentSizes[component[u]];
+    }
+
+    public synchronized int largestComponentSize() {
+        ensureComponents();
+        int max = 0;
+        for (int s : componentSizes) max = Math.max(max, s);
+        return max;
+    }
+
+    /** True if both authors are connected through some chain of co-authors. */
+    public synchronized boolean connected(String a, String b) {
+        int u = idOf(a), v = idOf(b);
+        if (u < 0 || v < 0) return false;
+        ensureComponents();
+        return component[u] == component[v];
+    }
+
+    /** Etiqueta componentes con BFS iterativo sobre el CSR (una sola pasada, O(V + E)). */
+    private void ensureComponents() {
+        if (component != null) return;
+        int n = names.length;
+        int[] comp = new int[n];
+        Arrays.fill(comp, -1);
+        int[] queue = new int[n];
+        int[] sizes = new int[16];
+        int count = 0;
+        for (int start = 0; start < n; start++) {
+            if (comp[start] != -1) continue;
+            int head = 0, tail = 0;
+            queue[tail++] = start;
+            comp[start] = count;
+            while (head < tail) {
+                int u = queue[head++];
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    int v = targets[e];
+                    if (comp[v] == -1) {
+                        comp[v] = count;
+                        queue[tail++] = v;
+                    }
+                }
+            }
+            if (count == sizes.length) sizes = Arrays.copyOf(sizes, count * 2);
+            sizes[count++] = tail;
+        }
+        component = comp;
+        componentSizes = Arrays.copyOf(sizes, count);
+    }
+
+    /** Cada arista una vez (a &lt; b), para persistir el grafo. */
+    public void forEachEdge(EdgeConsumer consumer) {
+        for (int u = 0; u < names.length; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                if (u < targets[e]) consumer.accept(u, targets[e], weights[e]);
+            }
+        }
+    }
+}
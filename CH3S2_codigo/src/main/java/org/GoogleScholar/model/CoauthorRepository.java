@@ -0,0 +1,134 @@
+package org.GoogleScholar.model;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Builds the co-author graph from articles.authors and persists it as two normalized tables:
+ * coauthor_names (interned id, name, papers) and coauthor_edges (author_a &lt; author_b,
+ * shared_papers). save() replaces both tables in one transaction.
+ */
+public class CoauthorRepository {
+
+    private static final int BATCH = 5_000;
+
+    private final ArticleRepository articles;
+
+    public CoauthorRepository(ArticleRepository articles) {
+        this.articles = articles;
+    }
+
+    /**
+     * Scans articles in streaming; the same paper stored under several author queries
+     * (same article_id) is counted once.
+     */
+    public CoauthorGraph buildFromArticles() throws SQLException {
+        CoauthorGraph.Builder builder = new CoauthorGraph.Builder();
+        Set<String> seenIds = new HashSet<>();
+        articles.forEachArticleIdAndAuthors((articleId, authorsCsv) -> {
+            if (authorsCsv == null || authorsCsv.isBlank()) return;
+            if (articleId != null && !seenIds.add(articleId)) return;
+            builder.addPaper(Arrays.asList(authorsCsv.split(",")));
+        });
+        return builder.build();
+    }
+
+    /** Reemplaza coauthor_names y coauthor_edges con el grafo (una transacción, lotes de 5000). */
+    public void save(CoauthorGraph graph) throws SQLException {
+        try (Connection con = Db.getConnection()) {
+            con.setAutoCommit(false);
+            try {
+                try (Statement st = con.createStatement()) {
+                    // DELETE y no TRUNCATE: TRUNCATE hace commit implícito
+                    st.executeUpdate("DELETE FROM coauthor_edges");
+                    st.executeUpdate("DELETE FROM coauthor_names");
+                }
+                try (PreparedStatement ps = con.prepareStatement(
+                        "INSERT INTO coauthor_names (id, name, papers) VALUES (?,?,?)")) {
+                    for (int i = 0; i < graph.nodeCount(); i++) {
+                        ps.setInt(1, i);
+                        ps.setString(2, graph.name(i));
+                        ps.setInt(3, graph.papers(i));
+                        ps.addBatch();
+                        if ((i + 1) % BATCH == 0) ps.executeBatch();
+                    }
+                    ps.executeBatch();
+                }
+                try (PreparedStatement ps = con.prepareStatement(
+                        "INSERT INTO coauthor_edges (author_a, author_b, shared_papers) VALUES (?,?,?)")) {
+                    int[] pending = {0};
+                    SQLException[] failed = {null};
+                    graph.forEachEdge((a, b, w) -> {
+                        if (failed[0] != null) return;
+                        try {
+                            ps.setInt(1, a);
+                            ps.setInt(2, b);
+                            ps.setInt(3, w);
+                            ps.addBatch();
+                            if (++pending[0] % BATCH == 0) ps.executeBatch();
+                        } catch (SQLException e) {
+                            failed[0] = e;
+                        }
+                    });
+                    if (failed[0] != null) throw failed[0];
+                    ps.executeBatch();
+                }
+                con.commit();
+            } catch (SQLException | RuntimeException e) {
+                // Antes del finally: setAutoCommit(true) confirmaría el DELETE con el grafo a medias
+                con.rollback();
+                throw e;
+            } finally {
+                con.setAutoCommit(true);
+            }
+        }
+    }
+
+    /** Carga el grafo persistido (sin volver a recorrer articles); null si no hay nada guardado. */
+    public CoauthorGraph load() throws SQLException {
+        List<String> names = new ArrayList<>();
+        int[] papers = new int[1024];
+        int[] src = new int[4096], dst = new int[4096], w = new int[4096];
+        int edges = 0;
+        try (Connection con = Db.getConnection()) {
+            try (PreparedStatement ps = con.prepareStatement(
+                    "SELECT id, name, papers FROM coauthor_names ORDER BY id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                ps.setFetchSize(Integer.MIN_VALUE); // Connector/J: filas en streaming
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        int id = rs.getInt(1);
+                        if (id != names.size()) throw new SQLException("coauthor_names ids are not dense at " + id);
+                        names.add(rs.getString(2));
+                        if (id == papers.length) papers = Arrays.copyOf(papers, id * 2);
+                        papers[id] = rs.getInt(3);
+                    }
+                }
+            }
+            if (names.isEmpty()) return null;
+            try (PreparedStatement ps = con.prepareStatement(
+                    "SELECT author_a, author_b, shared_papers FROM coauthor_edges",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                ps.setFetchSize(Integer.MIN_VALUE);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        if (edges == src.length) {
+                            src = Arrays.copyOf(src, edges * 2);
+                            dst = Arrays.copyOf(dst, edges * 2);
+                            w = Arrays.copyOf(w, edges * 2);
+                        }
+                        src[edges] = rs.getInt(1);
+                        dst[edges] = rs.getInt(2);
+                        w[edges++] = rs.getInt(3);
+                    }
+                }
+            }
+        }
+        return CoauthorGraph.fromEdges(names.toArray(new String[0]), Arrays.copyOf(papers, names.size()),
+                src, dst, w, edges);
+    }
+}
@@ -1,22 +1,118 @@
 package org.GoogleScholar.model;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.GoogleScholar.config.Env;
+
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Centralized MySQL access backed by a bounded connection pool (HikariCP).
+ * Repositories keep calling getConnection() and closing it; close() returns the
+ * connection to the pool instead of tearing down the socket.
+ * The pool starts on first use, so runs on the file store never need DB_* variables.
+ */
 public class Db {
     private static final String URL  = System.getenv("DB_URL");
     private static final String USER = System.getenv("DB_USER");
     private static final String PASS = System.getenv("DB_PASS");
 
-    static {
-        try { Class.forName("com.mysql.cj.jdbc.Driver"); } catch (ClassNotFoundException ignored) {}
-        if (URL == null || USER == null || PASS == null) {
-            throw new IllegalStateException("Missing DB_URL / DB_USER / DB_PASS environment variables.");
+    private static volatile HikariDataSource pool;
+
+    // Contadores de espera al pedir conexión
+    private static final LongAdder ACQUIRED  = new LongAdder();
+    private static final LongAdder WAIT_NANOS = new LongAdder();
+    private static final AtomicLong MAX_WAIT_NANOS = new AtomicLong();
+
+    /** True si están DB_URL / DB_USER / DB_PASS. */
+    public static boolean isConfigured() {
+        return URL != null && USER != null && PASS != null;
+    }
+
+    /** True una vez creado el pool (primera getConnection()). */
+    public static boolean isStarted() {
+        return pool != null;
+    }
+
+    static String url() { return URL; }
+
+    private static HikariDataSource pool() {
+        HikariDataSource p = pool;
+        if (p != null) return p;
+        synchronized (Db.class) {
+            if (pool == null) {
+                try { Class.forName("com.mysql.cj.jdbc.Driver"); } catch (ClassNotFoundException ignored) {}
+                if (!isConfigured()) {
+                    throw new IllegalStateException("Missing DB_URL / DB_USER / DB_PASS environment variables.");
+                }
+                pool = new HikariDataSource(poolConfig());
+                Runtime.getRuntime().addShutdownHook(new Thread(Db::close, "db-pool-shutdown"));
+            }
+            return pool;
         }
     }
 
+    private static HikariConfig poolConfig() {
+        HikariConfig cfg = new HikariConfig();
+        cfg.setPoolName("scholar-db");
+        cfg.setJdbcUrl(URL);
+        cfg.setUsername(USER);
+        cfg.setPassword(PASS);
+
+        // Tamaño y tiempos (configurables por variables de entorno)
+        cfg.setMaximumPoolSize(Env.intValue("DB_POOL_MAX", 10));
+        cfg.setMinimumIdle(Env.intValue("DB_POOL_MIN_IDLE", 2));
+        cfg.setConnectionTimeout(Env.intValue("DB_POOL_CONNECT_TIMEOUT_MS", 10_000));
+        cfg.setIdleTimeout(Env.intValue("DB_POOL_IDLE_TIMEOUT_MS", 60_000));
+        cfg.setMaxLifetime(Env.intValue("DB_POOL_MAX_LIFETIME_MS", 1_800_000));
+
+        // Validación: isValid() al prestar y keepalive para conexiones ociosas
+        cfg.setValidationTimeout(3_000);
+        cfg.setKeepaliveTime(Env.intValue("DB_POOL_KEEPALIVE_MS", 120_000));
+
+        // Cache de prepared statements en el driver de MySQL
+        cfg.addDataSourceProperty("cachePrepStmts", "true");
+        cfg.addDataSourceProperty("prepStmtCacheSize", "250");
+        cfg.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        cfg.addDataSourceProperty("useServerPrepStmts", "true");
+        // executeBatch() de INSERT → un solo INSERT multi-fila por lote
+        cfg.addDataSourceProperty("rewriteBatchedStatements", "true");
+        return cfg;
+    }
+
+    /** Borrows a pooled connection; close() gives it back to the pool. */
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL, USER, PASS);
+        long t0 = System.nanoTime();
+        Connection con = pool().getConnection();
+        long waited = System.nanoTime() - t0;
+        ACQUIRED.increment();
+        WAIT_NANOS.add(waited);
+        MAX_WAIT_NANOS.accumulateAndGet(waited, Math::max);
+        return con;
+    }
+
+    /** Snapshot of pool usage (active/idle/waiting connections and borrow wait times); zeros before start. */
+    public static PoolStats stats() {
+        HikariDataSource p = pool;
+        HikariPoolMXBean mx = p == null ? null : p.getHikariPoolMXBean();
+        return new PoolStats(
+                mx == null ? 0 : mx.getActiveConnections(),
+                mx == null ? 0 : mx.getIdleConnections(),
+                mx == null ? 0 : mx.getTotalConnections(),
+                mx == null ? 0 : mx.getThreadsAwaitingConnection(),
+                ACQUIRED.sum(),
+                WAIT_NANOS.sum(),
+                MAX_WAIT_NANOS.get()
+        );
+    }
+
+    /** Closes every pooled connection (also runs as a shutdown hook). */
+    public static void close() {
+        HikariDataSource p = pool;
+        if (p != null && !p.isClosed()) p.close();
     }
 }
@@ -1,15 +1,28 @@
 package org.GoogleScholar.model;
 
+import org.GoogleScholar.metrics.LatencyHistogram;
+import org.GoogleScholar.metrics.Metrics;
+
 import java.sql.*;
 import java.util.List;
 
 public class IssueRepository {
+    private static final LatencyHistogram SAVE_ISSUES = Metrics.stage("db.ingest_issues.saveAll");
+
     public void saveAll(List<Issue> list) throws SQLException {
+        if (list == null || list.isEmpty()) return;
+        try (Connection con = Db.getConnection()) {
+            saveAll(con, list);
+        }
+    }
+
+    /** Same batch insert on a caller-provided connection (no commit; used inside transactions). */
+    public void saveAll(Connection con, List<Issue> list) throws SQLException {
         if (list == null || list.isEmpty()) return;
         String sql = "INSERT INTO ingest_issues (author_query, article_title, issue, http_status, raw_json) " +
                 "VALUES (?,?,?,?,?)";
-        try (Connection con = Db.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
+        long t0 = System.nanoTime();
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
             for (Issue i : list) {
                 ps.setString(1, i.getAuthorQuery());
                 ps.setString(2, i.getArticleTitle());
@@ -21,5 +34,6 @@ public class IssueRepository {
             }
             ps.executeBatch();
         }
+        SAVE_ISSUES.recordSince(t0);
     }
 }
@@ -0,0 +1,1018 @@
+package org.GoogleScholar.model;
+
+import org.GoogleScholar.config.Env;
+import org.GoogleScholar.metrics.LatencyHistogram;
+import org.GoogleScholar.metrics.Metrics;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.zip.CRC32;
+
+/**
+ * Embedded, append-only ArticleStore. Records go to numbered segment files
+ * (seg-00000001.log …); each save() is one write ending in a COMMIT record (then fsync), so
+ * a crash never leaves half a batch. An upsert appends a new version of the row; the
+ * in-memory index (row id → segment/offset, plus article_id and author_query + title keys,
+ * year, cited_by and keywords) always points at the latest one. Reads go through
+ * memory-mapped segments. When superseded versions exceed a threshold a background thread
+ * copies the live records to fresh segments and deletes the old ones (compaction).
+ * The size of each segment lives in memory, so only one process may open a directory: open
+ * takes an exclusive lock on STORE_DIR/LOCK and fails if another process holds it.
+ *
+ * Record: [int length][int crc32][payload]; payload starts with the record type.
+ */
+public class LogArticleStore implements ArticleStore {
+
+    private static final byte ARTICLE = 1;
+    private static final byte ISSUE = 2;
+    private static final byte COMMIT = 3;
+    private static final byte AUTHOR = 4;
+    private static final int HEADER = 8;
+    private static final int NO_INT = Integer.MIN_VALUE;
+    private static final int COMPACT_CHUNK = 1 << 20;
+    private static final String MANIFEST = "compacted";
+    private static final String LOCK = "LOCK";
+
+    private final Path dir;
+    private final long segmentBytes;
+    private final boolean fsync;
+    private final long compactMinGarbage;
+    private final double compactRatio;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+
+    // Índice en memoria por id de fila (1..rows); location = (nº segmento << 40) | offset
+    private int rows;
+    private long[] location = new long[1024];
+    private int[] length = new int[1024];
+    private int[] cited = new int[1024];
+    private short[] years = new short[1024];
+    private String[] authorQueries = new String[1024];
+    private final Map<String, Integer> byArticleId = new HashMap<>();
+    private final Map<String, Integer> byAuthorTitle = new HashMap<>();
+    private final Map<String, IntList> byKeyword = new HashMap<>();
+    private final Map<String, String> interned = new HashMap<>();
+
+    // Incidencias: solo se copian al compactar
+    private final List<long[]> issueRecords = new ArrayList<>(); // {location, length}
+    private long issueSeq;
+    // Autores enriquecidos: última versión por nombre + título del artículo (como uk_author_article)
+    private final Map<String, long[]> authorRecords = new LinkedHashMap<>();
+
+    private long totalBytes;
+    private long liveBytes;
+    private long compactions;
+    private volatile long writeVersion;
+
+    // Compactación en segundo plano (una a la vez)
+    private final ReentrantLock compactLock = new ReentrantLock();
+    private final AtomicBoolean compactionQueued = new AtomicBoolean();
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "log-store-compaction");
+        t.setDaemon(true);
+        return t;
+    });
+    private volatile boolean closing;
+
+    // Bloqueo exclusivo del directorio mientras el store está abierto
+    private FileChannel lockChannel;
+    private FileLock dirLock;
+
+    private static final LatencyHistogram SAVE = Metrics.stage("store.save");
+    private static final LatencyHistogram SAVE_AUTHORS = Metrics.stage("store.saveAuthors");
+
+    private LogArticleStore(Path dir, long segmentBytes, boolean fsync, long compactMinGarbage, double compactRatio) {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.fsync = fsync;
+        this.compactMinGarbage = compactMinGarbage;
+        this.compactRatio = compactRatio;
+    }
+
+    /** STORE_SEGMENT_MB / STORE_FSYNC / STORE_COMPACT_MIN_MB / STORE_COMPACT_RATIO. */
+    public static LogArticleStore open(Path dir) throws IOException {
+        LogArticleStore s = new LogArticleStore(dir,
+                Env.longValue("STORE_SEGMENT_MB", 64) << 20,
+                !"false".equalsIgnoreCase(System.getenv("STORE_FSYNC")),
+                Env.longValue("STORE_COMPACT_MIN_MB", 16) << 20,
+                Env.doubleValue("STORE_COMPACT_RATIO", 0.5));
+        return s.opened();
+    }
+
+    public static LogArticleStore open(Path dir, long segmentBytes, boolean fsync,
+                                       long compactMinGarbage, double compactRatio) throws IOException {
+        return new LogArticleStore(dir, segmentBytes, fsync, compactMinGarbage, compactRatio).opened();
+    }
+
+    private LogArticleStore opened() throws IOException {
+        try {
+            recover();
+            return this;
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /** Un solo proceso por directorio: dos escritores, cada uno con sus offsets en memoria, se pisarían los registros. */
+    private void lockDir() throws IOException {
+        lockChannel = FileChannel.open(dir.resolve(LOCK), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            dirLock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            dirLock = null; // ya abierto en esta JVM
+        }
+        if (dirLock == null) {
+            lockChannel.close();
+            lockChannel = null;
+            throw new IOException("Log store " + dir + " is already open in another process (" + LOCK
+                    + " is locked); stop it first, or run the query service inside it with QUERY_PORT");
+        }
+    }
+
+    // --------------------- segmentos ---------------------
+
+    private static final class Segment {
+        final int number;
+        final Path path;
+        final FileChannel channel;
+        long size;
+        private MappedByteBuffer map;
+
+        Segment(int number, Path path) throws IOException {
+            this.number = number;
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.size = channel.size();
+        }
+
+        /** Vista de [offset, offset+len); re-mapea si el segmento creció desde el último map. */
+        synchronized ByteBuffer read(long offset, int len) throws IOException {
+            if (map == null || map.capacity() < offset + len) {
+                map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            ByteBuffer b = map.duplicate();
+            b.position((int) offset).limit((int) offset + len);
+            return b.slice();
+        }
+
+        void append(byte[] bytes) throws IOException {
+            ByteBuffer b = ByteBuffer.wrap(bytes);
+            long pos = size;
+            while (b.hasRemaining()) pos += channel.write(b, pos);
+            size = pos;
+        }
+
+        synchronized void truncate(long newSize) throws IOException {
+            channel.truncate(newSize);
+            size = newSize;
+            map = null;
+        }
+
+        synchronized void close() throws IOException {
+            map = null;
+            channel.close();
+        }
+    }
+
+    private Segment active() throws IOException {
+        if (segments.isEmpty()) newSegment();
+        return segments.lastEntry().getValue();
+    }
+
+    private Segment newSegment() throws IOException {
+        int n = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+        Segment s = new Segment(n, segmentPath(n));
+        segments.put(n, s);
+        return s;
+    }
+
+    private Path segmentPath(int n) {
+        return dir.resolve(String.format(Locale.ROOT, "seg-%08d.log", n));
+    }
+
+    private static long loc(int segment, long offset) { return ((long) segment << 40) | offset; }
+    private static int segOf(long loc)   { return (int) (loc >>> 40); }
+    private static long offOf(long loc)  { return loc & ((1L << 40) - 1); }
+
+    // --------------------- registros ---------------------
+
+    /** Fila tal como se guarda (Article + campos de refresco). */
+    private static final class Row {
+        int id;
+        long createdAt, lastFetchedAt, prevFetchedAt;
+        int citedBy = NO_INT, prevCitedBy = NO_INT;
+        String authorQuery, articleId, title, publicationDate, keywords; // claves/índice: se leen siempre
+        String authors, abstractText, link;                              // se saltan al recuperar
+
+        Article toArticle() {
+            return new Article((long) id, authorQuery, articleId, title, authors, publicationDate,
+                    abstractText, link, keywords, citedBy == NO_INT ? null : citedBy);
+        }
+    }
+
+    private static byte[] encodeRow(Row r) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bos);
+        out.writeByte(ARTICLE);
+        out.writeInt(r.id);
+        out.writeLong(r.createdAt);
+        out.writeLong(r.lastFetchedAt);
+        out.writeLong(r.prevFetchedAt);
+        out.writeInt(r.citedBy);
+        out.writeInt(r.prevCitedBy);
+        for (String s : new String[]{r.authorQuery, r.articleId, r.title, r.publicationDate, r.keywords,
+                r.authors, r.abstractText, r.link}) writeString(out, s);
+        return frame(bos.toByteArray());
+    }
+
+    private static byte[] encodeIssue(long seq, Issue i) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bos);
+        out.writeByte(ISSUE);
+        out.writeLong(seq);
+        out.writeLong(System.currentTimeMillis());
+        writeString(out, i.getAuthorQuery());
+        writeString(out, i.getArticleTitle());
+        writeString(out, i.getIssue());
+        out.writeInt(i.getHttpStatus() == null ? NO_INT : i.getHttpStatus());
+        writeString(out, i.getRawJson());
+        return frame(bos.toByteArray());
+    }
+
+    private static byte[] encodeAuthor(Author a) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bos);
+        out.writeByte(AUTHOR);
+        writeString(out, a.getName());
+        writeString(out, a.getArticleTitle());
+        writeString(out, a.getAuthorId());
+        out.writeInt(a.getCitations() == null ? NO_INT : a.getCitations());
+        writeString(out, a.getProfileUrl());
+        out.writeLong(System.currentTimeMillis());
+        return frame(bos.toByteArray());
+    }
+
+    private static final byte[] COMMIT_RECORD = frame(new byte[]{COMMIT});
+
+    private static byte[] frame(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer b = ByteBuffer.allocate(HEADER + payload.length);
+        b.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+        return b.array();
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) { out.writeInt(-1); return; }
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readString(ByteBuffer b) {
+        int len = b.getInt();
+        if (len < 0) return null;
+        byte[] bytes = new byte[len];
+        b.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Decodifica un registro ARTICLE (payload sin cabecera, tipo incluido). */
+    private static Row decodeRow(ByteBuffer b, boolean full) {
+        b.get(); // tipo
+        Row r = new Row();
+        r.id = b.getInt();
+        r.createdAt = b.getLong();
+        r.lastFetchedAt = b.getLong();
+        r.prevFetchedAt = b.getLong();
+        r.citedBy = b.getInt();
+        r.prevCitedBy = b.getInt();
+        r.authorQuery = readString(b);
+        r.articleId = readString(b);
+        r.title = readString(b);
+        r.publicationDate = readString(b);
+        r.keywords = readString(b);
+        if (full) {
+            r.authors = readString(b);
+            r.abstractText = readString(b);
+            r.link = readString(b);
+        }
+        return r;
+    }
+
+    private Row readRow(int id, boolean full) throws IOException {
+        long l = location[id];
+        ByteBuffer b = segments.get(segOf(l)).read(offOf(l) + HEADER, length[id] - HEADER);
+        return decodeRow(b, full);
+    }
+
+    // --------------------- recuperación ---------------------
+
+    /**
+     * Reproduce todos los segmentos en orden; descarta lo posterior al último COMMIT válido.
+     * Los que el manifiesto da por compactados se borran sin leerlos.
+     */
+    private void recover() throws IOException {
+        Files.createDirectories(dir);
+        lockDir();
+        int compactedThrough = readManifest();
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, "seg-*.log")) {
+            for (Path p : ds) files.add(p);
+        }
+        files.sort(Comparator.comparing(Path::toString));
+        for (Path p : files) {
+            String name = p.getFileName().toString();
+            int n = Integer.parseInt(name.substring(4, name.length() - 4));
+            if (n <= compactedThrough) {
+                try {
+                    Files.delete(p); // recién abierto: no está mapeado
+                } catch (IOException e) {
+                    System.err.println("Log store: could not delete compacted " + name + ": " + e.getMessage());
+                }
+                continue;
+            }
+            Segment seg = new Segment(n, p);
+            segments.put(n, seg);
+            replay(seg);
+            totalBytes += seg.size;
+        }
+    }
+
+    private void replay(Segment seg) throws IOException {
+        long pos = 0, committed = 0;
+        List<long[]> pending = new ArrayList<>(); // {offset, length, type}
+        while (pos + HEADER <= seg.size) {
+            ByteBuffer h = seg.read(pos, HEADER);
+            int len = h.getInt(), crc = h.getInt();
+            if (len <= 0 || pos + HEADER + len > seg.size) break;
+            ByteBuffer payload = seg.read(pos + HEADER, len);
+            CRC32 c = new CRC32();
+            c.update(payload.duplicate());
+            if ((int) c.getValue() != crc) break;
+            byte type = payload.get(0);
+            if (type == COMMIT) {
+                for (long[] rec : pending) applyRecovered(seg, rec[0], (int) rec[1], (byte) rec[2]);
+                pending.clear();
+                liveBytes += HEADER + len;
+                committed = pos + HEADER + len;
+            } else {
+                pending.add(new long[]{pos, HEADER + len, type});
+            }
+            pos += HEADER + len;
+        }
+        if (committed < seg.size) {
+            System.err.println("Log store: discarding " + (seg.size - committed) + " uncommitted byte(s) in " + seg.path.getFileName());
+            seg.truncate(committed);
+        }
+    }
+
+    private void applyRecovered(Segment seg, long offset, int len, byte type) throws IOException {
+        ByteBuffer payload = seg.read(offset + HEADER, len - HEADER);
+        if (type == ARTICLE) {
+            Row r = decodeRow(payload, false);
+            index(r, loc(seg.number, offset), len);
+        } else if (type == ISSUE) {
+            payload.get();
+            long seq = payload.getLong();
+            if (seq <= issueSeq) return; // copia de una compactación interrumpida
+            issueSeq = seq;
+            issueRecords.add(new long[]{loc(seg.number, offset), len});
+            liveBytes += len;
+        } else if (type == AUTHOR) {
+            payload.get();
+            indexAuthor(authorTitleKey(readString(payload), readString(payload)), loc(seg.number, offset), len);
+        }
+    }
+
+    private void indexAuthor(String key, long loc, int len) {
+        long[] prev = authorRecords.put(key, new long[]{loc, len});
+        if (prev != null) liveBytes -= prev[1];
+        liveBytes += len;
+    }
+
+    /** Apunta el índice a la versión más reciente de la fila. */
+    private void index(Row r, long loc, int len) {
+        int id = r.id;
+        ensureCapacity(id);
+        boolean isNew = location[id] == 0;
+        if (isNew) {
+            rows = Math.max(rows, id);
+            if (r.articleId != null) byArticleId.put(r.articleId, id);
+            byAuthorTitle.put(authorTitleKey(r.authorQuery, r.title), id);
+            for (String kw : ArticleRepository.keywordsOf(r.keywords)) {
+                byKeyword.computeIfAbsent(kw, k -> new IntList()).add(id);
+            }
+        } else {
+            liveBytes -= length[id];
+        }
+        location[id] = loc;
+        length[id] = len;
+        liveBytes += len;
+        cited[id] = r.citedBy;
+        Integer y = ArticleRepository.parseYear(r.publicationDate);
+        years[id] = y == null ? 0 : y.shortValue();
+        authorQueries[id] = interned.computeIfAbsent(r.authorQuery == null ? "" : r.authorQuery, k -> k);
+    }
+
+    private void ensureCapacity(int id) {
+        if (id < location.length) return;
+        int n = Math.max(id + 1, location.length * 2);
+        location = Arrays.copyOf(location, n);
+        length = Arrays.copyOf(length, n);
+        cited = Arrays.copyOf(cited, n);
+        years = Arrays.copyOf(years, n);
+        authorQueries = Arrays.copyOf(authorQueries, n);
+    }
+
+    /** Como uk_author_title: sin mayúsculas y con prefijo de 255 en el título. */
+    private static String authorTitleKey(String authorQuery, String title) {
+        String t = title == null ? "" : title;
+        if (t.length() > 255) t = t.substring(0, 255);
+        return (authorQuery == null ? "" : authorQuery.toLowerCase(Locale.ROOT)) + '\u0001' + t.toLowerCase(Locale.ROOT);
+    }
+
+    // --------------------- escritura ---------------------
+
+    @Override
+    public void save(List<Article> articles, List<Issue> issues) throws IOException {
+        long t0 = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            long now = System.currentTimeMillis();
+            // Versiones nuevas de este lote (una fila puede aparecer dos veces en el mismo lote)
+            Map<Integer, Row> staged = new HashMap<>();
+            Map<String, Integer> stagedIds = new HashMap<>(), stagedTitles = new HashMap<>();
+            List<Row> order = new ArrayList<>();
+            int nextId = rows;
+
+            if (articles != null) {
+                for (Article a : articles) {
+                    String titleKey = authorTitleKey(a.getAuthorQuery(), a.getTitle());
+                    Integer id = a.getArticleId() == null ? null : stagedIds.get(a.getArticleId());
+                    if (id == null && a.getArticleId() != null) id = byArticleId.get(a.getArticleId());
+                    if (id == null) id = stagedTitles.get(titleKey);
+                    if (id == null) id = byAuthorTitle.get(titleKey);
+
+                    Row r;
+                    if (id == null) {
+                        r = newRow(++nextId, a, now);
+                    } else {
+                        Row old = staged.containsKey(id) ? staged.get(id) : readRow(id, true);
+                        r = mergeRow(old, a, now);
+                    }
+                    if (!staged.containsKey(r.id)) order.add(r);
+                    else order.set(order.indexOf(staged.get(r.id)), r);
+                    staged.put(r.id, r);
+                    if (r.articleId != null) stagedIds.put(r.articleId, r.id);
+                    stagedTitles.put(titleKey, r.id);
+                }
+            }
+
+            // Un solo buffer: filas, incidencias y COMMIT
+            ByteArrayOutputStream batch = new ByteArrayOutputStream();
+            List<byte[]> rowBytes = new ArrayList<>(order.size());
+            for (Row r : order) {
+                byte[] b = encodeRow(r);
+                rowBytes.add(b);
+                batch.write(b);
+            }
+            List<byte[]> issueBytes = new ArrayList<>();
+            long seq = issueSeq;
+            if (issues != null) {
+                for (Issue i : issues) {
+                    byte[] b = encodeIssue(++seq, i);
+                    issueBytes.add(b);
+                    batch.write(b);
+                }
+            }
+            if (rowBytes.isEmpty() && issueBytes.isEmpty()) return;
+            batch.write(COMMIT_RECORD);
+            byte[] bytes = batch.toByteArray();
+
+            long start = append(bytes);
+            Segment seg = segments.get(segOf(start));
+
+            // Ya es durable: actualizar el índice
+            long off = offOf(start);
+            for (int i = 0; i < order.size(); i++) {
+                index(order.get(i), loc(seg.number, off), rowBytes.get(i).length);
+                off += rowBytes.get(i).length;
+            }
+            for (byte[] b : issueBytes) {
+                issueRecords.add(new long[]{loc(seg.number, off), b.length});
+                liveBytes += b.length;
+                off += b.length;
+            }
+            issueSeq = seq;
+            liveBytes += COMMIT_RECORD.length;
+            totalBytes += bytes.length;
+            writeVersion++;
+
+            maybeCompact();
+        } finally {
+            lock.writeLock().unlock();
+            SAVE.recordSince(t0);
+        }
+    }
+
+    /** Escribe un lote ya terminado en COMMIT (rotando de segmento si hace falta); devuelve su location. */
+    private long append(byte[] bytes) throws IOException {
+        Segment seg = active();
+        if (seg.size > 0 && seg.size + bytes.length > segmentBytes) seg = newSegment();
+        long base = seg.size;
+        try {
+            seg.append(bytes);
+            if (fsync) seg.channel.force(false);
+        } catch (IOException e) {
+            seg.truncate(base); // el lote no llegó a confirmarse
+            throw e;
+        }
+        return loc(seg.number, base);
+    }
+
+    @Override
+    public void saveAuthors(List<Author> authors) throws IOException {
+        if (authors == null || authors.isEmpty()) return;
+        long t0 = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            ByteArrayOutputStream batch = new ByteArrayOutputStream();
+            List<byte[]> records = new ArrayList<>(authors.size());
+            for (Author a : authors) {
+                byte[] b = encodeAuthor(a);
+                records.add(b);
+                batch.write(b);
+            }
+            batch.write(COMMIT_RECORD);
+            byte[] bytes = batch.toByteArray();
+            long start = append(bytes);
+
+            long off = offOf(start);
+            for (int i = 0; i < authors.size(); i++) {
+                Author a = authors.get(i);
+                indexAuthor(authorTitleKey(a.getName(), a.getArticleTitle()), loc(segOf(start), off), records.get(i).length);
+                off += records.get(i).length;
+            }
+            liveBytes += COMMIT_RECORD.length;
+            totalBytes += bytes.length;
+
+            maybeCompact();
+        } finally {
+            lock.writeLock().unlock();
+            SAVE_AUTHORS.recordSince(t0);
+        }
+    }
+
+    private static Row newRow(int id, Article a, long now) {
+        Row r = new Row();
+        r.id = id;
+        r.createdAt = now;
+        r.lastFetchedAt = now;
+        r.citedBy = a.getCitedBy() == null ? NO_INT : a.getCitedBy();
+        r.authorQuery = a.getAuthorQuery();
+        r.articleId = a.getArticleId();
+        r.title = a.getTitle();
+        r.publicationDate = a.getPublicationDate();
+        r.keywords = a.getKeywords();
+        r.authors = a.getAuthors();
+        r.abstractText = a.getAbstractText();
+        r.link = a.getLink();
+        return r;
+    }
+
+    /** Mismo upsert que ArticleRepository#saveAll: textos intactos, citas/autores/link nuevos. */
+    private static Row mergeRow(Row old, Article a, long now) {
+        Row r = new Row();
+        r.id = old.id;
+        r.createdAt = old.createdAt;
+        boolean hasCites = a.getCitedBy() != null && a.getCitedBy() >= 0;
+        r.prevCitedBy = hasCites ? old.citedBy : old.prevCitedBy;
+        r.prevFetchedAt = hasCites ? old.lastFetchedAt : old.prevFetchedAt;
+        r.citedBy = hasCites ? a.getCitedBy() : old.citedBy;
+        r.lastFetchedAt = now;
+        r.authorQuery = old.authorQuery;
+        r.articleId = old.articleId;
+        r.title = old.title;
+        r.publicationDate = old.publicationDate;
+        r.keywords = old.keywords;
+        r.abstractText = old.abstractText;
+        r.authors = a.getAuthors();
+        r.link = a.getLink() != null ? a.getLink() : old.link;
+        return r;
+    }
+
+    // --------------------- compactación ---------------------
+
+    /** Bajo el lock de escritura: solo programa la compactación; nunca copia en el camino de save(). */
+    private void maybeCompact() {
+        long garbage = totalBytes - liveBytes;
+        if (garbage >= compactMinGarbage && garbage > totalBytes * compactRatio
+                && !closing && compactionQueued.compareAndSet(false, true)) {
+            try {
+                compactor.execute(() -> {
+                    try {
+                        compact();
+                    } catch (IOException | RuntimeException e) {
+                        System.err.println("Log store: compaction failed, old segments kept: " + e.getMessage());
+                    } finally {
+                        compactionQueued.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                compactionQueued.set(false); // close() en curso
+            }
+        }
+    }
+
+    /**
+     * Copies the latest version of every row and author, and every issue, to new segments and
+     * drops the old ones. The write lock is held only to cut off the current segments (writes
+     * continue in a segment numbered after the ones reserved for the copy, so replay order stays
+     * old → copy → new) and to swap the index at the end; the copy itself runs without it.
+     * Once the copy is durable a manifest marks the old segments obsolete, so they are skipped
+     * on open even if deleting them fails (e.g. still mapped on Windows). A crash before that
+     * leaves old + partial copy: replay reads the old ones first, rows/authors end on the same
+     * version and issues carry a sequence number, so the copies are skipped as duplicates.
+     */
+    public void compact() throws IOException {
+        compactLock.lock();
+        try {
+            // 1) Corte: los segmentos actuales quedan inmutables
+            List<Segment> old;
+            Map<Integer, Segment> oldByNumber = new HashMap<>();
+            int top, firstCopy, reservedEnd;
+            long[] snapLoc;
+            int[] snapLen;
+            List<long[]> snapIssues;
+            Map<String, long[]> snapAuthors;
+            long liveAtCut;
+            lock.writeLock().lock();
+            try {
+                if (segments.isEmpty() || closing) return;
+                old = new ArrayList<>(segments.values());
+                for (Segment s : old) oldByNumber.put(s.number, s);
+                firstCopy = segments.lastKey() + 1;
+                reservedEnd = firstCopy + (int) Math.min(1 << 16, liveBytes / segmentBytes + 2);
+                Segment next = new Segment(reservedEnd, segmentPath(reservedEnd));
+                segments.put(reservedEnd, next);
+                top = rows;
+                snapLoc = Arrays.copyOf(location, top + 1);
+                snapLen = Arrays.copyOf(length, top + 1);
+                snapIssues = new ArrayList<>(issueRecords);
+                snapAuthors = new LinkedHashMap<>(authorRecords);
+                liveAtCut = liveBytes;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            // 2) Copia sin el lock del store (lectores y escritores siguen)
+            Copy copy = new Copy(firstCopy, reservedEnd, oldByNumber);
+            long[] newLoc = new long[top + 1];
+            List<long[]> newIssues = new ArrayList<>(snapIssues.size());
+            Map<String, long[]> newAuthors = new HashMap<>();
+            try {
+                for (int id = 1; id <= top; id++) {
+                    if (snapLoc[id] != 0) newLoc[id] = copy.add(snapLoc[id], snapLen[id]);
+                }
+                for (long[] rec : snapIssues) newIssues.add(new long[]{copy.add(rec[0], (int) rec[1]), rec[1]});
+                for (Map.Entry<String, long[]> en : snapAuthors.entrySet()) {
+                    long[] rec = en.getValue();
+                    newAuthors.put(en.getKey(), new long[]{copy.add(rec[0], (int) rec[1]), rec[1]});
+                }
+                copy.finish();
+                writeManifest(firstCopy - 1);
+            } catch (IOException | RuntimeException e) {
+                copy.discard();
+                throw e;
+            }
+
+            // 3) Cambio de índice: solo lo que no se reescribió después del corte
+            long oldBytes = 0;
+            lock.writeLock().lock();
+            try {
+                for (int id = 1; id <= top; id++) {
+                    if (snapLoc[id] != 0 && location[id] == snapLoc[id]) location[id] = newLoc[id];
+                }
+                for (int i = 0; i < newIssues.size(); i++) issueRecords.set(i, newIssues.get(i));
+                for (Map.Entry<String, long[]> en : snapAuthors.entrySet()) {
+                    if (authorRecords.get(en.getKey()) == en.getValue()) authorRecords.put(en.getKey(), newAuthors.get(en.getKey()));
+                }
+                for (Segment s : copy.written) segments.put(s.number, s);
+                for (Segment s : old) {
+                    segments.remove(s.number);
+                    oldBytes += s.size;
+                }
+                totalBytes += copy.bytes - oldBytes;
+                liveBytes = copy.bytes + (liveBytes - liveAtCut);
+                compactions++;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            // 4) Ya nadie los lee; si no se pueden borrar, el manifiesto hace que open() los ignore
+            for (Segment s : old) {
+                s.close();
+                try {
+                    Files.deleteIfExists(s.path);
+                } catch (IOException e) {
+                    System.err.println("Log store: could not delete " + s.path.getFileName() + " (removed on next open): " + e.getMessage());
+                }
+            }
+        } finally {
+            compactLock.unlock();
+        }
+    }
+
+    /** Segmentos de salida de una compactación, numerados en [first, reservedEnd). */
+    private final class Copy {
+        final Map<Integer, Segment> source;
+        final int reservedEnd;
+        final List<Segment> written = new ArrayList<>();
+        final ByteArrayOutputStream chunk = new ByteArrayOutputStream(COMPACT_CHUNK + 4096);
+        Segment seg;
+        long bytes;
+
+        Copy(int first, int reservedEnd, Map<Integer, Segment> source) throws IOException {
+            this.source = source;
+            this.reservedEnd = reservedEnd;
+            open(first);
+        }
+
+        private void open(int n) throws IOException {
+            seg = new Segment(n, segmentPath(n));
+            written.add(seg);
+        }
+
+        /** Copia un registro; devuelve su nueva location. */
+        long add(long loc, int len) throws IOException {
+            if (closing) throw new IOException("store closing");
+            // Límite blando: el último número reservado se queda con lo que no quepa
+            boolean full = seg.size + chunk.size() + len + COMMIT_RECORD.length > segmentBytes && seg.size + chunk.size() > 0;
+            if (full && seg.number + 1 < reservedEnd) {
+                flushChunk();
+                open(seg.number + 1);
+            }
+            long at = loc(seg.number, seg.size + chunk.size());
+            ByteBuffer b = source.get(segOf(loc)).read(offOf(loc), len);
+            byte[] rec = new byte[len];
+            b.get(rec);
+            chunk.write(rec);
+            if (chunk.size() >= COMPACT_CHUNK) flushChunk();
+            return at;
+        }
+
+        /** Escribe el trozo pendiente + COMMIT. */
+        private void flushChunk() throws IOException {
+            if (chunk.size() == 0) return;
+            chunk.write(COMMIT_RECORD);
+            byte[] b = chunk.toByteArray();
+            seg.append(b);
+            bytes += b.length;
+            chunk.reset();
+        }
+
+        void finish() throws IOException {
+            flushChunk();
+            for (Segment s : written) s.channel.force(true);
+        }
+
+        void discard() {
+            for (Segment s : written) {
+                try {
+                    s.close();
+                    Files.deleteIfExists(s.path);
+                } catch (IOException ignored) {}
+            }
+        }
+    }
+
+    /** Manifiesto: los segmentos con número &lt;= through ya están copiados (temp + move atómico). */
+    private void writeManifest(int through) throws IOException {
+        Path tmp = dir.resolve(MANIFEST + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ch.write(ByteBuffer.wrap(Integer.toString(through).getBytes(StandardCharsets.US_ASCII)));
+            ch.force(true);
+        }
+        Files.move(tmp, dir.resolve(MANIFEST), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private int readManifest() throws IOException {
+        Path p = dir.resolve(MANIFEST);
+        if (!Files.isRegularFile(p)) return 0;
+        try {
+            return Integer.parseInt(Files.readString(p, StandardCharsets.US_ASCII).trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("corrupt " + p + ": " + e.getMessage());
+        }
+    }
+
+    // --------------------- lectura ---------------------
+
+    private Article read(int id) throws IOException {
+        lock.readLock().lock();
+        try {
+            return location[id] == 0 ? null : readRow(id, true).toArticle();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int rowCount() {
+        lock.readLock().lock();
+        try { return rows; } finally { lock.readLock().unlock(); }
+    }
+
+    @Override
+    public List<Article> findPage(Long beforeId, int limit) throws IOException {
+        int top = rowCount();
+        int start = beforeId == null ? top : (int) Math.min(top, beforeId - 1);
+        List<Article> out = new ArrayList<>(limit);
+        for (int id = start; id >= 1 && out.size() < limit; id--) {
+            Article a = read(id);
+            if (a != null) out.add(a);
+        }
+        return out;
+    }
+
+    @Override
+    public long[] findIdsNewestFirst() {
+        lock.readLock().lock();
+        try {
+            long[] ids = new long[rows];
+            int n = 0;
+            for (int id = rows; id >= 1; id--) if (location[id] != 0) ids[n++] = id;
+            return Arrays.copyOf(ids, n);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Fila a fila con el lock de lectura solo durante cada lectura (no bloquea al escritor). */
+    @Override
+    public long streamAll(Consumer<Article> consumer) throws IOException {
+        int top = rowCount();
+        long n = 0;
+        for (int id = 1; id <= top; id++) {
+            Article a = read(id);
+            if (a == null) continue;
+            consumer.accept(a);
+            n++;
+        }
+        return n;
+    }
+
+    @Override
+    public long streamDedupKeys(Consumer<Article> consumer) throws IOException {
+        return streamAll(consumer);
+    }
+
+    @Override
+    public long streamAnalyticsColumns(Consumer<Article> consumer) throws IOException {
+        return streamAll(consumer);
+    }
+
+    @Override
+    public void forEachTitleAndAbstract(BiConsumer<String, String> consumer) throws IOException {
+        streamAll(a -> consumer.accept(a.getTitle(), a.getAbstractText()));
+    }
+
+    /** Top-limit por cited_by entre las filas que cumplen el filtro (sobre los arrays del índice). */
+    private List<Article> topCitedWhere(int[] candidates, int count, IntPredicate filter, int limit) throws IOException {
+        List<Integer> ids;
+        lock.readLock().lock();
+        try {
+            PriorityQueue<Integer> heap = new PriorityQueue<>(Comparator.comparingInt(id -> cited[id]));
+            int top = candidates == null ? rows : count;
+            for (int i = 0; i < top; i++) {
+                int id = candidates == null ? i + 1 : candidates[i];
+                if (location[id] == 0 || cited[id] == NO_INT || cited[id] < 0 || !filter.test(id)) continue;
+                if (heap.size() < limit) heap.add(id);
+                else if (limit > 0 && cited[id] > cited[heap.peek()]) { heap.poll(); heap.add(id); }
+            }
+            ids = new ArrayList<>(heap);
+            ids.sort(Comparator.comparingInt((Integer id) -> cited[id]).reversed());
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Article> out = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            Article a = read(id);
+            if (a != null) out.add(a);
+        }
+        return out;
+    }
+
+    @Override
+    public List<Article> findByYearRange(int yearFrom, int yearTo, int limit) throws IOException {
+        return topCitedWhere(null, 0, id -> years[id] != 0 && years[id] >= yearFrom && years[id] <= yearTo, limit);
+    }
+
+    @Override
+    public List<Article> findByKeyword(String keyword, int limit) throws IOException {
+        IntList ids;
+        lock.readLock().lock();
+        try {
+            ids = byKeyword.get(keyword.trim().toLowerCase(Locale.ROOT));
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (ids == null) return List.of();
+        return topCitedWhere(ids.values, ids.size, id -> true, limit);
+    }
+
+    @Override
+    public List<Article> findTopCited(String authorQuery, Integer yearFrom, Integer yearTo, int limit) throws IOException {
+        return topCitedWhere(null, 0, id ->
+                (authorQuery == null || authorQuery.equals(authorQueries[id]))
+                        && (yearFrom == null || (years[id] != 0 && years[id] >= yearFrom))
+                        && (yearTo == null || (years[id] != 0 && years[id] <= yearTo)), limit);
+    }
+
+    // --------------------- estado ---------------------
+
+    @Override
+    public String describe() {
+        return "log store (" + dir.toAbsolutePath() + ")";
+    }
+
+    @Override
+    public long getWriteVersion()   { return writeVersion; }
+
+    public int getRows()            { return rowCount(); }
+    public int getSegments()        { lock.readLock().lock(); try { return segments.size(); } finally { lock.readLock().unlock(); } }
+    public long getTotalBytes()     { lock.readLock().lock(); try { return totalBytes; } finally { lock.readLock().unlock(); } }
+    public long getLiveBytes()      { lock.readLock().lock(); try { return liveBytes; } finally { lock.readLock().unlock(); } }
+    public long getCompactions()    { lock.readLock().lock(); try { return compactions; } finally { lock.readLock().unlock(); } }
+    public long getIssues()         { lock.readLock().lock(); try { return issueRecords.size(); } finally { lock.readLock().unlock(); } }
+    public int getAuthors()         { lock.readLock().lock(); try { return authorRecords.size(); } finally { lock.readLock().unlock(); } }
+
+    @Override
+    public void close() throws IOException {
+        // Una compactación en curso se aborta (sus segmentos se descartan) antes de cerrar los canales
+        closing = true;
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.writeLock().lock();
+        try {
+            for (Segment s : segments.values()) s.close();
+            segments.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (lockChannel != null) {
+            lockChannel.close(); // libera también el bloqueo
+            lockChannel = null;
+        }
+    }
+
+    /** Lista de ints que crece (ids por keyword). */
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int v) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = v;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package org.GoogleScholar.model;
+
+import org.GoogleScholar.metrics.LatencyHistogram;
+import org.GoogleScholar.metrics.Metrics;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/** ArticleStore over MySQL: delegates to the repositories; save() is one JDBC transaction. */
+public class MySqlArticleStore implements ArticleStore {
+
+    private final ArticleRepository articles;
+    private final IssueRepository issues;
+    private final AuthorRepository authors = new AuthorRepository();
+    private final AtomicLong writeVersion = new AtomicLong();
+
+    private static final LatencyHistogram SAVE = Metrics.stage("store.save");
+    private static final LatencyHistogram SAVE_AUTHORS = Metrics.stage("store.saveAuthors");
+
+    public MySqlArticleStore(ArticleRepository articles, IssueRepository issues) {
+        this.articles = articles;
+        this.issues = issues;
+    }
+
+    @Override
+    public long getWriteVersion() { return writeVersion.get(); }
+
+    /** Para las consultas que solo existen en MySQL (full-text, refresco, coautores). */
+    public ArticleRepository getArticleRepository() { return articles; }
+
+    @Override
+    public void save(List<Article> arts, List<Issue> iss) throws IOException {
+        long t0 = System.nanoTime();
+        try (Connection con = Db.getConnection()) {
+            con.setAutoCommit(false);
+            try {
+                articles.saveAll(con, arts);
+                issues.saveAll(con, iss);
+                con.commit();
+                writeVersion.incrementAndGet();
+                SAVE.recordSince(t0);
+            } catch (SQLException | RuntimeException e) {
+                // Antes del finally: setAutoCommit(true) confirmaría el lote a medias
+                con.rollback();
+                throw e;
+            } finally {
+                con.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw wrap(e);
+        }
+    }
+
+    @Override
+    public void saveAuthors(List<Author> list) throws IOException {
+        long t0 = System.nanoTime();
+        try { authors.saveAll(list); } catch (SQLException e) { throw wrap(e); }
+        SAVE_AUTHORS.recordSince(t0);
+    }
+
+    @Override
+    public List<Article> findPage(Long beforeId, int limit) throws IOException {
+        try { return articles.findPage(beforeId, limit); } catch (SQLException e) { throw wrap(e); }
+    }
+
+    @Override
+    public long[] findIdsNewestFirst() throws IOException {
+        try { return articles.findIdsNewestFirst(); } catch (SQLException e) { throw wrap(e); }
+    }
+
+    @Override
+    public long streamAll(Consumer<Article> consumer) throws IOException {
+        try { return articles.streamAll(consumer); } catch (SQLException e) { throw wrap(e); }
+    }
+
+    @Override
+    public long streamDedupKeys(Consumer<Article> consumer) throws IOException {
+        try { return articles.streamDedupKeys(consumer); } catch (SQLException e) { throw wrap(e); }
+    }
+
+    @Override
+    public long streamAnalyticsColumns(Consumer<Article> consumer) throws IOException {
+        try { return articles.streamAnalyticsColumns(consumer); } catch (SQLException e) { throw wrap(e); }
+    }
+
+    @Override
+    public void forEachTitleAndAbstract(BiConsumer<String, String> consumer) throws IOException {
+        try { articles.forEachTitleAndAbstract(consumer); } catch (SQLException e) { throw wrap(e); }
+    }
+
+    @Override
+    public List<Article> findByYearRange(int yearFrom, int yearTo, int limit) throws IOException {
+        try { return articles.findByYearRange(yearFrom, yearTo, limit); } catch (SQLException e) { throw wrap(e); }
+    }
+
+    @Override
+    public List<Article> findByKeyword(String keyword, int limit) throws IOException {
+        try { return articles.findByKeyword(keyword, limit); } catch (SQLException e) { throw wrap(e); }
+    }
+
+    @Override
+    public List<Article> findTopCited(String authorQuery, Integer yearFrom, Integer yearTo, int limit) throws IOException {
+        try { return articles.findTopCited(authorQuery, yearFrom, yearTo, limit); } catch (SQLException e) { throw wrap(e); }
+    }
+
+    @Override
+    public String describe() {
+        return "MySQL (" + Db.url() + ")";
+    }
+
+    /** El pool es global (Db) y se cierra en el shutdown hook. */
+    @Override
+    public void close() {}
+
+    private static IOException wrap(SQLException e) {
+        return new IOException("MySQL: " + e.getMessage(), e);
+    }
+}
@@ -0,0 +1,37 @@
+package org.GoogleScholar.model;
+
+/** Point-in-time counters of the JDBC connection pool (see {@link Db#stats()}). */
+public class PoolStats {
+    private final int active;
+    private final int idle;
+    private final int total;
+    private final int waiting;
+    private final long acquired;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+
+    public PoolStats(int active, int idle, int total, int waiting,
+                     long acquired, long totalWaitNanos, long maxWaitNanos) {
+        this.active = active;
+        this.idle = idle;
+        this.total = total;
+        this.waiting = waiting;
+        this.acquired = acquired;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+    }
+
+    public int getActive()          { return active; }
+    public int getIdle()            { return idle; }
+    public int getTotal()           { return total; }
+    public int getWaiting()         { return waiting; }
+    public long getAcquired()       { return acquired; }
+    public long getTotalWaitNanos() { return totalWaitNanos; }
+    public long getMaxWaitNanos()   { return maxWaitNanos; }
+
+    public double getAvgWaitMillis() {
+        return acquired == 0 ? 0.0 : (totalWaitNanos / 1_000_000.0) / acquired;
+    }
+
+    public double getMaxWaitMillis() { return maxWaitNanos / 1_000_000.0; }
+}
@@ -0,0 +1,25 @@
+package org.GoogleScholar.model;
+
+/** An author query proposed for re-crawl (see {@link RefreshPlanner}). */
+public class RefreshCandidate {
+    private final String authorQuery;
+    private final int articles;
+    private final double staleDays;
+    private final double citationsPerDay;
+    private final double priority;
+
+    public RefreshCandidate(String authorQuery, int articles, double staleDays,
+                            double citationsPerDay, double priority) {
+        this.authorQuery = authorQuery;
+        this.articles = articles;
+        this.staleDays = staleDays;
+        this.citationsPerDay = citationsPerDay;
+        this.priority = priority;
+    }
+
+    public String getAuthorQuery()     { return authorQuery; }
+    public int getArticles()           { return articles; }
+    public double getStaleDays()       { return staleDays; }
+    public double getCitationsPerDay() { return citationsPerDay; }
+    public double getPriority()        { return priority; }
+}
@@ -0,0 +1,55 @@
+package org.GoogleScholar.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ranks author queries for re-crawl from one pass over the articles' fetch columns.
+ * Staleness is the time since the author's most recent fetch: a refresh only re-fetches the
+ * top --per-author results, so rows that dropped out of them must not keep the author stale
+ * forever. Velocity is the citations gained per day between an article's last two fetches,
+ * averaged over the author's articles, so an author does not outrank others by row count alone.
+ * Priority = staleDays × (1 + velocity).
+ */
+public class RefreshPlanner {
+
+    private static final class Acc {
+        int articles;
+        long minAgeSeconds = Long.MAX_VALUE;
+        double velocitySum;
+    }
+
+    private final Map<String, Acc> byAuthor = new HashMap<>();
+
+    /**
+     * Una fila: segundos desde su último fetch, segundos entre sus dos últimos fetches (null si
+     * solo hubo uno) y citas actuales y anteriores (prevCitedBy null o &lt; 0 = desconocidas).
+     */
+    public void add(String authorQuery, long ageSeconds, Long fetchGapSeconds, int citedBy, Integer prevCitedBy) {
+        Acc acc = byAuthor.computeIfAbsent(authorQuery, k -> new Acc());
+        acc.articles++;
+        acc.minAgeSeconds = Math.min(acc.minAgeSeconds, ageSeconds);
+        if (fetchGapSeconds != null && fetchGapSeconds > 0
+                && prevCitedBy != null && prevCitedBy >= 0 && citedBy >= prevCitedBy) {
+            acc.velocitySum += (citedBy - prevCitedBy) / (fetchGapSeconds / 86400.0);
+        }
+    }
+
+    /** Hasta limit autores con al menos minStaleHours desde su último fetch, mayor prioridad primero. */
+    public List<RefreshCandidate> plan(int minStaleHours, int limit) {
+        List<RefreshCandidate> out = new ArrayList<>();
+        for (Map.Entry<String, Acc> e : byAuthor.entrySet()) {
+            Acc acc = e.getValue();
+            if (acc.minAgeSeconds < minStaleHours * 3600L) continue;
+            double staleDays = acc.minAgeSeconds / 86400.0;
+            double velocity = acc.velocitySum / acc.articles;
+            out.add(new RefreshCandidate(e.getKey(), acc.articles, staleDays, velocity, staleDays * (1 + velocity)));
+        }
+        out.sort(Comparator.comparingDouble(RefreshCandidate::getPriority).reversed()
+                .thenComparing(RefreshCandidate::getAuthorQuery));
+        return out.size() > limit ? new ArrayList<>(out.subList(0, limit)) : out;
+    }
+}
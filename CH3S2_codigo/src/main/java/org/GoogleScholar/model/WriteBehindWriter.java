@@ -0,0 +1,239 @@
+package org.GoogleScholar.model;
+
+import org.GoogleScholar.config.Env;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind persistence stage: fetch threads enqueue articles/issues (and author profiles) and return at once;
+ * one writer thread coalesces them into batches (up to batchSize rows, or whatever arrived
+ * within lingerMs) and commits each batch atomically through the ArticleStore. The queue is
+ * bounded, so producers block when the store falls behind; close() drains and commits
+ * everything queued. If the writer thread dies, later submits fail instead of blocking.
+ */
+public class WriteBehindWriter implements AutoCloseable {
+
+    /** Un elemento de la cola: un artículo, una incidencia, un lote de autores o un marcador (callback). */
+    private static final class Item {
+        final Article article;
+        final Issue issue;
+        final List<Author> authors;
+        final Runnable marker;
+        Item(Article article, Issue issue, List<Author> authors, Runnable marker) {
+            this.article = article;
+            this.issue = issue;
+            this.authors = authors;
+            this.marker = marker;
+        }
+    }
+
+    /** Una escritura contra el store (save o saveAuthors). */
+    private interface StoreWrite {
+        void run() throws IOException;
+    }
+
+    private final ArticleStore store;
+    private final BlockingQueue<Item> queue;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final Thread worker;
+    private volatile boolean closed;
+    private volatile Throwable failure; // != null: el hilo escritor murió
+
+    // Métricas
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder failedRows = new LongAdder();
+    private final LongAdder batchNanos = new LongAdder();
+    private final AtomicLong maxBatchNanos = new AtomicLong();
+    private final AtomicLong maxBatchRows = new AtomicLong();
+
+    public WriteBehindWriter(ArticleStore store, int queueCapacity, int batchSize, long lingerMs) {
+        this.store = store;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        this.worker = new Thread(this::run, "write-behind");
+        this.worker.start();
+    }
+
+    /** WRITER_QUEUE_CAPACITY / WRITER_BATCH_SIZE / WRITER_LINGER_MS. */
+    public static WriteBehindWriter fromEnv(ArticleStore store) {
+        return new WriteBehindWriter(store,
+                Env.intValue("WRITER_QUEUE_CAPACITY", 10_000),
+                Env.intValue("WRITER_BATCH_SIZE", 500),
+                Env.intValue("WRITER_LINGER_MS", 200));
+    }
+
+    /** Encola (bloquea si la cola está llena: back-pressure hacia los hilos de fetch). */
+    public void submit(List<Article> articles, List<Issue> issues) throws InterruptedException {
+        ensureOpen();
+        if (articles != null) for (Article a : articles) enqueue(new Item(a, null, null, null));
+        if (issues != null) for (Issue i : issues) enqueue(new Item(null, i, null, null));
+    }
+
+    /** Encola perfiles de autor; se guardan en su propio saveAuthors(), antes de cualquier marcador posterior. */
+    public void submitAuthors(List<Author> authors) throws InterruptedException {
+        ensureOpen();
+        if (authors != null && !authors.isEmpty()) enqueue(new Item(null, null, new ArrayList<>(authors), null));
+    }
+
+    /**
+     * Runs callback on the writer thread once everything submitted before it is committed.
+     * Skipped if any batch since the previous marker failed (so checkpoints never get ahead of the store).
+     */
+    public void afterCommitted(Runnable callback) throws InterruptedException {
+        ensureOpen();
+        enqueue(new Item(null, null, null, callback));
+    }
+
+    /** put() con espera acotada: si el escritor muere con la cola llena, el productor no se queda colgado. */
+    private void enqueue(Item it) throws InterruptedException {
+        while (!queue.offer(it, 100, TimeUnit.MILLISECONDS)) ensureOpen();
+    }
+
+    private void ensureOpen() {
+        if (failure != null) throw new IllegalStateException("WriteBehindWriter stopped: " + failure, failure);
+        if (closed) throw new IllegalStateException("WriteBehindWriter is closed");
+    }
+
+    private void run() {
+        try {
+            runLoop();
+        } catch (Throwable t) {
+            failure = t;
+            int lost = queue.size();
+            queue.clear();
+            failedRows.add(lost);
+            System.err.println("Write-behind writer stopped (" + lost + " queued row(s) dropped): " + t);
+        }
+    }
+
+    private void runLoop() {
+        List<Article> arts = new ArrayList<>(batchSize);
+        List<Issue> iss = new ArrayList<>();
+        List<Item> drained = new ArrayList<>(batchSize);
+        boolean failedSinceMarker = false;
+        long batchStart = 0;
+
+        while (!(closed && queue.isEmpty())) {
+            try {
+                Item first = queue.poll(10, TimeUnit.MILLISECONDS);
+                if (first != null) drained.add(first);
+            } catch (InterruptedException ignored) {
+                // Se sale solo cuando closed y la cola está vacía
+            }
+            queue.drainTo(drained, batchSize);
+
+            for (Item it : drained) {
+                if (it.marker != null) {
+                    // Todo lo anterior al marcador debe quedar confirmado antes de ejecutarlo
+                    failedSinceMarker |= !flush(arts, iss);
+                    batchStart = 0;
+                    if (!failedSinceMarker) runMarker(it.marker);
+                    failedSinceMarker = false;
+                    continue;
+                }
+                if (it.authors != null) {
+                    failedSinceMarker |= !commit(it.authors.size(), () -> store.saveAuthors(it.authors));
+                    continue;
+                }
+                if (it.article != null) arts.add(it.article);
+                if (it.issue != null) iss.add(it.issue);
+                if (batchStart == 0) batchStart = System.nanoTime();
+                if (arts.size() + iss.size() >= batchSize) {
+                    failedSinceMarker |= !flush(arts, iss);
+                    batchStart = 0;
+                }
+            }
+            drained.clear();
+
+            boolean due = batchStart != 0 && System.nanoTime() - batchStart >= lingerNanos;
+            if (due || (closed && queue.isEmpty())) {
+                failedSinceMarker |= !flush(arts, iss);
+                batchStart = 0;
+            }
+        }
+        flush(arts, iss); // lo que quedara entre la última comprobación y el cierre
+    }
+
+    private void runMarker(Runnable marker) {
+        try {
+            marker.run();
+        } catch (RuntimeException e) {
+            System.err.println("Write-behind callback failed: " + e.getMessage());
+        }
+    }
+
+    /** Un lote = un save() atómico. Devuelve false si el lote se descartó. */
+    private boolean flush(List<Article> arts, List<Issue> iss) {
+        int n = arts.size() + iss.size();
+        if (n == 0) return true;
+        boolean ok = commit(n, () -> store.save(arts, iss));
+        arts.clear();
+        iss.clear();
+        return ok;
+    }
+
+    /** Ejecuta una escritura de n filas con hasta 3 intentos. Devuelve false si se descartó. */
+    private boolean commit(int n, StoreWrite write) {
+        long t0 = System.nanoTime();
+        Exception last = null;
+        for (int attempt = 1; attempt <= 3; attempt++) {
+            try {
+                write.run();
+                long took = System.nanoTime() - t0;
+                batches.increment();
+                rows.add(n);
+                batchNanos.add(took);
+                maxBatchNanos.accumulateAndGet(took, Math::max);
+                maxBatchRows.accumulateAndGet(n, Math::max);
+                return true;
+            } catch (IOException e) {
+                last = e;
+                try { Thread.sleep(200L * attempt); } catch (InterruptedException ignored) {}
+            } catch (RuntimeException e) {
+                // Error de configuración o bug del store: reintentar no cambia nada, y el hilo debe seguir vivo
+                last = e;
+                break;
+            }
+        }
+        System.err.println("Write-behind batch of " + n + " row(s) dropped: " + last.getMessage());
+        failedBatches.increment();
+        failedRows.add(n);
+        return false;
+    }
+
+    /** Deja de aceptar elementos, confirma todo lo encolado y espera al hilo escritor. */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long getBatches()       { return batches.sum(); }
+    public long getRows()          { return rows.sum(); }
+    public long getFailedBatches() { return failedBatches.sum(); }
+    public long getFailedRows()    { return failedRows.sum(); }
+    public int getQueueDepth()     { return queue.size(); }
+    public long getMaxBatchRows()  { return maxBatchRows.get(); }
+
+    public double getAvgBatchMillis() {
+        long b = batches.sum();
+        return b == 0 ? 0.0 : batchNanos.sum() / 1e6 / b;
+    }
+
+    public double getMaxBatchMillis() { return maxBatchNanos.get() / 1e6; }
+}
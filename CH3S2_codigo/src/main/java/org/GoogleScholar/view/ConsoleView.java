@@ -1,14 +1,28 @@
 package org.GoogleScholar.view;
 
+import org.GoogleScholar.metrics.LatencyHistogram;
+import org.GoogleScholar.model.AggregateRow;
 import org.GoogleScholar.model.Article;
+import org.GoogleScholar.model.ArticleSnapshot;
+import org.GoogleScholar.model.ArticleStore;
+import org.GoogleScholar.model.CoauthorGraph;
+import org.GoogleScholar.model.Db;
 import org.GoogleScholar.model.Issue;
+import org.GoogleScholar.model.LogArticleStore;
+import org.GoogleScholar.model.PoolStats;
+import org.GoogleScholar.model.RefreshCandidate;
+import org.GoogleScholar.model.WriteBehindWriter;
 
 import java.util.List;
+import java.util.Map;
 
 public class ConsoleView {
 
+    /** Lo que se muestra cuando el artículo no trae id (en la BD queda NULL). */
+    public static final String ID_MISSING = "No se encontró id";
+
     public void savedToDbNotice(int count) {
-        System.out.println("✔ Saved to MySQL: " + count + " article(s).");
+        System.out.println("✔ Saved: " + count + " article(s).");
     }
 
     public void renderArticles(List<Article> arts) {
@@ -16,7 +30,7 @@ public class ConsoleView {
         int i = 1;
         for (Article a : arts) {
             System.out.printf("%2d) [%s] %s%n", i++, a.getAuthorQuery(), a.getTitle());
-            System.out.printf("    id      : %s%n", a.getArticleId());
+            System.out.printf("    id      : %s%n", a.getArticleId() == null ? ID_MISSING : a.getArticleId());
             System.out.printf("    authors : %s%n", a.getAuthors());
             System.out.printf("    date    : %s%n", a.getPublicationDate());
             System.out.printf("    cites   : %s%n", (a.getCitedBy() == null || a.getCitedBy() < 0) ? "No se encontró cites" : a.getCitedBy());
@@ -44,4 +58,147 @@ public class ConsoleView {
             );
         }
     }
+
+    public void renderPoolStats(PoolStats st) {
+        System.out.printf("DB pool: active=%d idle=%d total=%d waiting=%d | borrows=%d avgWait=%.2fms maxWait=%.2fms%n",
+                st.getActive(), st.getIdle(), st.getTotal(), st.getWaiting(),
+                st.getAcquired(), st.getAvgWaitMillis(), st.getMaxWaitMillis());
+    }
+
+    /** Pool de MySQL si está en uso; para el store en fichero, filas, segmentos y basura pendiente. */
+    public void renderStoreStats(ArticleStore store) {
+        if (store instanceof LogArticleStore log) {
+            long total = log.getTotalBytes(), live = log.getLiveBytes();
+            System.out.printf("Log store: rows=%d issues=%d authors=%d | %d segment(s), %.1f MB (%.0f%% live) | compactions=%d%n",
+                    log.getRows(), log.getIssues(), log.getAuthors(), log.getSegments(), total / 1048576.0,
+                    total == 0 ? 100.0 : 100.0 * live / total, log.getCompactions());
+        } else if (Db.isStarted()) {
+            renderPoolStats(Db.stats());
+        }
+    }
+
+    public void renderCacheStats(long hits, long misses, int entries, long bytes) {
+        long total = hits + misses;
+        System.out.printf("Response cache: hits=%d misses=%d (%.0f%% hit) | %d entries, %.1f KB%n",
+                hits, misses, total == 0 ? 0.0 : 100.0 * hits / total, entries, bytes / 1024.0);
+    }
+
+    public void renderArchiveStats(int pages, int segments, long compressedBytes, long rawBytes) {
+        System.out.printf("Response archive: %d page(s) in %d segment(s) | %.1f KB (%.1f KB raw, %.1fx)%n",
+                pages, segments, compressedBytes / 1024.0, rawBytes / 1024.0,
+                compressedBytes == 0 ? 0.0 : (double) rawBytes / compressedBytes);
+    }
+
+    public void renderApiKeyStats(String key, String state, long requests, long throttled, long remaining, double rate) {
+        System.out.printf("SerpAPI key %s: %s | %d request(s), %d x 429 | %s left | %.2f req/s%n",
+                key, state, requests, throttled, remaining < 0 ? "?" : String.valueOf(remaining), rate);
+    }
+
+    public void renderQueryServerStats(long requests, long hits, long misses, long notModified, int entries, long bytes) {
+        long total = hits + misses;
+        System.out.printf("Query service: %d request(s) | cache hits=%d misses=%d (%.0f%% hit), %d x 304 | %d entries, %.1f KB%n",
+                requests, hits, misses, total == 0 ? 0.0 : 100.0 * hits / total, notModified, entries, bytes / 1024.0);
+    }
+
+    /** Tabla de latencias por etapa (ms) y línea de contadores. */
+    public void renderMetrics(List<LatencyHistogram> stages, Map<String, Long> counters) {
+        if (stages.isEmpty() && counters.isEmpty()) return;
+        System.out.println("--- Stage latencies (ms) ---");
+        System.out.printf("%-26s %9s %9s %9s %9s %9s %11s%n", "stage", "count", "p50", "p90", "p99", "max", "total");
+        for (LatencyHistogram h : stages) {
+            System.out.printf("%-26s %9d %9.2f %9.2f %9.2f %9.2f %11.1f%n", h.getName(), h.getCount(),
+                    h.getP50Millis(), h.getP90Millis(), h.getP99Millis(), h.getMaxMillis(), h.getTotalMillis());
+        }
+        if (!counters.isEmpty()) {
+            StringBuilder sb = new StringBuilder("Counters:");
+            counters.forEach((k, v) -> sb.append(' ').append(k).append('=').append(v));
+            System.out.println(sb);
+        }
+    }
+
+    public void renderBatchSummary(long authors, long articles, long issues, long apiCalls, double seconds) {
+        double s = seconds <= 0 ? 1e-9 : seconds;
+        System.out.println("\n=== Batch finished ===");
+        System.out.printf("Authors : %d (%.2f authors/s)%n", authors, authors / s);
+        System.out.printf("Articles: %d (%.2f articles/s)%n", articles, articles / s);
+        System.out.printf("Issues  : %d%n", issues);
+        System.out.printf("API calls: %d | elapsed %.1fs%n", apiCalls, seconds);
+    }
+
+    public void renderWriterStats(WriteBehindWriter w) {
+        System.out.printf("DB writer: %d batch(es), %d row(s) | avg %.1fms max %.1fms, largest %d rows | failed %d batch(es)/%d row(s), queued %d%n",
+                w.getBatches(), w.getRows(), w.getAvgBatchMillis(), w.getMaxBatchMillis(), w.getMaxBatchRows(),
+                w.getFailedBatches(), w.getFailedRows(), w.getQueueDepth());
+    }
+
+    public void renderDedupStats(long skipped, int known, long bloomBytes) {
+        System.out.printf("Dedup filter: %d duplicate(s) skipped | %d known article(s), bloom %.1f KB%n",
+                skipped, known, bloomBytes / 1024.0);
+    }
+
+    public void renderEnrichmentStats(long lookups, long fetches, long cacheHits, long coalesced, long failures, int cached) {
+        System.out.printf("Author profiles: %d lookup(s) → %d request(s) | %d cache hit(s), %d coalesced, %d failed | %d cached%n",
+                lookups, fetches, cacheHits, coalesced, failures, cached);
+    }
+
+    public void renderSnapshotSummary(ArticleSnapshot s, double loadMillis) {
+        System.out.printf("Snapshot: %d article(s), %d author quer(ies), %d keyword(s) | missing: year=%d cites=%d keywords=%d id=%d | loaded in %.0fms%n",
+                s.size(), s.distinctAuthorQueries(), s.distinctKeywords(),
+                s.missingYears(), s.missingCitations(), s.missingKeywords(), s.missingIds(), loadMillis);
+    }
+
+    public void renderAggregates(String title, List<AggregateRow> rows, double millis) {
+        System.out.printf("%n=== %s (%.1fms) ===%n", title, millis);
+        for (AggregateRow r : rows) {
+            System.out.printf(" %-40s %s %6d article(s) %9d cites (avg %.1f)%n",
+                    r.getLabel(), r.getYear() == 0 ? "    " : String.valueOf(r.getYear()),
+                    r.getArticles(), r.getCitations(), r.getAvgCitations());
+        }
+    }
+
+    public void renderTopCited(List<Article> arts, double millis) {
+        System.out.printf("%n=== Most cited (%.1fms) ===%n", millis);
+        int i = 1;
+        for (Article a : arts) {
+            System.out.printf("%2d) %6d  [%s] %s (%s)%n", i++, a.getCitedBy(), a.getAuthorQuery(), a.getTitle(),
+                    a.getPublicationDate() == null ? "s/f" : a.getPublicationDate());
+        }
+    }
+
+    public void renderGraphSummary(CoauthorGraph g, double buildMillis) {
+        System.out.printf("Co-author graph: %d author(s), %d edge(s), %d component(s), largest %d | ready in %.0fms%n",
+                g.nodeCount(), g.edgeCount(), g.componentCount(), g.largestComponentSize(), buildMillis);
+    }
+
+    public void renderCollaborators(String author, List<CoauthorGraph.Collaborator> top, int componentSize) {
+        if (top.isEmpty()) {
+            System.out.println("No co-authors found for " + author + ".");
+            return;
+        }
+        System.out.println("\n=== Top co-authors of " + author + " (component of " + componentSize + " author(s)) ===");
+        int i = 1;
+        for (CoauthorGraph.Collaborator c : top) {
+            System.out.printf("%2d) %-40s %d shared paper(s)%n", i++, c.getName(), c.getSharedPapers());
+        }
+    }
+
+    public void renderCollaborationPath(String from, String to, List<String> path) {
+        if (path.isEmpty()) {
+            System.out.println("No collaboration path between " + from + " and " + to + ".");
+            return;
+        }
+        System.out.println("Path (" + (path.size() - 1) + " hop(s)): " + String.join(" → ", path));
+    }
+
+    public void renderRefreshPlan(List<RefreshCandidate> plan) {
+        if (plan.isEmpty()) {
+            System.out.println("✓ Nothing to refresh.");
+            return;
+        }
+        System.out.println("\n=== Refresh plan (" + plan.size() + " author(s)) ===");
+        for (RefreshCandidate c : plan) {
+            System.out.printf(" - %-40s %3d article(s) | stale %.1fd | +%.2f cites/day | priority %.1f%n",
+                    c.getAuthorQuery(), c.getArticles(), c.getStaleDays(), c.getCitationsPerDay(), c.getPriority());
+        }
+    }
 }
@@ -0,0 +1,96 @@
+package org.GoogleScholar.view;
+
+import org.GoogleScholar.model.Article;
+import org.GoogleScholar.model.ArticleStore;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Table model over every stored article that only keeps a few row blocks in memory.
+ * Row ids are loaded once (newest first); a block is fetched in background with a keyset
+ * page (id &lt; id of the previous row) the first time one of its rows is painted, and the
+ * least recently used blocks are dropped. All state is touched on the EDT only.
+ */
+@SuppressWarnings("serial") // guarda el store y bloques de filas: nunca se serializa
+public class LazyArticleTableModel extends AbstractTableModel {
+
+    private static final String LOADING = "Cargando…";
+
+    private final ArticleStore store;
+    private final long[] ids;
+    private final int blockSize;
+    private final Map<Integer, List<Article>> blocks;
+    private final Set<Integer> loading = new HashSet<>();
+    private BiConsumer<Integer, Integer> onRowsLoaded = (from, to) -> {};
+
+    public LazyArticleTableModel(ArticleStore store, long[] idsNewestFirst, int blockSize, int maxBlocks) {
+        this.store = store;
+        this.ids = idsNewestFirst;
+        this.blockSize = blockSize;
+        this.blocks = new LinkedHashMap<>(maxBlocks + 1, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<Integer, List<Article>> e) {
+                return size() > maxBlocks;
+            }
+        };
+    }
+
+    /** Callback (EDT) con el rango de filas [from, to] recién cargado, p. ej. para fijar alturas. */
+    public void setOnRowsLoaded(BiConsumer<Integer, Integer> listener) {
+        this.onRowsLoaded = listener;
+    }
+
+    /** Artículo de la fila si su bloque ya está en memoria; si no, pide el bloque y devuelve null. */
+    public Article getArticleIfLoaded(int row) {
+        int block = row / blockSize;
+        List<Article> b = blocks.get(block);
+        if (b == null) {
+            requestBlock(block);
+            return null;
+        }
+        int i = row - block * blockSize;
+        return i < b.size() ? b.get(i) : null;
+    }
+
+    @Override public int getRowCount()               { return ids.length; }
+    @Override public int getColumnCount()            { return TableWindow.COLUMNS.length; }
+    @Override public String getColumnName(int c)     { return TableWindow.COLUMNS[c]; }
+    @Override public boolean isCellEditable(int r, int c) { return false; }
+
+    @Override
+    public Object getValueAt(int row, int col) {
+        Article a = getArticleIfLoaded(row);
+        if (a == null) return col == 2 ? LOADING : "";
+        return TableWindow.cellValue(a, col);
+    }
+
+    private void requestBlock(int block) {
+        if (!loading.add(block)) return;
+        int from = block * blockSize;
+        int to = Math.min(ids.length, from + blockSize) - 1;
+        Long before = from == 0 ? null : ids[from - 1];
+
+        new SwingWorker<List<Article>, Void>() {
+            @Override protected List<Article> doInBackground() throws Exception {
+                return store.findPage(before, blockSize);
+            }
+            @Override protected void done() {
+                loading.remove(block);
+                try {
+                    blocks.put(block, get());
+                } catch (Exception e) {
+                    System.err.println("Could not load rows " + from + "-" + to + ": " + e.getMessage());
+                    return;
+                }
+                fireTableRowsUpdated(from, to);
+                onRowsLoaded.accept(from, to);
+            }
+        }.execute();
+    }
+}
@@ -1,16 +1,41 @@
 package org.GoogleScholar.view;
 
 import org.GoogleScholar.model.Article;
+import org.GoogleScholar.model.ArticleStore;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableCellRenderer;
+import javax.swing.table.TableColumn;
+import javax.swing.table.TableModel;
 import java.awt.*;
-import java.util.List;
 
 public class TableWindow {
 
-    /** Renderer multilinea para Abstract (usa JTextArea y ajusta alto). */
+    static final String[] COLUMNS = {"Author Query", "Article ID", "Title", "Authors", "Date", "Citations", "Link", "Keywords", "Abstract"};
+    private static final int ABSTRACT_COL = 8;
+    private static final int MIN_ROW_HEIGHT = 60;
+
+    /** Valor de la celda (col) para un artículo (lo usa LazyArticleTableModel). */
+    static Object cellValue(Article a, int col) {
+        return switch (col) {
+            case 0 -> a.getAuthorQuery();
+            case 1 -> a.getArticleId() == null ? ConsoleView.ID_MISSING : a.getArticleId();
+            case 2 -> a.getTitle();
+            case 3 -> a.getAuthors();
+            case 4 -> a.getPublicationDate();
+            case 5 -> (a.getCitedBy() == null || a.getCitedBy() < 0) ? "No se encontró cites" : a.getCitedBy();
+            case 6 -> a.getLink();
+            case 7 -> a.getKeywords();
+            case 8 -> a.getAbstractText();
+            default -> null;
+        };
+    }
+
+    /**
+     * Renderer multilinea para Abstract (usa JTextArea). Solo pinta: el alto de fila se
+     * calcula una vez al cargar las filas (ver applyRowHeights), nunca durante el render.
+     */
+    @SuppressWarnings("serial") // componente Swing: nunca se serializa
     static class TextAreaRenderer extends JTextArea implements TableCellRenderer {
         public TextAreaRenderer() {
             setLineWrap(true);
@@ -22,10 +47,6 @@ public class TableWindow {
                                                        boolean isSelected, boolean hasFocus,
                                                        int row, int column) {
             setText(value == null ? "" : value.toString());
-            setSize(table.getColumnModel().getColumn(column).getWidth(), getPreferredSize().height);
-            // Ajusta alto de fila a lo necesario (mínimo 60px)
-            int h = Math.max(60, getPreferredSize().height);
-            if (table.getRowHeight(row) != h) table.setRowHeight(row, h);
             if (isSelected) {
                 setBackground(table.getSelectionBackground());
                 setForeground(table.getSelectionForeground());
@@ -37,62 +58,76 @@ public class TableWindow {
         }
     }
 
-    /** Dialog modal con los artículos; bloquea hasta cerrar. */
-    public static void showArticlesModal(List<Article> arts) {
-        try {
-            SwingUtilities.invokeAndWait(() -> {
-                String[] cols = {"Author Query", "Article ID", "Title", "Authors", "Date", "Citations", "Link", "Keywords", "Abstract"};
-                Object[][] data = new Object[arts.size()][cols.length];
-                for (int i = 0; i < arts.size(); i++) {
-                    Article a = arts.get(i);
-                    data[i][0] = a.getAuthorQuery();
-                    data[i][1] = a.getArticleId();
-                    data[i][2] = a.getTitle();
-                    data[i][3] = a.getAuthors();
-                    data[i][4] = a.getPublicationDate();
-                    data[i][5] = (a.getCitedBy() == null || a.getCitedBy() < 0) ? "No se encontró cites" : a.getCitedBy();
-                    data[i][6] = a.getLink();
-                    data[i][7] = a.getKeywords();
-                    data[i][8] = a.getAbstractText();
-                }
+    /** Mide (fuera del render) el alto que necesita el abstract de cada fila del rango [from, to]. */
+    private static void applyRowHeights(JTable table, int from, int to) {
+        TableColumn col = table.getColumnModel().getColumn(table.convertColumnIndexToView(ABSTRACT_COL));
+        JTextArea measure = new JTextArea();
+        measure.setLineWrap(true);
+        measure.setWrapStyleWord(true);
+        measure.setFont(table.getFont());
+        for (int viewRow = from; viewRow <= to && viewRow < table.getRowCount(); viewRow++) {
+            Object v = table.getValueAt(viewRow, table.convertColumnIndexToView(ABSTRACT_COL));
+            measure.setText(v == null ? "" : v.toString());
+            measure.setSize(col.getPreferredWidth(), Short.MAX_VALUE); // AUTO_RESIZE_OFF: ancho = preferido
+            int h = Math.max(MIN_ROW_HEIGHT, measure.getPreferredSize().height);
+            if (table.getRowHeight(viewRow) != h) table.setRowHeight(viewRow, h);
+        }
+    }
+
+    private static JTable buildTable(TableModel model) {
+        JTable table = new JTable(model);
+        table.setFillsViewportHeight(true);
+        table.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
+        table.setRowHeight(MIN_ROW_HEIGHT);
 
-                JTable table = new JTable(new DefaultTableModel(data, cols) {
-                    @Override public boolean isCellEditable(int r, int c) { return false; }
-                });
-                table.setAutoCreateRowSorter(true);
-                table.setFillsViewportHeight(true);
-                table.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
+        // Anchos más cómodos
+        table.getColumnModel().getColumn(0).setPreferredWidth(140);
+        table.getColumnModel().getColumn(1).setPreferredWidth(120);
+        table.getColumnModel().getColumn(2).setPreferredWidth(300);
+        table.getColumnModel().getColumn(3).setPreferredWidth(240);
+        table.getColumnModel().getColumn(4).setPreferredWidth(70);
+        table.getColumnModel().getColumn(5).setPreferredWidth(85);
+        table.getColumnModel().getColumn(6).setPreferredWidth(300);
+        table.getColumnModel().getColumn(7).setPreferredWidth(160);
+        table.getColumnModel().getColumn(8).setPreferredWidth(420); // Abstract más ancho
 
-                // Anchos más cómodos
-                table.getColumnModel().getColumn(0).setPreferredWidth(140);
-                table.getColumnModel().getColumn(1).setPreferredWidth(120);
-                table.getColumnModel().getColumn(2).setPreferredWidth(300);
-                table.getColumnModel().getColumn(3).setPreferredWidth(240);
-                table.getColumnModel().getColumn(4).setPreferredWidth(70);
-                table.getColumnModel().getColumn(5).setPreferredWidth(85);
-                table.getColumnModel().getColumn(6).setPreferredWidth(300);
-                table.getColumnModel().getColumn(7).setPreferredWidth(160);
-                table.getColumnModel().getColumn(8).setPreferredWidth(420); // Abstract más ancho
+        // Renderer multilinea solo para Abstract (columna 8)
+        table.getColumnModel().getColumn(ABSTRACT_COL).setCellRenderer(new TextAreaRenderer());
+        return table;
+    }
 
-                // Renderer multilinea solo para Abstract (columna 8)
-                table.getColumnModel().getColumn(8).setCellRenderer(new TextAreaRenderer());
+    private static void showDialog(String title, JTable table) {
+        JScrollPane scroll = new JScrollPane(table);
 
-                JScrollPane scroll = new JScrollPane(table);
+        JButton closeBtn = new JButton("Close");
+        closeBtn.addActionListener(e -> SwingUtilities.getWindowAncestor(closeBtn).dispose());
+        JPanel south = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        south.add(closeBtn);
 
-                JButton closeBtn = new JButton("Close");
-                closeBtn.addActionListener(e -> SwingUtilities.getWindowAncestor(closeBtn).dispose());
-                JPanel south = new JPanel(new FlowLayout(FlowLayout.RIGHT));
-                south.add(closeBtn);
+        JDialog dialog = new JDialog((Frame) null, title, true);
+        dialog.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+        dialog.getContentPane().setLayout(new BorderLayout());
+        dialog.getContentPane().add(scroll, BorderLayout.CENTER);
+        dialog.getContentPane().add(south, BorderLayout.SOUTH);
+        dialog.setSize(1300, 650);
+        dialog.setAlwaysOnTop(true);
+        dialog.setLocationRelativeTo(null);
+        dialog.setVisible(true);
+    }
 
-                JDialog dialog = new JDialog((Frame) null, "Articles in DB", true);
-                dialog.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
-                dialog.getContentPane().setLayout(new BorderLayout());
-                dialog.getContentPane().add(scroll, BorderLayout.CENTER);
-                dialog.getContentPane().add(south, BorderLayout.SOUTH);
-                dialog.setSize(1300, 650);
-                dialog.setAlwaysOnTop(true);
-                dialog.setLocationRelativeTo(null);
-                dialog.setVisible(true);
+    /**
+     * Dialog modal que navega todos los artículos guardados: las filas se cargan por bloques
+     * al hacer scroll (LazyArticleTableModel) y solo se guardan unos pocos bloques.
+     */
+    public static void showArticlesBrowser(ArticleStore store) {
+        try {
+            long[] ids = store.findIdsNewestFirst(); // fuera del EDT
+            SwingUtilities.invokeAndWait(() -> {
+                LazyArticleTableModel model = new LazyArticleTableModel(store, ids, 200, 20);
+                JTable table = buildTable(model);
+                // Sin row sorter: ordenar exigiría cargar todas las filas
+                model.setOnRowsLoaded((from, to) -> applyRowHeights(table, from, to));
+                showDialog("Articles in DB (" + ids.length + ")", table);
             });
         } catch (Exception e) {
             throw new RuntimeException("Failed to open articles window", e);
@@ -0,0 +1,74 @@
+package org.GoogleScholar.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Closed → open after consecutive failures → one half-open trial → closed or open again. */
+class CircuitBreakerTest {
+
+    private static final long OPEN_MS = 50;
+
+    private static CircuitBreaker opened() {
+        CircuitBreaker b = new CircuitBreaker(3, OPEN_MS);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(b.allowRequest());
+            b.onFailure();
+        }
+        return b;
+    }
+
+    @Test
+    void opensOnlyAfterThresholdConsecutiveFailures() {
+        CircuitBreaker b = new CircuitBreaker(3, OPEN_MS);
+        b.onFailure();
+        b.onFailure();
+        b.onSuccess(); // corta la racha
+        b.onFailure();
+        b.onFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, b.getState());
+        assertTrue(b.allowRequest());
+
+        b.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, b.getState());
+        assertFalse(b.allowRequest());
+        assertEquals(1, b.getOpens());
+    }
+
+    @Test
+    void halfOpenAdmitsOneTrialAndItsSuccessCloses() throws InterruptedException {
+        CircuitBreaker b = opened();
+        Thread.sleep(OPEN_MS + 10);
+        assertTrue(b.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, b.getState());
+        assertFalse(b.allowRequest(), "only one trial while half-open");
+
+        b.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, b.getState());
+        assertTrue(b.allowRequest());
+        assertTrue(b.allowRequest());
+    }
+
+    @Test
+    void aFailedTrialReopensAtOnce() throws InterruptedException {
+        CircuitBreaker b = opened();
+        Thread.sleep(OPEN_MS + 10);
+        assertTrue(b.allowRequest());
+        b.onFailure(); // un solo fallo basta en half-open
+        assertEquals(CircuitBreaker.State.OPEN, b.getState());
+        assertFalse(b.allowRequest());
+        assertEquals(2, b.getOpens());
+    }
+
+    @Test
+    void releaseFreesTheTrialSlotWithoutJudgingTheUpstream() throws InterruptedException {
+        CircuitBreaker b = opened();
+        Thread.sleep(OPEN_MS + 10);
+        assertTrue(b.allowRequest());
+        b.release();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, b.getState());
+        assertTrue(b.allowRequest(), "released slot must admit the next trial");
+    }
+}
@@ -0,0 +1,125 @@
+package org.GoogleScholar.controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/** Retries, breaker and key rotation of the scheduler, against a scripted upstream (no network). */
+class RequestSchedulerTest {
+
+    private static final byte[] OK = "{}".getBytes(StandardCharsets.UTF_8);
+
+    /** Upstream que responde con los estados dados en orden (el último se repite) y anota la clave usada. */
+    private static final class Script implements RequestScheduler.Call {
+        final List<String> keysUsed = new ArrayList<>();
+        private final Iterator<Integer> statuses;
+        private int last;
+
+        Script(Integer... statuses) {
+            this.statuses = List.of(statuses).iterator();
+        }
+
+        @Override
+        public RequestScheduler.Response execute(String apiKey) throws IOException {
+            keysUsed.add(apiKey);
+            if (statuses.hasNext()) last = statuses.next();
+            if (last == HttpError.NETWORK) throw new IOException("connection reset");
+            byte[] body = last == 200 ? OK : ("status " + last).getBytes(StandardCharsets.UTF_8);
+            return new RequestScheduler.Response(last, body, null);
+        }
+    }
+
+    /** Backoff de 1 ms para que los reintentos no alarguen el test. */
+    private static RequestScheduler scheduler(int maxAttempts, int breakerThreshold) {
+        return new RequestScheduler(maxAttempts, 1, 1, breakerThreshold, 60_000);
+    }
+
+    private static ApiKeyPool keys(String spec) {
+        return new ApiKeyPool(spec, 1000, 100, -1, 0);
+    }
+
+    @Test
+    void retryableStatusesAreRetriedUntilSuccess() throws HttpError {
+        RequestScheduler s = scheduler(4, 10);
+        Script up = new Script(503, 502, 200);
+        assertArrayEquals(OK, s.execute(keys("k1"), up));
+        assertEquals(3, up.keysUsed.size());
+        assertEquals(2, s.getRetries());
+        assertEquals("CLOSED", s.getBreakerState());
+    }
+
+    @Test
+    void aDefinitiveClientErrorIsNotRetried() {
+        RequestScheduler s = scheduler(4, 10);
+        Script up = new Script(400);
+        HttpError e = assertThrows(HttpError.class, () -> s.execute(keys("k1"), up));
+        assertEquals(400, e.getStatusCode());
+        assertEquals(1, up.keysUsed.size());
+    }
+
+    @Test
+    void networkErrorsEndInANetworkErrorAfterMaxAttempts() {
+        RequestScheduler s = scheduler(3, 10);
+        Script up = new Script(HttpError.NETWORK);
+        HttpError e = assertThrows(HttpError.class, () -> s.execute(keys("k1"), up));
+        assertEquals(HttpError.NETWORK, e.getStatusCode());
+        assertEquals(3, up.keysUsed.size());
+    }
+
+    @Test
+    void theBreakerOpensAndLaterCallsFailWithoutReachingTheUpstream() {
+        RequestScheduler s = scheduler(10, 3);
+        Script up = new Script(503);
+        HttpError e = assertThrows(HttpError.class, () -> s.execute(keys("k1"), up));
+        assertEquals(HttpError.CIRCUIT_OPEN, e.getStatusCode());
+        assertEquals(3, up.keysUsed.size());
+
+        e = assertThrows(HttpError.class, () -> s.execute(keys("k1"), up));
+        assertEquals(HttpError.CIRCUIT_OPEN, e.getStatusCode());
+        assertEquals(3, up.keysUsed.size());
+        assertEquals(1, s.getBreakerOpens());
+        assertEquals(2, s.getRejectedByBreaker()); // el 4º intento de la primera llamada y la segunda
+    }
+
+    @Test
+    void a429IsRetriedOnAnotherKeyAndDoesNotCountAsAnUpstreamFailure() throws HttpError {
+        RequestScheduler s = scheduler(4, 1);
+        Script up = new Script(429, 200);
+        assertArrayEquals(OK, s.execute(keys("k1,k2"), up));
+        assertEquals(2, up.keysUsed.size());
+        assertNotEquals(up.keysUsed.get(0), up.keysUsed.get(1));
+        assertEquals(1, s.getThrottled());
+        assertEquals("CLOSED", s.getBreakerState());
+    }
+
+    @Test
+    void anInvalidKeyIsRetiredAndTheLastOneEndsInKeysExhausted() throws HttpError {
+        RequestScheduler s = scheduler(1, 1);
+        Script up = new Script(401, 200);
+        assertArrayEquals(OK, s.execute(keys("bad,good"), up)); // no consume intento
+        assertEquals("good", up.keysUsed.get(1));
+
+        HttpError e = assertThrows(HttpError.class, () -> s.execute(keys("bad"), new Script(401)));
+        assertEquals(HttpError.KEYS_EXHAUSTED, e.getStatusCode());
+        assertEquals("CLOSED", s.getBreakerState());
+    }
+
+    @Test
+    void retryAfterIsReadAsSecondsOrHttpDate() {
+        assertEquals(2000L, RequestScheduler.parseRetryAfter(" 2 "));
+        assertEquals(0L, RequestScheduler.parseRetryAfter("-3"));
+        assertEquals(0L, RequestScheduler.parseRetryAfter("Wed, 21 Oct 2015 07:28:00 GMT")); // ya pasó
+        assertNull(RequestScheduler.parseRetryAfter(""));
+        assertNull(RequestScheduler.parseRetryAfter("soon"));
+    }
+}
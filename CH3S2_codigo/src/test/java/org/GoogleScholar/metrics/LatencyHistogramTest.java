@@ -0,0 +1,81 @@
+package org.GoogleScholar.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Bucket boundaries of the log-linear layout and the percentiles built on them. */
+class LatencyHistogramTest {
+
+    /** Valores en torno a cada potencia de dos hasta 2^41 (el último bucket cubre hasta ahí), ordenados. */
+    private static long[] samples() {
+        long[] out = new long[41 * 5 + 64];
+        int n = 0;
+        for (long v = 0; v < 64; v++) out[n++] = v;
+        for (int exp = 1; exp <= 41; exp++) {
+            long p = 1L << exp;
+            for (long v : new long[]{p - 1, p, p + 1, p + p / 3, p + p / 2}) {
+                if (v < (1L << 41)) out[n++] = v;
+            }
+        }
+        long[] sorted = Arrays.copyOf(out, n);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    @Test
+    void everyValueFallsInsideItsBucketWithinThreePercent() {
+        for (long v : samples()) {
+            int idx = LatencyHistogram.index(v);
+            long upper = LatencyHistogram.upperBound(idx);
+            assertTrue(upper >= v, v + " above its bucket's upper bound " + upper);
+            if (idx > 0) assertTrue(LatencyHistogram.upperBound(idx - 1) < v, v + " belongs to the previous bucket");
+            assertTrue(upper - v <= v / 32, v + " reported as " + upper);
+        }
+    }
+
+    @Test
+    void valuesBelowThirtyTwoAreExactAndIndexIsMonotonic() {
+        for (int v = 0; v < 32; v++) {
+            assertEquals(v, LatencyHistogram.index(v));
+            assertEquals(v, LatencyHistogram.upperBound(v));
+        }
+        int prev = -1;
+        for (long v : samples()) {
+            int idx = LatencyHistogram.index(v);
+            assertTrue(idx >= prev, "index went backwards at " + v);
+            prev = idx;
+        }
+    }
+
+    @Test
+    void valuesBeyondTheRangeLandInTheLastBucket() {
+        int last = LatencyHistogram.index((1L << 41) - 1);
+        assertEquals(last, LatencyHistogram.index(1L << 45));
+        assertEquals(last, LatencyHistogram.index(Long.MAX_VALUE));
+        assertEquals((1L << 41) - 1, LatencyHistogram.upperBound(last));
+    }
+
+    @Test
+    void percentilesAreReportedFromAboveAndCappedAtTheMax() {
+        LatencyHistogram h = new LatencyHistogram("test");
+        assertEquals(0, h.percentileNanos(50));
+        for (long v = 1; v <= 1000; v++) h.record(v * 1000);
+
+        long p50 = h.percentileNanos(50);
+        assertTrue(p50 >= 500_000 && p50 <= 500_000 * 33 / 32, "p50 " + p50);
+        long p99 = h.percentileNanos(99);
+        assertTrue(p99 >= 990_000 && p99 <= 990_000 * 33 / 32, "p99 " + p99);
+        assertEquals(1_000_000, h.percentileNanos(100));
+        assertEquals(1000, h.getCount());
+
+        h.record(-5); // reloj que retrocede: cuenta como 0
+        assertEquals(0, h.percentileNanos(0.01));
+        h.reset();
+        assertEquals(0, h.getCount());
+        assertEquals(0, h.percentileNanos(99));
+    }
+}
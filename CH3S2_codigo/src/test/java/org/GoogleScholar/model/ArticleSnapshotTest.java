@@ -0,0 +1,121 @@
+package org.GoogleScholar.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** Aggregates of the columnar snapshot, on a small hand-checked data set. */
+class ArticleSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    private static Article article(String author, String title, String year, String keywords, Integer citedBy) {
+        return new Article(author, "id-" + title, title, "X", year, "abstract", "http://x/" + title, keywords, citedBy);
+    }
+
+    /** Dos autores en 2020–2021: autor × año cabe en arrays densos. */
+    private static List<Article> rows() {
+        List<Article> out = new ArrayList<>();
+        out.add(article("Ada", "a1", "2020", "ml, graphs", 10));
+        out.add(article("Ada", "a2", "2020", "ml", 5));
+        out.add(article("Ada", "a3", "2021", "graphs", 20));
+        out.add(article("Ada", "a4", "2021", "ml", null));  // sin citas: cuenta como artículo con 0
+        out.add(article("Alan", "b1", "2021", "logic", 7));
+        out.add(article("Alan", "b2", "2020", ArticleRepository.KW_PLACEHOLDER, 1));
+        out.add(article("Alan", "b3", "s.f.", null, 3));     // sin año ni keywords
+        return out;
+    }
+
+    private static ArticleSnapshot snapshot(List<Article> rows) {
+        ArticleSnapshot.Builder b = new ArticleSnapshot.Builder();
+        rows.forEach(b::add);
+        return b.build();
+    }
+
+    /** "label year articles citations" por fila, para comparar listas enteras. */
+    private static List<String> render(List<AggregateRow> rows) {
+        List<String> out = new ArrayList<>();
+        for (AggregateRow r : rows) out.add(r.getLabel() + " " + r.getYear() + " " + r.getArticles() + " " + r.getCitations());
+        return out;
+    }
+
+    private static List<String> titles(List<Article> rows) {
+        List<String> out = new ArrayList<>();
+        for (Article a : rows) out.add(a.getTitle());
+        return out;
+    }
+
+    @Test
+    void topAuthorQueriesSumCitationsWithinTheYearRange() {
+        ArticleSnapshot s = snapshot(rows());
+        assertEquals(List.of("Ada 0 4 35", "Alan 0 3 11"), render(s.topAuthorQueries(10, 0, 0)));
+        // Con rango de años quedan fuera las filas sin año
+        assertEquals(List.of("Ada 0 2 20", "Alan 0 1 7"), render(s.topAuthorQueries(10, 2021, 2021)));
+        assertEquals(List.of("Ada 0 4 35"), render(s.topAuthorQueries(1, 0, 0)));
+    }
+
+    @Test
+    void topKeywordsCountEveryKeywordOfAnArticle() {
+        ArticleSnapshot s = snapshot(rows());
+        assertEquals(List.of("graphs 0 2 30", "ml 0 3 15", "logic 0 1 7"), render(s.topKeywords(10, 0, 0)));
+        assertEquals(List.of("ml 0 2 15", "graphs 0 1 10"), render(s.topKeywords(10, 2020, 2020)));
+    }
+
+    @Test
+    void citationsByAuthorAndYearAgreeOnTheDenseAndHashPaths() {
+        List<String> expected = List.of("Ada 2020 2 15", "Ada 2021 2 20", "Alan 0 1 3", "Alan 2020 1 1", "Alan 2021 1 7");
+        assertEquals(expected, render(snapshot(rows()).citationsByAuthorAndYear()));
+
+        // Un año lejano amplía el rango: autor × año supera las filas y se agrega con tabla hash
+        List<Article> spread = rows();
+        spread.add(article("Grace", "c1", "1990", "compilers", 4));
+        List<String> withGrace = new ArrayList<>(expected);
+        withGrace.add("Grace 1990 1 4");
+        assertEquals(withGrace, render(snapshot(spread).citationsByAuthorAndYear()));
+    }
+
+    @Test
+    void citationsByYearOfOneAuthorKeepsRowsWithoutYearInYearZero() {
+        ArticleSnapshot s = snapshot(rows());
+        assertEquals(List.of("Alan 0 1 3", "Alan 2020 1 1", "Alan 2021 1 7"), render(s.citationsByYear("Alan")));
+        assertEquals(List.of(), s.citationsByYear("Nobody"));
+    }
+
+    @Test
+    void topCitedSkipsRowsWithoutCitationsAndFiltersByAuthorAndYear() {
+        ArticleSnapshot s = snapshot(rows());
+        assertEquals(List.of("a3", "a1"), titles(s.topCited(2, null, 0, 0)));
+        assertEquals(List.of("b1", "b3", "b2"), titles(s.topCited(5, "Alan", 0, 0)));
+        assertEquals(List.of("b1", "b2"), titles(s.topCited(5, "Alan", 2020, 2021)));
+        assertEquals(List.of("a3", "a1", "a2"), titles(s.topCited(5, "Ada", 0, 0)));
+        assertEquals(List.of(), s.topCited(5, "Nobody", 0, 0));
+    }
+
+    @Test
+    void missingValuesAreCountedPerColumn() {
+        ArticleSnapshot s = snapshot(rows());
+        assertEquals(7, s.size());
+        assertEquals(2, s.distinctAuthorQueries());
+        assertEquals(3, s.distinctKeywords());
+        assertEquals(1, s.missingYears());
+        assertEquals(1, s.missingCitations());
+        assertEquals(2, s.missingKeywords());
+    }
+
+    @Test
+    void loadingFromAStoreGivesTheSameAggregates() throws IOException {
+        try (LogArticleStore store = LogArticleStore.open(dir)) {
+            store.save(rows(), List.of());
+            ArticleSnapshot s = ArticleSnapshot.load(store);
+            assertEquals(render(snapshot(rows()).citationsByAuthorAndYear()), render(s.citationsByAuthorAndYear()));
+            assertEquals(render(snapshot(rows()).topKeywords(10, 0, 0)), render(s.topKeywords(10, 0, 0)));
+        }
+    }
+}
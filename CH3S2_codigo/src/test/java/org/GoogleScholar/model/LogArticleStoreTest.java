@@ -0,0 +1,213 @@
+package org.GoogleScholar.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Crash recovery and compaction of the log store, simulated by editing the segment files. */
+class LogArticleStoreTest {
+
+    @TempDir
+    Path dir;
+
+    /** Sin compactación automática: los tests la lanzan a mano. */
+    private LogArticleStore open() throws IOException {
+        return LogArticleStore.open(dir, 4096, false, Long.MAX_VALUE, 1.0);
+    }
+
+    private static Article article(String author, String title, int citedBy) {
+        return new Article(author, "id-" + title, title, "A. Author", "2020", "abstract " + title,
+                "http://x/" + title, "kw", citedBy);
+    }
+
+    private static Issue issue(String title) {
+        return new Issue("author", title, "missing abstract", null, null);
+    }
+
+    /** title → cited_by de todas las filas. */
+    private static Map<String, Integer> state(LogArticleStore store) throws IOException {
+        Map<String, Integer> out = new TreeMap<>();
+        store.streamAll(a -> out.put(a.getTitle(), a.getCitedBy()));
+        return out;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        List<Path> out = new ArrayList<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, "seg-*.log")) {
+            for (Path p : ds) out.add(p);
+        }
+        out.sort(null);
+        return out;
+    }
+
+    private static void truncateBy(Path file, long bytes) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.truncate(ch.size() - bytes);
+        }
+    }
+
+    @Test
+    void aSecondOpenOfTheSameDirectoryFailsUntilTheFirstIsClosed() throws IOException {
+        try (LogArticleStore store = open()) {
+            store.save(List.of(article("a", "t1", 1)), List.of());
+            IOException e = assertThrows(IOException.class, this::open);
+            assertTrue(e.getMessage().contains("already open"), e.getMessage());
+        }
+        try (LogArticleStore store = open()) {
+            assertEquals(Map.of("t1", 1), state(store));
+        }
+    }
+
+    @Test
+    void recoveryDropsTheBatchWhoseCommitWasCutOff() throws IOException {
+        try (LogArticleStore store = open()) {
+            store.save(List.of(article("a", "t1", 1), article("a", "t2", 2)), List.of(issue("t1")));
+            store.save(List.of(article("a", "t3", 3)), List.of());
+        }
+        List<Path> segs = segmentFiles();
+        truncateBy(segs.get(segs.size() - 1), 3); // parte del COMMIT del segundo lote
+
+        try (LogArticleStore store = open()) {
+            assertEquals(Map.of("t1", 1, "t2", 2), state(store));
+            assertEquals(1, store.getIssues());
+            store.save(List.of(article("a", "t4", 4)), List.of());
+        }
+        try (LogArticleStore store = open()) {
+            assertEquals(Map.of("t1", 1, "t2", 2, "t4", 4), state(store));
+        }
+    }
+
+    @Test
+    void recoveryIgnoresATornRecordAfterTheLastCommit() throws IOException {
+        try (LogArticleStore store = open()) {
+            store.save(List.of(article("a", "t1", 1)), List.of());
+        }
+        Path last = segmentFiles().get(segmentFiles().size() - 1);
+        long committed = Files.size(last);
+        try (FileChannel ch = FileChannel.open(last, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ch.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 40, 1, 2, 3})); // cabecera de un registro sin terminar
+        }
+
+        try (LogArticleStore store = open()) {
+            assertEquals(Map.of("t1", 1), state(store));
+        }
+        assertEquals(committed, Files.size(last));
+    }
+
+    /** Varias versiones por fila + incidencias + autores, repartidas en varios segmentos. */
+    private Map<String, Integer> fillWithGarbage(LogArticleStore store) throws IOException {
+        for (int round = 0; round < 5; round++) {
+            List<Article> batch = new ArrayList<>();
+            for (int i = 0; i < 20; i++) batch.add(article("a", "t" + i, round * 100 + i));
+            store.save(batch, List.of(issue("round " + round)));
+            store.saveAuthors(List.of(new Author("Author " + round, "u" + round, round, "t" + round, null)));
+        }
+        assertTrue(store.getTotalBytes() > 2 * store.getLiveBytes(), "test needs superseded versions");
+        return state(store);
+    }
+
+    private void assertReopensWith(Map<String, Integer> expected) throws IOException {
+        try (LogArticleStore store = open()) {
+            assertEquals(expected, state(store));
+            assertEquals(5, store.getIssues());
+            assertEquals(5, store.getAuthors());
+        }
+    }
+
+    @Test
+    void compactionKeepsLatestVersionsIssuesAndAuthors() throws IOException {
+        Map<String, Integer> expected;
+        try (LogArticleStore store = open()) {
+            expected = fillWithGarbage(store);
+            store.compact();
+            assertEquals(expected, state(store));
+            assertEquals(1, store.getCompactions());
+            assertTrue(store.getTotalBytes() < 2 * store.getLiveBytes());
+        }
+        assertReopensWith(expected);
+    }
+
+    @Test
+    void compactionInterruptedBeforeTheManifestReplaysOldSegmentsAndPartialCopy() throws IOException {
+        Path backup = Files.createDirectory(dir.resolveSibling(dir.getFileName() + "-old"));
+        Map<String, Integer> expected;
+        try (LogArticleStore store = open()) {
+            expected = fillWithGarbage(store);
+            for (Path p : segmentFiles()) Files.copy(p, backup.resolve(p.getFileName()));
+            store.compact();
+        }
+        // "Crash" con la copia a medias: vuelven los segmentos viejos, sin manifiesto, copia truncada
+        Files.delete(dir.resolve("compacted"));
+        List<Path> copies = segmentFiles();
+        truncateBy(copies.get(0), Files.size(copies.get(0)) / 2);
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(backup)) {
+            for (Path p : ds) Files.copy(p, dir.resolve(p.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        assertReopensWith(expected);
+        try (LogArticleStore store = open()) {
+            store.compact();
+        }
+        assertReopensWith(expected);
+    }
+
+    @Test
+    void compactionInterruptedAfterTheManifestSkipsAndDeletesOldSegments() throws IOException {
+        Path backup = Files.createDirectory(dir.resolveSibling(dir.getFileName() + "-old"));
+        Map<String, Integer> expected;
+        List<Path> old;
+        try (LogArticleStore store = open()) {
+            expected = fillWithGarbage(store);
+            old = segmentFiles();
+            for (Path p : old) Files.copy(p, backup.resolve(p.getFileName()));
+            store.compact();
+        }
+        // "Crash" (o borrado fallido) tras escribir el manifiesto: los viejos siguen en disco
+        for (Path p : old) Files.copy(backup.resolve(p.getFileName()), p);
+
+        assertReopensWith(expected);
+        for (Path p : old) assertFalse(Files.exists(p), p + " should be deleted on open");
+    }
+
+    @Test
+    void writesDuringCompactionSurviveTheIndexSwap() throws Exception {
+        Map<String, Integer> expected;
+        try (LogArticleStore store = open()) {
+            fillWithGarbage(store);
+            Thread writer = new Thread(() -> {
+                try {
+                    for (int round = 5; round < 30; round++) {
+                        store.save(List.of(article("a", "t" + (round % 20), round * 100), article("b", "new" + round, round)),
+                                List.of());
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            writer.start();
+            store.compact();
+            writer.join();
+            expected = state(store);
+            for (int round = 10; round < 30; round++) assertEquals(round * 100, expected.get("t" + (round % 20)));
+            assertEquals(45, expected.size());
+        }
+        assertReopensWith(expected);
+    }
+}
@@ -0,0 +1,69 @@
+package org.GoogleScholar.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RefreshPlannerTest {
+
+    private static final long DAY = 86_400;
+
+    /** Filas de un autor: ages[i] = segundos desde el último fetch de la fila i. */
+    private static void rows(RefreshPlanner p, String author, long... ages) {
+        for (long age : ages) p.add(author, age, null, 10, null);
+    }
+
+    private static List<String> order(RefreshPlanner p, int minStaleHours) {
+        List<String> out = new ArrayList<>();
+        for (RefreshCandidate c : p.plan(minStaleHours, 10)) out.add(c.getAuthorQuery());
+        return out;
+    }
+
+    @Test
+    void anAuthorDropsInRankAfterARefreshThatOnlyTouchedItsTopResults() {
+        RefreshPlanner before = new RefreshPlanner();
+        rows(before, "Ada", 10 * DAY, 10 * DAY, 10 * DAY, 10 * DAY, 10 * DAY);
+        rows(before, "Alan", 5 * DAY, 5 * DAY);
+        assertEquals(List.of("Ada", "Alan"), order(before, 0));
+
+        // El refresh (--per-author 3) vuelve a bajar solo 3 de los 5 artículos de Ada
+        RefreshPlanner after = new RefreshPlanner();
+        rows(after, "Ada", 60, 60, 60, 10 * DAY, 10 * DAY);
+        rows(after, "Alan", 5 * DAY, 5 * DAY);
+        assertEquals(List.of("Alan", "Ada"), order(after, 0));
+        assertEquals(List.of("Alan"), order(after, 24));
+    }
+
+    @Test
+    void velocityIsPerArticleNotSummedOverRows() {
+        RefreshPlanner p = new RefreshPlanner();
+        // Grace: 20 artículos que ganan 1 cita/día cada uno; Edsger: 2 artículos que ganan 5/día
+        for (int i = 0; i < 20; i++) p.add("Grace", 2 * DAY, 10 * DAY, 110, 100);
+        for (int i = 0; i < 2; i++) p.add("Edsger", 2 * DAY, 10 * DAY, 150, 100);
+
+        List<RefreshCandidate> plan = p.plan(0, 10);
+        assertEquals("Edsger", plan.get(0).getAuthorQuery());
+        assertEquals(5.0, plan.get(0).getCitationsPerDay(), 1e-9);
+        assertEquals(1.0, plan.get(1).getCitationsPerDay(), 1e-9);
+        assertEquals(2.0 * (1 + 5.0), plan.get(0).getPriority(), 1e-9);
+    }
+
+    @Test
+    void unknownOrDecreasingCountsAddNoVelocityAndLimitApplies() {
+        RefreshPlanner p = new RefreshPlanner();
+        p.add("A", 3 * DAY, null, 50, 10);        // un solo fetch
+        p.add("A", 3 * DAY, DAY, 50, -1);          // sin citas previas
+        p.add("B", 2 * DAY, DAY, 5, 10);           // bajan (otra versión del artículo)
+        p.add("C", DAY, DAY, 10, 10);
+
+        List<RefreshCandidate> plan = p.plan(0, 2);
+        assertEquals(2, plan.size());
+        assertEquals("A", plan.get(0).getAuthorQuery());
+        assertEquals(0.0, plan.get(0).getCitationsPerDay());
+        assertEquals(2, plan.get(0).getArticles());
+        assertEquals(0.0, plan.get(1).getCitationsPerDay());
+    }
+}
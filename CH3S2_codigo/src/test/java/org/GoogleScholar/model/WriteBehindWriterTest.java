@@ -0,0 +1,120 @@
+package org.GoogleScholar.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** A marker runs only once everything before it is committed, and is skipped after a dropped batch. */
+class WriteBehindWriterTest {
+
+    /** Store en memoria; failSaves > 0 hace fallar ese número de escrituras siguientes. */
+    private static final class MemoryStore implements ArticleStore {
+        final List<String> titles = Collections.synchronizedList(new ArrayList<>());
+        final List<String> authors = Collections.synchronizedList(new ArrayList<>());
+        volatile int failSaves;
+
+        private void maybeFail() {
+            if (failSaves > 0) {
+                failSaves--;
+                throw new IllegalStateException("store rejected the batch"); // sin reintentos
+            }
+        }
+
+        @Override public void save(List<Article> articles, List<Issue> issues) {
+            maybeFail();
+            for (Article a : articles) titles.add(a.getTitle());
+        }
+
+        @Override public void saveAuthors(List<Author> list) {
+            maybeFail();
+            for (Author a : list) authors.add(a.getName());
+        }
+
+        @Override public List<Article> findPage(Long beforeId, int limit) { throw new UnsupportedOperationException(); }
+        @Override public long[] findIdsNewestFirst() { throw new UnsupportedOperationException(); }
+        @Override public long streamAll(Consumer<Article> c) { throw new UnsupportedOperationException(); }
+        @Override public long streamDedupKeys(Consumer<Article> c) { throw new UnsupportedOperationException(); }
+        @Override public long streamAnalyticsColumns(Consumer<Article> c) { throw new UnsupportedOperationException(); }
+        @Override public void forEachTitleAndAbstract(BiConsumer<String, String> c) { throw new UnsupportedOperationException(); }
+        @Override public List<Article> findByYearRange(int from, int to, int limit) { throw new UnsupportedOperationException(); }
+        @Override public List<Article> findByKeyword(String keyword, int limit) { throw new UnsupportedOperationException(); }
+        @Override public List<Article> findTopCited(String a, Integer from, Integer to, int limit) { throw new UnsupportedOperationException(); }
+        @Override public long getWriteVersion() { return 0; }
+        @Override public String describe() { return "memory"; }
+        @Override public void close() throws IOException {}
+    }
+
+    private static Article article(String title) {
+        return new Article("a", "id-" + title, title, "A. Author", "2020", "abstract", "http://x/" + title, "kw", 1);
+    }
+
+    /** Linger largo y lotes grandes: solo los marcadores y close() fuerzan el guardado. */
+    private static WriteBehindWriter writer(ArticleStore store) {
+        return new WriteBehindWriter(store, 100, 1000, 60_000);
+    }
+
+    @Test
+    void aMarkerSeesEverySubmittedRowCommitted() throws InterruptedException {
+        MemoryStore store = new MemoryStore();
+        List<List<String>> seen = new ArrayList<>();
+        try (WriteBehindWriter w = writer(store)) {
+            w.submit(List.of(article("t1"), article("t2")), List.of());
+            w.submitAuthors(List.of(new Author("Ada", "u1", 10, "t1", null)));
+            w.afterCommitted(() -> seen.add(new ArrayList<>(store.titles)));
+            w.submit(List.of(article("t3")), List.of());
+        }
+        assertEquals(List.of(List.of("t1", "t2")), seen);
+        assertEquals(List.of("t1", "t2", "t3"), store.titles);
+        assertEquals(List.of("Ada"), store.authors);
+    }
+
+    @Test
+    void aDroppedBatchSkipsOnlyTheNextMarker() throws InterruptedException {
+        MemoryStore store = new MemoryStore();
+        List<String> ran = Collections.synchronizedList(new ArrayList<>());
+        try (WriteBehindWriter w = writer(store)) {
+            store.failSaves = 1;
+            w.submit(List.of(article("lost")), List.of());
+            w.afterCommitted(() -> ran.add("first"));
+            w.submit(List.of(article("kept")), List.of());
+            w.afterCommitted(() -> ran.add("second"));
+            w.close();
+            assertEquals(1, w.getFailedBatches());
+            assertEquals(1, w.getFailedRows());
+        }
+        assertEquals(List.of("second"), ran);
+        assertEquals(List.of("kept"), store.titles);
+    }
+
+    @Test
+    void aDroppedAuthorBatchAlsoSkipsTheMarker() throws InterruptedException {
+        MemoryStore store = new MemoryStore();
+        List<String> ran = Collections.synchronizedList(new ArrayList<>());
+        try (WriteBehindWriter w = writer(store)) {
+            w.submit(List.of(article("t1")), List.of());
+            w.afterCommitted(() -> ran.add("articles"));
+            w.afterCommitted(() -> store.failSaves = 1); // el siguiente save (los autores) fallará
+            w.submitAuthors(List.of(new Author("Ada", "u1", 10, "t1", null)));
+            w.afterCommitted(() -> ran.add("authors"));
+        }
+        assertEquals(List.of("articles"), ran);
+        assertEquals(List.of(), store.authors);
+    }
+
+    @Test
+    void closeCommitsWhatIsStillQueued() throws InterruptedException {
+        MemoryStore store = new MemoryStore();
+        WriteBehindWriter w = writer(store);
+        for (int i = 0; i < 5; i++) w.submit(List.of(article("t" + i)), List.of());
+        w.close();
+        assertEquals(5, store.titles.size());
+        assertEquals(1, w.getBatches());
+    }
+}